@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+
+import com.google.gson.Gson;
+
+/**
+ * Sends the diagnostics of documents to the client, skipping the publications
+ * which wouldn't change what the client shows.
+ * <p>
+ * The last diagnostics sent for each URI are kept, and a publication identical
+ * to them is dropped. Publications for a URI following each other within the
+ * coalescing delay are held back, and only the last one is sent once the delay
+ * has elapsed since the previous one was sent. The first publication of a
+ * burst is always sent at once.
+ * </p>
+ */
+public class DiagnosticsPublisher {
+
+	/**
+	 * The default coalescing delay, in milliseconds.
+	 */
+	public static final long DEFAULT_DELAY = 50;
+
+	/**
+	 * The statistics are logged after this number of publications.
+	 */
+	private static final long STATS_INTERVAL = 1000;
+
+	private static final Gson GSON = new Gson();
+
+	private final Consumer<PublishDiagnosticsParams> client;
+	private final long delayNanos;
+
+	private final Map<String, Published> published = new HashMap<>();
+	private final Map<String, Pending> pending = new HashMap<>();
+
+	private final LongAdder sentMessages = new LongAdder();
+	private final LongAdder sentBytes = new LongAdder();
+	private final LongAdder suppressedMessages = new LongAdder();
+	private final LongAdder suppressedBytes = new LongAdder();
+	private final AtomicLong publications = new AtomicLong();
+
+	private final Job flushJob = new Job("Publish diagnostics") {
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			flush(false);
+			return Status.OK_STATUS;
+		}
+	};
+
+	/**
+	 * @param client
+	 *            sends the diagnostics to the client
+	 * @param delay
+	 *            the coalescing delay, in milliseconds. With <code>0</code>,
+	 *            all the publications which change the diagnostics are sent at
+	 *            once
+	 */
+	public DiagnosticsPublisher(Consumer<PublishDiagnosticsParams> client, long delay) {
+		this.client = client;
+		this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delay);
+		flushJob.setSystem(true);
+	}
+
+	/**
+	 * Sends the diagnostics to the client, unless they are the ones it already
+	 * has. They may be sent later, or replaced by the next publication for the
+	 * same URI, if the last diagnostics of the URI were sent within the
+	 * coalescing delay.
+	 */
+	public void publish(PublishDiagnosticsParams diagnostics) {
+		String uri = diagnostics.getUri();
+		long delay = 0;
+		synchronized (this) {
+			Pending superseded = pending.remove(uri);
+			if (superseded != null) {
+				suppress(superseded.size);
+			}
+			Published last = published.get(uri);
+			if (last != null && last.diagnostics.equals(diagnostics.getDiagnostics())) {
+				suppress(last.size);
+			} else {
+				int size = sizeOf(diagnostics);
+				long now = System.nanoTime();
+				long elapsed = last == null ? delayNanos : now - last.time;
+				if (elapsed >= delayNanos) {
+					send(diagnostics, size, now);
+				} else {
+					pending.put(uri, new Pending(diagnostics, size, last.time + delayNanos));
+					delay = delayNanos - elapsed;
+				}
+			}
+		}
+		if (delay > 0) {
+			flushJob.schedule(Math.max(1, TimeUnit.NANOSECONDS.toMillis(delay)));
+		}
+		if (publications.incrementAndGet() % STATS_INTERVAL == 0) {
+			logStatistics();
+		}
+	}
+
+	/**
+	 * Sends the pending diagnostics now.
+	 */
+	public void flush() {
+		flush(true);
+	}
+
+	private void flush(boolean all) {
+		long next = Long.MAX_VALUE;
+		synchronized (this) {
+			long now = System.nanoTime();
+			for (Iterator<Pending> iterator = pending.values().iterator(); iterator.hasNext();) {
+				Pending diagnostics = iterator.next();
+				if (all || diagnostics.due - now <= 0) {
+					iterator.remove();
+					send(diagnostics.params, diagnostics.size, now);
+				} else {
+					next = Math.min(next, diagnostics.due - now);
+				}
+			}
+		}
+		if (next != Long.MAX_VALUE) {
+			flushJob.schedule(Math.max(1, TimeUnit.NANOSECONDS.toMillis(next)));
+		}
+	}
+
+	/**
+	 * Drops the pending diagnostics, and forgets the ones sent.
+	 */
+	public synchronized void dispose() {
+		flushJob.cancel();
+		pending.clear();
+		published.clear();
+	}
+
+	private void send(PublishDiagnosticsParams diagnostics, int size, long now) {
+		client.accept(diagnostics);
+		published.put(diagnostics.getUri(), new Published(diagnostics.getDiagnostics(), size, now));
+		sentMessages.increment();
+		sentBytes.add(size);
+	}
+
+	private void suppress(int size) {
+		suppressedMessages.increment();
+		suppressedBytes.add(size);
+	}
+
+	private static int sizeOf(PublishDiagnosticsParams diagnostics) {
+		return GSON.toJson(diagnostics).getBytes(StandardCharsets.UTF_8).length;
+	}
+
+	private void logStatistics() {
+		JavaLanguageServerPlugin.logInfo(String.format("Diagnostics: %d messages sent (%d bytes), %d suppressed (%d bytes)", getSentMessages(), getSentBytes(), getSuppressedMessages(), getSuppressedBytes()));
+	}
+
+	public long getSentMessages() {
+		return sentMessages.sum();
+	}
+
+	/**
+	 * @return the size of the JSON of the diagnostics sent, in bytes
+	 */
+	public long getSentBytes() {
+		return sentBytes.sum();
+	}
+
+	/**
+	 * @return the number of publications which were identical to the last
+	 *         diagnostics sent, or were replaced by a later one
+	 */
+	public long getSuppressedMessages() {
+		return suppressedMessages.sum();
+	}
+
+	/**
+	 * @return the size of the JSON of the diagnostics not sent, in bytes
+	 */
+	public long getSuppressedBytes() {
+		return suppressedBytes.sum();
+	}
+
+	private static final class Published {
+		private final List<Diagnostic> diagnostics;
+		private final int size;
+		private final long time;
+
+		Published(List<Diagnostic> diagnostics, int size, long time) {
+			this.diagnostics = diagnostics;
+			this.size = size;
+			this.time = time;
+		}
+	}
+
+	private static final class Pending {
+		private final PublishDiagnosticsParams params;
+		private final int size;
+		private final long due;
+
+		Pending(PublishDiagnosticsParams params, int size, long due) {
+			this.params = params;
+			this.size = size;
+			this.due = due;
+		}
+	}
+}
@@ -12,15 +12,16 @@ package org.eclipse.jdt.ls.core.internal;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.OperationCanceledException;
-import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.ILocalVariable;
@@ -28,16 +29,19 @@ import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.ITypeParameter;
 import org.eclipse.jdt.core.ITypeRoot;
-import org.eclipse.jdt.core.search.IJavaSearchConstants;
-import org.eclipse.jdt.core.search.IJavaSearchScope;
-import org.eclipse.jdt.core.search.SearchEngine;
-import org.eclipse.jdt.core.search.SearchMatch;
-import org.eclipse.jdt.core.search.SearchParticipant;
-import org.eclipse.jdt.core.search.SearchPattern;
-import org.eclipse.jdt.core.search.SearchRequestor;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
+import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
 import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache;
 import org.eclipse.jdt.ls.core.internal.javadoc.JavadocContentAccess2;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.lsp4j.MarkedString;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 
@@ -64,6 +68,25 @@ public class HoverInfoProvider {
 
 	private static final String LANGUAGE_ID = "java";
 
+	/**
+	 * The number of units whose resolved types are remembered.
+	 */
+	private static final int RESOLVED_TYPES_SIZE = 16;
+
+	/**
+	 * The resolved types of the last hovered units, by handle.
+	 */
+	private static final Map<String, ResolvedTypes> RESOLVED_TYPES = new LinkedHashMap<String, ResolvedTypes>(RESOLVED_TYPES_SIZE, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ResolvedTypes> eldest) {
+			return size() > RESOLVED_TYPES_SIZE;
+		}
+
+	};
+
 	private final ITypeRoot unit;
 
 	private final PreferenceManager preferenceManager;
@@ -118,6 +141,13 @@ public class HoverInfoProvider {
 		return res;
 	}
 
+	/**
+	 * Checks whether the type selected in the unit resolves, the selected
+	 * element may only be a guess for an unresolved type. The types referenced
+	 * by the unit are resolved once per modification of its contents. Since
+	 * another unit may declare the type meanwhile, they are resolved again
+	 * when the type isn't found.
+	 */
 	private boolean isResolved(IJavaElement element, IProgressMonitor monitor) throws CoreException {
 		if (!(unit instanceof ICompilationUnit)) {
 			return true;
@@ -128,39 +158,43 @@ public class HoverInfoProvider {
 		if (element.getElementType() != IJavaElement.TYPE) {
 			return true;
 		}
-		SearchPattern pattern = SearchPattern.createPattern(element, IJavaSearchConstants.ALL_OCCURRENCES);
-		final boolean[] res = new boolean[1];
-		res[0] = false;
-		SearchEngine engine = new SearchEngine();
-		IJavaSearchScope scope = SearchEngine.createJavaSearchScope(new IJavaElement[] { unit }, IJavaSearchScope.SOURCES | IJavaSearchScope.APPLICATION_LIBRARIES | IJavaSearchScope.SYSTEM_LIBRARIES);
-		try {
-			engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, scope, new SearchRequestor() {
+		String handle = unit.getHandleIdentifier();
+		long stamp = JsonRpcHelpers.getModificationStamp(unit.getBuffer());
+		ResolvedTypes resolvedTypes;
+		synchronized (RESOLVED_TYPES) {
+			resolvedTypes = RESOLVED_TYPES.get(handle);
+		}
+		if (resolvedTypes != null && resolvedTypes.stamp == stamp && stamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP && element.exists() && resolvedTypes.types.contains(element)) {
+			return true;
+		}
+		Set<IJavaElement> types = getResolvedTypes((ICompilationUnit) unit, monitor);
+		synchronized (RESOLVED_TYPES) {
+			RESOLVED_TYPES.put(handle, new ResolvedTypes(stamp, types));
+		}
+		return types.contains(element);
+	}
 
-				@Override
-				public void acceptSearchMatch(SearchMatch match) throws CoreException {
-					if (match.getAccuracy() == SearchMatch.A_INACCURATE) {
-						return;
-					}
-					Object o = match.getElement();
-					if (o instanceof IJavaElement) {
-						IJavaElement element = (IJavaElement) o;
-						if (element.getElementType() == IJavaElement.TYPE) {
-							res[0] = true;
-							return;
-						}
-						ICompilationUnit compilationUnit = (ICompilationUnit) element.getAncestor(IJavaElement.COMPILATION_UNIT);
-						if (compilationUnit == null) {
-							return;
-						}
-						res[0] = true;
-						throw new HoverException();
+	private static Set<IJavaElement> getResolvedTypes(ICompilationUnit unit, IProgressMonitor monitor) {
+		ASTParser parser = ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+		parser.setSource(unit);
+		parser.setResolveBindings(true);
+		parser.setStatementsRecovery(true);
+		CompilationUnit astRoot = (CompilationUnit) parser.createAST(monitor);
+		Set<IJavaElement> types = new HashSet<>();
+		astRoot.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(SimpleName node) {
+				IBinding binding = node.resolveBinding();
+				if (binding instanceof ITypeBinding && !binding.isRecovered()) {
+					IJavaElement type = ((ITypeBinding) binding).getErasure().getJavaElement();
+					if (type != null) {
+						types.add(type);
 					}
 				}
-			}, monitor);
-		} catch (HoverException | OperationCanceledException e) {
-			// ignore
-		}
-		return res[0];
+				return false;
+			}
+		});
+		return types;
 	}
 
 	public static MarkedString computeSignature(IJavaElement element)  {
@@ -179,6 +213,18 @@ public class HoverInfoProvider {
 
 
 	public static MarkedString computeJavadoc(IJavaElement element) throws CoreException {
+		if (!(element instanceof ITypeParameter || element instanceof IMember || element instanceof IPackageFragment)) {
+			return null;
+		}
+		JavadocCache cache = JavaLanguageServerPlugin.getJavadocCache();
+		String markdown = cache == null ? computeMarkdown(element) : cache.get(element, () -> computeMarkdown(element));
+		if (markdown == null) {
+			return null;
+		}
+		return new MarkedString(LANGUAGE_ID, markdown);
+	}
+
+	private static String computeMarkdown(IJavaElement element) throws CoreException {
 		IMember member;
 		if (element instanceof ITypeParameter) {
 			member= ((ITypeParameter) element).getDeclaringMember();
@@ -189,7 +235,7 @@ public class HoverInfoProvider {
 			if(r == null ) {
 				return null;
 			}
-			return new MarkedString(LANGUAGE_ID, getString(r));
+			return getString(r);
 		} else {
 			return null;
 		}
@@ -198,7 +244,7 @@ public class HoverInfoProvider {
 		if(r == null ) {
 			return null;
 		}
-		return new MarkedString(LANGUAGE_ID, getString(r));
+		return getString(r);
 	}
 
 	/**
@@ -216,17 +262,18 @@ public class HoverInfoProvider {
 		return null;
 	}
 
-	private class HoverException extends CoreException {
-
-		private static final long serialVersionUID = 1L;
+	/**
+	 * The types referenced by a unit which resolve, for a modification stamp
+	 * of its contents.
+	 */
+	private static final class ResolvedTypes {
 
-		public HoverException() {
-			super(new Status(IStatus.OK, JavaLanguageServerPlugin.PLUGIN_ID, ""));
-		}
+		private final long stamp;
+		private final Set<IJavaElement> types;
 
-		@Override
-		public synchronized Throwable fillInStackTrace() {
-			return this;
+		private ResolvedTypes(long stamp, Set<IJavaElement> types) {
+			this.stamp = stamp;
+			this.types = types;
 		}
 
 	}
@@ -15,6 +15,7 @@ import java.util.List;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.ls.core.internal.commands.OrganizeImportsCommand;
+import org.eclipse.jdt.ls.core.internal.handlers.CodeActionHandler;
 import org.eclipse.lsp4j.WorkspaceEdit;
 
 public class JDTDelegateCommandHandler implements IDelegateCommandHandler {
@@ -40,6 +41,15 @@ public class JDTDelegateCommandHandler implements IDelegateCommandHandler {
 						// workspaceEdit on the custom command.
 						return result;
 					}
+				case CodeActionHandler.COMMAND_ID_APPLY_CODE_ACTION:
+					final WorkspaceEdit edit = CodeActionHandler.resolveCodeAction(arguments);
+					if (edit != null) {
+						JavaLanguageServerPlugin.getInstance().getClientConnection().applyWorkspaceEdit(edit);
+					} else {
+						JavaLanguageServerPlugin.logInfo("Code action is outdated, it wasn't applied");
+					}
+					// return an empty object to avoid errors on client
+					return new Object();
 				default:
 					break;
 			}
@@ -72,6 +72,7 @@ import org.eclipse.jdt.launching.JavaRuntime;
 import org.eclipse.jdt.launching.environments.IExecutionEnvironment;
 import org.eclipse.jdt.launching.environments.IExecutionEnvironmentsManager;
 import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
+import org.eclipse.jdt.ls.core.internal.handlers.LineTable;
 import org.eclipse.jdt.ls.core.internal.managers.ContentProviderManager;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
@@ -127,7 +128,11 @@ public final class JDTUtils {
 		if (uri == null || JDT_SCHEME.equals(uri.getScheme()) || !uri.isAbsolute()){
 			return null;
 		}
+		TypeRootCache cache = JavaLanguageServerPlugin.getTypeRootCache();
+		return cache == null ? findCompilationUnit(uri) : cache.get(uri, JDTUtils::findCompilationUnit);
+	}
 
+	private static ICompilationUnit findCompilationUnit(URI uri) {
 		IFile resource = (IFile) findResource(uri, ResourcesPlugin.getWorkspace().getRoot()::findFilesForLocationURI);
 		if(resource != null){
 			if(!ProjectUtils.isJavaProject(resource.getProject())){
@@ -298,13 +303,18 @@ public final class JDTUtils {
 	 */
 	public static IClassFile resolveClassFile(URI uri){
 		if (uri != null && JDT_SCHEME.equals(uri.getScheme()) && "contents".equals(uri.getAuthority())) {
-			String handleId = uri.getQuery();
-			IJavaElement element = JavaCore.create(handleId);
-			IClassFile cf = (IClassFile) element.getAncestor(IJavaElement.CLASS_FILE);
-			return cf;
+			TypeRootCache cache = JavaLanguageServerPlugin.getTypeRootCache();
+			return cache == null ? findClassFile(uri) : cache.get(uri, JDTUtils::findClassFile);
 		}
 		return null;
 	}
+
+	private static IClassFile findClassFile(URI uri) {
+		String handleId = uri.getQuery();
+		IJavaElement element = JavaCore.create(handleId);
+		IClassFile cf = (IClassFile) element.getAncestor(IJavaElement.CLASS_FILE);
+		return cf;
+	}
 	/**
 	 * Convenience method that combines {@link #resolveClassFile(String)} and
 	 * {@link #resolveCompilationUnit(String)}.
@@ -525,21 +535,10 @@ public final class JDTUtils {
 	public static Range toRange(IOpenable openable, int offset, int length) throws JavaModelException{
 		Range range = newRange();
 		if (offset > 0 || length > 0) {
-			int[] loc = null;
-			int[] endLoc = null;
 			IBuffer buffer = openable.getBuffer();
 			if (buffer != null) {
-				loc = JsonRpcHelpers.toLine(buffer, offset);
-				endLoc = JsonRpcHelpers.toLine(buffer, offset + length);
+				return LineTable.get(buffer).toRange(offset, length);
 			}
-			if (loc == null) {
-				loc = new int[2];
-			}
-			if (endLoc == null) {
-				endLoc = new int[2];
-			}
-			setPosition(range.getStart(), loc);
-			setPosition(range.getEnd(), endLoc);
 		}
 		return range;
 	}
@@ -563,12 +562,6 @@ public final class JDTUtils {
 		return new Range(new Position(line, start), new Position(line, end));
 	}
 
-	private static void setPosition(Position position, int[] coords) {
-		assert coords.length == 2;
-		position.setLine(coords[0]);
-		position.setCharacter(coords[1]);
-	}
-
 	/**
 	 * Returns uri for a compilation unit
 	 * @param cu
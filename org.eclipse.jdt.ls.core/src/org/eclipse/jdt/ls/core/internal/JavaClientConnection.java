@@ -67,9 +67,25 @@ public class JavaClientConnection {
 
 	private final LogHandler logHandler;
 	private final JavaLanguageClient client;
+	private final DiagnosticsPublisher diagnosticsPublisher;
 
+	/**
+	 * Creates a connection which sends the diagnostics at once, unless they
+	 * are identical to the last ones sent for the same document.
+	 */
 	public JavaClientConnection(JavaLanguageClient client) {
+		this(client, 0);
+	}
+
+	/**
+	 * @param diagnosticsDelay
+	 *            the delay within which the diagnostics published for a
+	 *            document are coalesced, in milliseconds
+	 * @see DiagnosticsPublisher
+	 */
+	public JavaClientConnection(JavaLanguageClient client, long diagnosticsDelay) {
 		this.client = client;
+		this.diagnosticsPublisher = new DiagnosticsPublisher(client::publishDiagnostics, diagnosticsDelay);
 		logHandler = new LogHandler();
 		logHandler.install(this);
 	}
@@ -164,7 +180,11 @@ public class JavaClientConnection {
 	}
 
 	public void publishDiagnostics(PublishDiagnosticsParams diagnostics){
-		client.publishDiagnostics(diagnostics);
+		diagnosticsPublisher.publish(diagnostics);
+	}
+
+	public DiagnosticsPublisher getDiagnosticsPublisher() {
+		return diagnosticsPublisher;
 	}
 
 
@@ -207,6 +227,9 @@ public class JavaClientConnection {
 		if (logHandler != null) {
 			logHandler.uninstall();
 		}
+		if (diagnosticsPublisher != null) {
+			diagnosticsPublisher.dispose();
+		}
 	}
 
 }
@@ -36,6 +36,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.internal.net.ProxySelector;
 import org.eclipse.core.net.proxy.IProxyData;
 import org.eclipse.core.net.proxy.IProxyService;
+import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
@@ -45,15 +46,20 @@ import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.preferences.DefaultScope;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.manipulation.JavaManipulation;
 import org.eclipse.jdt.internal.core.manipulation.JavaManipulationPlugin;
 import org.eclipse.jdt.internal.core.manipulation.MembersOrderPreferenceCacheCommon;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection.JavaLanguageClient;
 import org.eclipse.jdt.ls.core.internal.handlers.JDTLanguageServer;
+import org.eclipse.jdt.ls.core.internal.handlers.ReferencesCache;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache;
 import org.eclipse.jdt.ls.core.internal.managers.ContentProviderManager;
 import org.eclipse.jdt.ls.core.internal.managers.DigestStore;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
+import org.eclipse.jdt.ls.core.internal.managers.WorkspaceSymbolIndex;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
@@ -100,6 +106,10 @@ public class JavaLanguageServerPlugin extends Plugin {
 	private LanguageServer languageServer;
 	private ProjectsManager projectsManager;
 	private DigestStore digestStore;
+	private WorkspaceSymbolIndex workspaceSymbolIndex;
+	private JavadocCache javadocCache;
+	private TypeRootCache typeRootCache;
+	private ReferencesCache referencesCache;
 	private ContentProviderManager contentProviderManager;
 
 	private JDTLanguageServer protocol;
@@ -145,13 +155,22 @@ public class JavaLanguageServerPlugin extends Plugin {
 
 		preferenceManager = new PreferenceManager();
 		digestStore = new DigestStore(getStateLocation().toFile());
+		workspaceSymbolIndex = new WorkspaceSymbolIndex(getStateLocation().toFile());
+		JavaCore.addElementChangedListener(workspaceSymbolIndex, ElementChangedEvent.POST_CHANGE);
+		javadocCache = new JavadocCache();
+		JavaCore.addElementChangedListener(javadocCache, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		typeRootCache = new TypeRootCache();
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(typeRootCache, IResourceChangeEvent.POST_CHANGE | IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
+		JavaCore.addElementChangedListener(typeRootCache, ElementChangedEvent.POST_CHANGE);
+		referencesCache = new ReferencesCache();
+		JavaCore.addElementChangedListener(referencesCache, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
 		projectsManager = new ProjectsManager(preferenceManager);
 		try {
 			ResourcesPlugin.getWorkspace().addSaveParticipant(PLUGIN_ID, projectsManager);
 		} catch (CoreException e) {
 			logException(e.getMessage(), e);
 		}
-		contentProviderManager = new ContentProviderManager(preferenceManager);
+		contentProviderManager = new ContentProviderManager(preferenceManager, getStateLocation().toFile());
 		logInfo(getClass() + " is started");
 		configureProxy();
 	}
@@ -296,6 +315,27 @@ public class JavaLanguageServerPlugin extends Plugin {
 		JavaLanguageServerPlugin.pluginInstance = null;
 		JavaLanguageServerPlugin.context = null;
 		ResourcesPlugin.getWorkspace().removeSaveParticipant(PLUGIN_ID);
+		if (workspaceSymbolIndex != null) {
+			JavaCore.removeElementChangedListener(workspaceSymbolIndex);
+			workspaceSymbolIndex.dispose();
+			if (workspaceSymbolIndex.isModified()) {
+				workspaceSymbolIndex.save();
+			}
+			workspaceSymbolIndex = null;
+		}
+		if (javadocCache != null) {
+			JavaCore.removeElementChangedListener(javadocCache);
+			javadocCache = null;
+		}
+		if (typeRootCache != null) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(typeRootCache);
+			JavaCore.removeElementChangedListener(typeRootCache);
+			typeRootCache = null;
+		}
+		if (referencesCache != null) {
+			JavaCore.removeElementChangedListener(referencesCache);
+			referencesCache = null;
+		}
 		projectsManager = null;
 		contentProviderManager = null;
 		languageServer = null;
@@ -361,6 +401,22 @@ public class JavaLanguageServerPlugin extends Plugin {
 		return pluginInstance.digestStore;
 	}
 
+	public static WorkspaceSymbolIndex getWorkspaceSymbolIndex() {
+		return pluginInstance == null ? null : pluginInstance.workspaceSymbolIndex;
+	}
+
+	public static JavadocCache getJavadocCache() {
+		return pluginInstance == null ? null : pluginInstance.javadocCache;
+	}
+
+	public static TypeRootCache getTypeRootCache() {
+		return pluginInstance == null ? null : pluginInstance.typeRootCache;
+	}
+
+	public static ReferencesCache getReferencesCache() {
+		return pluginInstance == null ? null : pluginInstance.referencesCache;
+	}
+
 	/**
 	 * @return
 	 */
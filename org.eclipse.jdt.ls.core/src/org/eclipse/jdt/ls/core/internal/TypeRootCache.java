@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.ITypeRoot;
+
+/**
+ * Cache of the type roots resolved from document URIs by {@link JDTUtils}, so
+ * that requests don't look up the workspace resources of their document over
+ * and over.
+ * <p>
+ * Since a URI may resolve to another resource when resources are added,
+ * removed or moved, when projects are opened or closed, or when the classpath
+ * changes, the whole cache is dropped on any of these. Changes to the contents
+ * of files, or to derived resources such as build output, keep it.
+ * </p>
+ * <p>
+ * The cost saved by the cache is estimated per request type, from the average
+ * time of the lookups it didn't answer.
+ * </p>
+ */
+public class TypeRootCache implements IResourceChangeListener, IElementChangedListener {
+
+	/**
+	 * The statistics are logged after this number of lookups.
+	 */
+	private static final long STATS_INTERVAL = 1000;
+
+	private static final String UNKNOWN_REQUEST = "other";
+
+	private static final ThreadLocal<String> REQUEST = new ThreadLocal<>();
+
+	private static final int CLASSPATH_FLAGS = IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+			| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED;
+
+	private static final int RESOURCE_FLAGS = IResourceDelta.OPEN | IResourceDelta.DESCRIPTION | IResourceDelta.MOVED_FROM | IResourceDelta.MOVED_TO | IResourceDelta.REPLACED | IResourceDelta.TYPE | IResourceDelta.LOCAL_CHANGED;
+
+	private final Map<URI, ITypeRoot> typeRoots = new ConcurrentHashMap<>();
+
+	/**
+	 * Incremented whenever the cache is dropped, so that a type root resolved
+	 * concurrently isn't cached after the change.
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	private final Map<String, RequestStatistics> statistics = new ConcurrentHashMap<>();
+
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder missNanos = new LongAdder();
+	private final AtomicLong lookups = new AtomicLong();
+
+	/**
+	 * Sets the type of the request handled by the current thread, which the
+	 * statistics of the lookups are attributed to.
+	 *
+	 * @param request
+	 *            the request type, or <code>null</code> once the request is
+	 *            handled
+	 */
+	public static void setRequest(String request) {
+		if (request == null) {
+			REQUEST.remove();
+		} else {
+			REQUEST.set(request);
+		}
+	}
+
+	/**
+	 * Returns the type root of the given URI, resolving it if it isn't cached
+	 * yet. Unresolved URIs aren't cached.
+	 *
+	 * @return the type root, or <code>null</code>
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends ITypeRoot> T get(URI uri, Function<URI, T> resolver) {
+		RequestStatistics requestStatistics = getRequestStatistics();
+		try {
+			ITypeRoot typeRoot = typeRoots.get(uri);
+			if (typeRoot != null) {
+				requestStatistics.hits.increment();
+				return (T) typeRoot;
+			}
+			long currentGeneration = generation.get();
+			long start = System.nanoTime();
+			T resolved = resolver.apply(uri);
+			long elapsed = System.nanoTime() - start;
+			requestStatistics.misses.increment();
+			misses.increment();
+			missNanos.add(elapsed);
+			if (resolved != null) {
+				typeRoots.put(uri, resolved);
+				if (generation.get() != currentGeneration) {
+					// dropped while resolving, the type root may be stale already
+					typeRoots.remove(uri);
+				}
+			}
+			return resolved;
+		} finally {
+			if (lookups.incrementAndGet() % STATS_INTERVAL == 0) {
+				logStatistics();
+			}
+		}
+	}
+
+	private RequestStatistics getRequestStatistics() {
+		String request = REQUEST.get();
+		return statistics.computeIfAbsent(request == null ? UNKNOWN_REQUEST : request, r -> new RequestStatistics());
+	}
+
+	/**
+	 * Returns the statistics of the lookups, by request type.
+	 */
+	public Map<String, Statistics> getStatistics() {
+		long averageMissNanos = getAverageMissNanos();
+		Map<String, Statistics> result = new HashMap<>();
+		statistics.forEach((request, stats) -> {
+			long hits = stats.hits.sum();
+			result.put(request, new Statistics(hits, stats.misses.sum(), hits * averageMissNanos));
+		});
+		return Collections.unmodifiableMap(result);
+	}
+
+	private long getAverageMissNanos() {
+		long missCount = misses.sum();
+		return missCount == 0 ? 0 : missNanos.sum() / missCount;
+	}
+
+	private void logStatistics() {
+		StringBuilder message = new StringBuilder("Type root cache: ").append(typeRoots.size()).append(" entries");
+		getStatistics().forEach((request, stats) -> {
+			message.append(String.format(", %s: %d hits, %d misses, %d ms saved", request, stats.getHits(), stats.getMisses(), stats.getSavedNanos() / 1_000_000));
+		});
+		JavaLanguageServerPlugin.logInfo(message.toString());
+	}
+
+	public void clear() {
+		generation.incrementAndGet();
+		typeRoots.clear();
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		switch (event.getType()) {
+			case IResourceChangeEvent.PRE_CLOSE:
+			case IResourceChangeEvent.PRE_DELETE:
+				clear();
+				break;
+			case IResourceChangeEvent.POST_CHANGE:
+				if (event.getDelta() != null && isStructuralChange(event.getDelta())) {
+					clear();
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	private static boolean isStructuralChange(IResourceDelta delta) {
+		boolean[] changed = new boolean[1];
+		try {
+			delta.accept(d -> {
+				IResource resource = d.getResource();
+				if (changed[0] || resource.isDerived()) {
+					return false;
+				}
+				if (d.getKind() != IResourceDelta.CHANGED || (d.getFlags() & RESOURCE_FLAGS) != 0) {
+					changed[0] = true;
+					return false;
+				}
+				return true;
+			});
+		} catch (CoreException e) {
+			JavaLanguageServerPlugin.logException(e.getMessage(), e);
+			return true;
+		}
+		return changed[0];
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		if (isClasspathChange(event.getDelta())) {
+			clear();
+		}
+	}
+
+	private static boolean isClasspathChange(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				break;
+			case IJavaElement.JAVA_PROJECT:
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & CLASSPATH_FLAGS) != 0) {
+					return true;
+				}
+				if (element.getElementType() == IJavaElement.PACKAGE_FRAGMENT_ROOT) {
+					return false;
+				}
+				break;
+			default:
+				return false;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (isClasspathChange(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static final class RequestStatistics {
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+	}
+
+	/**
+	 * The lookups of a request type.
+	 */
+	public static final class Statistics {
+		private final long hits;
+		private final long misses;
+		private final long savedNanos;
+
+		Statistics(long hits, long misses, long savedNanos) {
+			this.hits = hits;
+			this.misses = misses;
+			this.savedNanos = savedNanos;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		/**
+		 * @return the estimated time saved by the hits, in nanoseconds
+		 */
+		public long getSavedNanos() {
+			return savedNanos;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.contentassist;
+
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.ls.core.internal.DocumentAdapter;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IDocumentListener;
+
+/**
+ * Follows the changes of a document after a completion request, to tell
+ * whether text was only inserted at the end of the completed prefix since,
+ * without comparing the whole contents of the document on the next request.
+ * <p>
+ * An insertion at the end of the prefix is recognized at once. Larger
+ * changes, such as the whole contents being replaced by clients which don't
+ * send incremental changes, are compared with the text they replace.
+ * </p>
+ */
+public final class CompletionPrefixTracker implements IDocumentListener {
+
+	private final IDocument document;
+	private int end;
+	private boolean valid = true;
+
+	private CompletionPrefixTracker(IDocument document, int end) {
+		this.document = document;
+		this.end = end;
+	}
+
+	/**
+	 * Starts following the changes of the buffer after the given offset.
+	 *
+	 * @param version
+	 *            the modification stamp of the document the offset refers to
+	 * @return the tracker, or <code>null</code> if the buffer isn't backed by a
+	 *         document, or if the document changed since the given version
+	 */
+	public static CompletionPrefixTracker install(IBuffer buffer, int offset, long version) {
+		IDocument document = null;
+		if (buffer instanceof IDocument) {
+			document = (IDocument) buffer;
+		} else if (buffer instanceof DocumentAdapter) {
+			document = ((DocumentAdapter) buffer).getDocument();
+		}
+		if (!(document instanceof IDocumentExtension4) || version == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+			return null;
+		}
+		CompletionPrefixTracker tracker = new CompletionPrefixTracker(document, offset);
+		document.addDocumentListener(tracker);
+		if (((IDocumentExtension4) document).getModificationStamp() != version) {
+			// changed since the completion was computed
+			tracker.dispose();
+			return null;
+		}
+		return tracker;
+	}
+
+	/**
+	 * @return the end of the prefix in the current document, or
+	 *         <code>-1</code> if the document changed elsewhere
+	 */
+	public synchronized int getPrefixEnd() {
+		return valid ? end : -1;
+	}
+
+	public void dispose() {
+		synchronized (this) {
+			valid = false;
+		}
+		document.removeDocumentListener(this);
+	}
+
+	@Override
+	public synchronized void documentAboutToBeChanged(DocumentEvent event) {
+		if (!valid) {
+			return;
+		}
+		String text = event.getText() == null ? "" : event.getText();
+		if (isInsertionAtEnd(event.getOffset(), event.getLength(), text)) {
+			end += text.length() - event.getLength();
+		} else {
+			valid = false;
+		}
+	}
+
+	/**
+	 * Tells whether replacing the given range with the text amounts to
+	 * inserting text at the end of the prefix: the replaced text must be kept
+	 * before and after the end.
+	 */
+	private boolean isInsertionAtEnd(int offset, int length, String text) {
+		int inserted = text.length() - length;
+		if (inserted < 0 || offset > end || offset + length < end) {
+			return false;
+		}
+		try {
+			for (int i = offset; i < end; i++) {
+				if (document.getChar(i) != text.charAt(i - offset)) {
+					return false;
+				}
+			}
+			for (int i = end; i < offset + length; i++) {
+				if (document.getChar(i) != text.charAt(i - offset + inserted)) {
+					return false;
+				}
+			}
+		} catch (BadLocationException e) {
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public void documentChanged(DocumentEvent event) {
+		if (getPrefixEnd() < 0) {
+			document.removeDocumentListener(this);
+		}
+	}
+}
@@ -11,9 +11,14 @@
 package org.eclipse.jdt.ls.core.internal.contentassist;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
@@ -21,17 +26,22 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.core.CompletionContext;
 import org.eclipse.jdt.core.CompletionProposal;
 import org.eclipse.jdt.core.CompletionRequestor;
+import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.handlers.CompletionResolveHandler;
 import org.eclipse.jdt.ls.core.internal.handlers.CompletionResponse;
 import org.eclipse.jdt.ls.core.internal.handlers.CompletionResponses;
+import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
 import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.CompletionItemKind;
 
@@ -45,6 +55,19 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 	private CompletionResponse response;
 	private boolean fIsTestCodeExcluded;
 	private CompletionContext context;
+	private final Map<CompletionProposal, Integer> relevanceBoosts = new IdentityHashMap<>();
+	private int maxResults;
+	private boolean incomplete;
+
+	/**
+	 * Relevance added to the proposals matching a refined prefix, depending on
+	 * how well they match it.
+	 */
+	private static final int NO_MATCH = -1;
+	private static final int PATTERN_MATCH = 0;
+	private static final int PREFIX_MATCH = 1;
+	private static final int CASE_MATCH = 2;
+	private static final int EXACT_MATCH = 3;
 
 	// Update SUPPORTED_KINDS when mapKind changes
 	// @formatter:off
@@ -63,6 +86,13 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 		this.unit = aUnit;
 		response = new CompletionResponse();
 		response.setOffset(offset);
+		response.setProposalsOffset(offset);
+		response.setUri(JDTUtils.toURI(unit));
+		try {
+			response.setDocumentVersion(JsonRpcHelpers.getModificationStamp(unit.getBuffer()));
+		} catch (JavaModelException e) {
+			// keep the unknown version
+		}
 		fIsTestCodeExcluded = !isTestSource(unit.getJavaProject(), unit);
 		setRequireExtendedContext(true);
 	}
@@ -106,7 +136,20 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 
 	public List<CompletionItem> getCompletionItems() {
 		response.setProposals(proposals);
+		if (response.getPrefix() == null) {
+			computePrefix();
+		}
 		CompletionResponses.store(response);
+		if (maxResults > 0 && proposals.size() > maxResults) {
+			// all the proposals are kept in the response, so that they can still be resolved and refined
+			incomplete = true;
+			List<Integer> indexes = getMostRelevantProposals(maxResults);
+			List<CompletionItem> completionItems = new ArrayList<>(indexes.size());
+			for (int index : indexes) {
+				completionItems.add(toCompletionItem(proposals.get(index), index));
+			}
+			return completionItems;
+		}
 		List<CompletionItem> completionItems = new ArrayList<>(proposals.size());
 		for (int i = 0; i < proposals.size(); i++) {
 			completionItems.add(toCompletionItem(proposals.get(i), i));
@@ -114,20 +157,292 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 		return completionItems;
 	}
 
+	/**
+	 * Returns the indexes of the <code>count</code> most relevant proposals, in
+	 * the order they were accepted. Equally relevant proposals accepted first
+	 * are preferred.
+	 */
+	private List<Integer> getMostRelevantProposals(int count) {
+		int[] relevances = new int[proposals.size()];
+		for (int i = 0; i < relevances.length; i++) {
+			CompletionProposal proposal = proposals.get(i);
+			Integer relevanceBoost = relevanceBoosts.get(proposal);
+			relevances[i] = SortTextHelper.computeRelevance(proposal, relevanceBoost == null ? 0 : relevanceBoost);
+		}
+		// the head of the queue is the least relevant of the best proposals found so far
+		Comparator<Integer> byRelevance = Comparator.comparingInt(i -> relevances[i]);
+		PriorityQueue<Integer> mostRelevant = new PriorityQueue<>(count + 1, byRelevance.thenComparing(Comparator.reverseOrder()));
+		for (int i = 0; i < relevances.length; i++) {
+			mostRelevant.add(i);
+			if (mostRelevant.size() > count) {
+				mostRelevant.poll();
+			}
+		}
+		List<Integer> indexes = new ArrayList<>(mostRelevant);
+		Collections.sort(indexes);
+		return indexes;
+	}
+
+	/**
+	 * Sets the maximum number of items returned by {@link #getCompletionItems()},
+	 * <code>0</code> if there is no limit.
+	 */
+	public void setMaxResults(int maxResults) {
+		this.maxResults = maxResults;
+	}
+
+	/**
+	 * @return <code>true</code> if {@link #getCompletionItems()} didn't return
+	 *         all the proposals
+	 */
+	public boolean isIncomplete() {
+		return incomplete;
+	}
+
 	public CompletionItem toCompletionItem(CompletionProposal proposal, int index) {
 		final CompletionItem $ = new CompletionItem();
 		$.setKind(mapKind(proposal.getKind()));
 		Map<String, String> data = new HashMap<>();
 		// append data field so that resolve request can use it.
-		data.put(CompletionResolveHandler.DATA_FIELD_URI, JDTUtils.toURI(unit));
+		data.put(CompletionResolveHandler.DATA_FIELD_URI, response.getUri());
+		data.put(CompletionResolveHandler.DATA_FIELD_DOCUMENT_VERSION, String.valueOf(response.getDocumentVersion()));
 		data.put(CompletionResolveHandler.DATA_FIELD_REQUEST_ID,String.valueOf(response.getId()));
 		data.put(CompletionResolveHandler.DATA_FIELD_PROPOSAL_ID,String.valueOf(index));
+		data.put(CompletionResolveHandler.DATA_FIELD_OFFSET, String.valueOf(response.getOffset()));
 		$.setData(data);
 		this.descriptionProvider.updateDescription(proposal, $);
-		$.setSortText(SortTextHelper.computeSortText(proposal));
+		Integer relevanceBoost = relevanceBoosts.get(proposal);
+		$.setSortText(SortTextHelper.computeSortText(proposal, relevanceBoost == null ? 0 : relevanceBoost));
 		return $;
 	}
 
+	/**
+	 * Finds the proposal an item was created from, among the proposals
+	 * collected again after the response of the item was evicted: the proposal
+	 * at the same index if it has the same label and kind, the first one which
+	 * has otherwise, since the item may come from a refined response.
+	 *
+	 * @return the proposal, or <code>null</code> if none matches the item
+	 */
+	public CompletionProposal findProposal(int index, CompletionItem item) {
+		if (descriptionProvider == null) {
+			return null;
+		}
+		if (index >= 0 && index < proposals.size() && matches(proposals.get(index), item)) {
+			return proposals.get(index);
+		}
+		for (CompletionProposal proposal : proposals) {
+			if (matches(proposal, item)) {
+				return proposal;
+			}
+		}
+		return null;
+	}
+
+	private boolean matches(CompletionProposal proposal, CompletionItem item) {
+		if (mapKind(proposal.getKind()) != item.getKind()) {
+			return false;
+		}
+		CompletionItem candidate = new CompletionItem();
+		descriptionProvider.updateDescription(proposal, candidate);
+		return Objects.equals(candidate.getLabel(), item.getLabel());
+	}
+
+	/**
+	 * Reuses the proposals of a previous response when the only change to the
+	 * document since then is the identifier being completed getting longer. The
+	 * previous proposals are filtered against the new prefix and re-ranked, so
+	 * that the compiler doesn't have to be asked again. They are shared with the
+	 * previous response, and aren't modified.
+	 *
+	 * @param previous
+	 *            the latest response computed for the document, can be
+	 *            <code>null</code>
+	 * @return <code>true</code> if the previous proposals could be reused, in
+	 *         which case {@link #getCompletionItems()} returns them without
+	 *         running the code completion
+	 */
+	public boolean refine(CompletionResponse previous) {
+		if (previous == null || previous.getPrefix() == null || previous.getProposals() == null || previous.getContext() == null || previous.getPrefixTracker() == null
+				|| !Objects.equals(previous.getUri(), response.getUri())) {
+			return false;
+		}
+		int offset = response.getOffset();
+		int previousOffset = previous.getOffset();
+		int delta = offset - previousOffset;
+		if (delta <= 0 || previous.getPrefixTracker().getPrefixEnd() != offset) {
+			// something else than the prefix changed, the proposals may be stale
+			return false;
+		}
+		int tokenStart = previousOffset - previous.getPrefix().length();
+		String prefix;
+		IBuffer buffer;
+		try {
+			buffer = unit.getBuffer();
+			if (buffer == null || offset > buffer.getLength()) {
+				return false;
+			}
+			prefix = buffer.getText(tokenStart, offset - tokenStart);
+			if (!prefix.startsWith(previous.getPrefix()) || (offset < buffer.getLength() && Character.isJavaIdentifierPart(buffer.getChar(offset)))) {
+				return false;
+			}
+			for (int i = previous.getPrefix().length(); i < prefix.length(); i++) {
+				if (!Character.isJavaIdentifierPart(prefix.charAt(i))) {
+					return false;
+				}
+			}
+		} catch (JavaModelException e) {
+			return false;
+		}
+		IJavaProject project = unit.getJavaProject();
+		boolean camelCase = project == null || JavaCore.ENABLED.equals(project.getOption(JavaCore.CODEASSIST_CAMEL_CASE_MATCH, true));
+		boolean substring = project == null || JavaCore.ENABLED.equals(project.getOption(JavaCore.CODEASSIST_SUBSTRING_MATCH, true));
+		char[] pattern = prefix.toCharArray();
+		for (CompletionProposal proposal : previous.getProposals()) {
+			int match = match(pattern, getFilterName(proposal), camelCase, substring);
+			if (match != NO_MATCH) {
+				relevanceBoosts.put(proposal, match);
+				proposals.add(proposal);
+			}
+		}
+		context = new RefinedCompletionContext(previous.getContext(), pattern, delta);
+		response.setContext(context);
+		response.setPrefix(prefix);
+		response.setProposalsOffset(previous.getProposalsOffset());
+		response.setPrefixTracker(CompletionPrefixTracker.install(buffer, offset, response.getDocumentVersion()));
+		descriptionProvider = new CompletionProposalDescriptionProvider(context);
+		return true;
+	}
+
+	/**
+	 * Remembers the prefix of the completed identifier, when the proposals can
+	 * be refined by later requests as this prefix grows.
+	 */
+	private void computePrefix() {
+		if (context == null || context.isInJavadoc() || context.getTokenKind() != CompletionContext.TOKEN_KIND_NAME || context.getToken() == null) {
+			return;
+		}
+		int offset = response.getOffset();
+		int tokenStart = context.getTokenStart();
+		String prefix = String.valueOf(context.getToken());
+		if (tokenStart < 0 || tokenStart + prefix.length() != offset) {
+			return;
+		}
+		try {
+			IBuffer buffer = unit.getBuffer();
+			if (buffer == null || offset > buffer.getLength()) {
+				return;
+			}
+			if (prefix.isEmpty() && (tokenStart == 0 || buffer.getChar(tokenStart - 1) != '.')) {
+				// an empty unqualified prefix doesn't propose every type
+				return;
+			}
+			response.setPrefixTracker(CompletionPrefixTracker.install(buffer, offset, response.getDocumentVersion()));
+			response.setPrefix(prefix);
+		} catch (JavaModelException e) {
+			// the proposals won't be refined
+		}
+	}
+
+	private static int match(char[] pattern, char[] name, boolean camelCase, boolean substring) {
+		if (name == null) {
+			return PATTERN_MATCH;
+		}
+		if (CharOperation.equals(pattern, name)) {
+			return EXACT_MATCH;
+		}
+		if (CharOperation.prefixEquals(pattern, name, true)) {
+			return CASE_MATCH;
+		}
+		if (CharOperation.prefixEquals(pattern, name, false)) {
+			return PREFIX_MATCH;
+		}
+		if ((camelCase && CharOperation.camelCaseMatch(pattern, name)) || (substring && CharOperation.substringMatch(pattern, name))) {
+			return PATTERN_MATCH;
+		}
+		return NO_MATCH;
+	}
+
+	/**
+	 * Returns the name the compiler matches against the prefix for the given
+	 * proposal.
+	 */
+	private static char[] getFilterName(CompletionProposal proposal) {
+		switch (proposal.getKind()) {
+			case CompletionProposal.TYPE_REF:
+				return proposal.getSignature() == null ? null : Signature.getSignatureSimpleName(Signature.getTypeErasure(proposal.getSignature()));
+			case CompletionProposal.CONSTRUCTOR_INVOCATION:
+			case CompletionProposal.ANONYMOUS_CLASS_CONSTRUCTOR_INVOCATION:
+			case CompletionProposal.ANONYMOUS_CLASS_DECLARATION:
+				return proposal.getDeclarationSignature() == null ? null : Signature.getSignatureSimpleName(Signature.getTypeErasure(proposal.getDeclarationSignature()));
+			case CompletionProposal.PACKAGE_REF:
+				return proposal.getCompletion();
+			default:
+				return proposal.getName() != null ? proposal.getName() : proposal.getCompletion();
+		}
+	}
+
+	/**
+	 * Runs the given update of a proposal of the response. When the response
+	 * was refined, the ranges of the proposal are moved to the offset of the
+	 * response meanwhile, so that the proposal replaces the whole refined
+	 * prefix. Since the proposal may be shared by several responses, its ranges
+	 * are restored afterwards.
+	 */
+	public static void updateProposal(CompletionResponse response, CompletionProposal proposal, Runnable update) {
+		List<CompletionProposal> all = new ArrayList<>();
+		all.add(proposal);
+		if (proposal.getRequiredProposals() != null) {
+			Collections.addAll(all, proposal.getRequiredProposals());
+		}
+		synchronized (proposal) {
+			int[] ranges = new int[all.size() * 4];
+			for (int i = 0; i < all.size(); i++) {
+				CompletionProposal p = all.get(i);
+				ranges[4 * i] = p.getReplaceStart();
+				ranges[4 * i + 1] = p.getReplaceEnd();
+				ranges[4 * i + 2] = p.getTokenStart();
+				ranges[4 * i + 3] = p.getTokenEnd();
+			}
+			int delta = response.getOffset() - response.getProposalsOffset();
+			if (delta != 0) {
+				shiftRanges(proposal, response.getProposalsOffset(), delta);
+			}
+			try {
+				update.run();
+			} finally {
+				for (int i = 0; i < all.size(); i++) {
+					CompletionProposal p = all.get(i);
+					p.setReplaceRange(ranges[4 * i], ranges[4 * i + 1]);
+					p.setTokenRange(ranges[4 * i + 2], ranges[4 * i + 3]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Moves the positions of the proposal located after <code>offset</code> by
+	 * <code>delta</code> characters.
+	 */
+	private static void shiftRanges(CompletionProposal proposal, int offset, int delta) {
+		proposal.setReplaceRange(shiftStart(proposal.getReplaceStart(), offset, delta), shiftEnd(proposal.getReplaceEnd(), offset, delta));
+		proposal.setTokenRange(shiftStart(proposal.getTokenStart(), offset, delta), shiftEnd(proposal.getTokenEnd(), offset, delta));
+		CompletionProposal[] requiredProposals = proposal.getRequiredProposals();
+		if (requiredProposals != null) {
+			for (CompletionProposal requiredProposal : requiredProposals) {
+				shiftRanges(requiredProposal, offset, delta);
+			}
+		}
+	}
+
+	private static int shiftStart(int position, int offset, int delta) {
+		return position > offset ? position + delta : position;
+	}
+
+	private static int shiftEnd(int position, int offset, int delta) {
+		return position >= offset ? position + delta : position;
+	}
+
 	@Override
 	public void acceptContext(CompletionContext context) {
 		super.acceptContext(context);
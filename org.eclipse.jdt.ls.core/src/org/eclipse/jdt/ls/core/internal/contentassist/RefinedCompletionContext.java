@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.contentassist;
+
+import org.eclipse.jdt.core.CompletionContext;
+import org.eclipse.jdt.core.IJavaElement;
+
+/**
+ * The context of a completion refined from a previous one: the token is the
+ * longer prefix, and the offsets following the token start are moved by the
+ * number of characters typed since. Everything else is the context computed
+ * by the previous completion.
+ */
+final class RefinedCompletionContext extends CompletionContext {
+
+	private final CompletionContext context;
+	private final char[] token;
+	private final int delta;
+
+	RefinedCompletionContext(CompletionContext context, char[] token, int delta) {
+		if (context instanceof RefinedCompletionContext) {
+			RefinedCompletionContext refined = (RefinedCompletionContext) context;
+			this.context = refined.context;
+			this.delta = refined.delta + delta;
+		} else {
+			this.context = context;
+			this.delta = delta;
+		}
+		this.token = token;
+	}
+
+	@Override
+	public char[] getToken() {
+		return token;
+	}
+
+	@Override
+	public int getOffset() {
+		return context.getOffset() + delta;
+	}
+
+	@Override
+	public int getTokenStart() {
+		return context.getTokenStart();
+	}
+
+	@Override
+	public int getTokenEnd() {
+		return context.getTokenEnd() + delta;
+	}
+
+	@Override
+	public int getTokenKind() {
+		return context.getTokenKind();
+	}
+
+	@Override
+	public int getTokenLocation() {
+		return context.getTokenLocation();
+	}
+
+	@Override
+	public char[][] getExpectedTypesSignatures() {
+		return context.getExpectedTypesSignatures();
+	}
+
+	@Override
+	public char[][] getExpectedTypesKeys() {
+		return context.getExpectedTypesKeys();
+	}
+
+	@Override
+	public IJavaElement getEnclosingElement() {
+		return context.getEnclosingElement();
+	}
+
+	@Override
+	public IJavaElement[] getVisibleElements(String typeSignature) {
+		return context.getVisibleElements(typeSignature);
+	}
+
+	@Override
+	public boolean isExtended() {
+		return context.isExtended();
+	}
+
+	@Override
+	public boolean isInJavadoc() {
+		return context.isInJavadoc();
+	}
+
+	@Override
+	public boolean isInJavadocFormalReference() {
+		return context.isInJavadocFormalReference();
+	}
+
+	@Override
+	public boolean isInJavadocText() {
+		return context.isInJavadocText();
+	}
+}
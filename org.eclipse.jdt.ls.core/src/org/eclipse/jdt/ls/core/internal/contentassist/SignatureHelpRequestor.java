@@ -34,7 +34,6 @@ import org.eclipse.jdt.internal.corext.template.java.SignatureUtil;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.handlers.CompletionResponse;
-import org.eclipse.jdt.ls.core.internal.handlers.CompletionResponses;
 import org.eclipse.jdt.ls.core.internal.javadoc.JavadocContentAccess;
 import org.eclipse.lsp4j.ParameterInformation;
 import org.eclipse.lsp4j.SignatureHelp;
@@ -60,8 +59,8 @@ public final class SignatureHelpRequestor extends CompletionRequestor {
 
 	public SignatureHelp getSignatureHelp(IProgressMonitor monitor) {
 		SignatureHelp signatureHelp = new SignatureHelp();
+		// signature help proposals are never resolved, don't let them evict the cached completion responses
 		response.setProposals(proposals);
-		CompletionResponses.store(response);
 
 		List<SignatureInformation> infos = new ArrayList<>();
 		for (int i = 0; i < proposals.size(); i++) {
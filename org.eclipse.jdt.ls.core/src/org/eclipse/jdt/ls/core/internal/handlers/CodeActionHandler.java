@@ -21,6 +21,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaModelMarker;
+import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.core.refactoring.CompilationUnitChange;
@@ -33,6 +34,8 @@ import org.eclipse.jdt.ls.core.internal.corrections.DiagnosticsHelper;
 import org.eclipse.jdt.ls.core.internal.corrections.InnovationContext;
 import org.eclipse.jdt.ls.core.internal.corrections.QuickFixProcessor;
 import org.eclipse.jdt.ls.core.internal.corrections.proposals.CUCorrectionProposal;
+import org.eclipse.jdt.ls.core.internal.handlers.CodeActionResponses.CodeActionResponse;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jdt.ls.core.internal.text.correction.QuickAssistProcessor;
 import org.eclipse.lsp4j.CodeActionParams;
 import org.eclipse.lsp4j.Command;
@@ -50,10 +53,26 @@ public class CodeActionHandler {
 	 */
 	public static final String COMMAND_ID_APPLY_EDIT = "java.apply.workspaceEdit";
 
+	/**
+	 * Command of the code actions whose edit is only computed when applied, see
+	 * {@link #resolveCodeAction(List)}.
+	 */
+	public static final String COMMAND_ID_APPLY_CODE_ACTION = "java.edit.applyCodeAction";
+
 	private QuickFixProcessor quickFixProcessor = new QuickFixProcessor();
 
 	private QuickAssistProcessor quickAssistProcessor = new QuickAssistProcessor();
 
+	private final PreferenceManager preferenceManager;
+
+	public CodeActionHandler() {
+		this(null);
+	}
+
+	public CodeActionHandler(PreferenceManager preferenceManager) {
+		this.preferenceManager = preferenceManager;
+	}
+
 	/**
 	 * @param params
 	 * @return
@@ -69,14 +88,11 @@ public class CodeActionHandler {
 		context.setASTRoot(getASTRoot(unit));
 		IProblemLocationCore[] locations = this.getProblemLocationCores(unit, params.getContext().getDiagnostics());
 
-		List<Command> $ = new ArrayList<>();
+		List<CUCorrectionProposal> proposals = new ArrayList<>();
 		try {
 			CUCorrectionProposal[] corrections = this.quickFixProcessor.getCorrections(context, locations);
 			Arrays.sort(corrections, new CUCorrectionProposalComparator());
-			for (CUCorrectionProposal proposal : corrections) {
-				Command command = this.getCommandFromProposal(proposal);
-				$.add(command);
-			}
+			proposals.addAll(Arrays.asList(corrections));
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Problem resolving code actions", e);
 		}
@@ -84,14 +100,51 @@ public class CodeActionHandler {
 		try {
 			CUCorrectionProposal[] corrections = this.quickAssistProcessor.getAssists(context, locations);
 			Arrays.sort(corrections, new CUCorrectionProposalComparator());
-			for (CUCorrectionProposal proposal : corrections) {
-				Command command = this.getCommandFromProposal(proposal);
-				$.add(command);
-			}
+			proposals.addAll(Arrays.asList(corrections));
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Problem resolving code actions", e);
 		}
 
+		if (proposals.isEmpty()) {
+			return Collections.emptyList();
+		}
+		if (isLazy()) {
+			return getLazyCommands(unit, proposals);
+		}
+		List<Command> $ = new ArrayList<>(proposals.size());
+		for (CUCorrectionProposal proposal : proposals) {
+			try {
+				$.add(this.getCommandFromProposal(proposal));
+			} catch (CoreException e) {
+				JavaLanguageServerPlugin.logException("Problem resolving code actions", e);
+			}
+		}
+		return $;
+	}
+
+	/**
+	 * Whether the edits of the code actions are computed when they are applied,
+	 * rather than for every request. The client must opt in, and let the server
+	 * apply the edit with <code>workspace/applyEdit</code>.
+	 */
+	private boolean isLazy() {
+		return preferenceManager != null && preferenceManager.getPreferences() != null && preferenceManager.getPreferences().isCodeActionLazyEditsEnabled()
+				&& preferenceManager.isClientSupportsWorkspaceApplyEdit();
+	}
+
+	private List<Command> getLazyCommands(ICompilationUnit unit, List<CUCorrectionProposal> proposals) {
+		String contents;
+		try {
+			contents = unit.getSource();
+		} catch (JavaModelException e) {
+			JavaLanguageServerPlugin.logException("Problem resolving code actions", e);
+			return Collections.emptyList();
+		}
+		long id = CodeActionResponses.store(unit, contents, proposals);
+		List<Command> $ = new ArrayList<>(proposals.size());
+		for (int i = 0; i < proposals.size(); i++) {
+			$.add(new Command(proposals.get(i).getName(), COMMAND_ID_APPLY_CODE_ACTION, Arrays.asList(id, i)));
+		}
 		return $;
 	}
 
@@ -102,6 +155,36 @@ public class CodeActionHandler {
 		return new Command(name, COMMAND_ID_APPLY_EDIT, Arrays.asList(convertChangeToWorkspaceEdit(unit, proposal.getChange())));
 	}
 
+	/**
+	 * Computes the edit of a code action returned with the
+	 * {@link #COMMAND_ID_APPLY_CODE_ACTION} command.
+	 *
+	 * @param arguments
+	 *            the arguments of the command, the response id and the index of
+	 *            the code action
+	 * @return the edit of the code action, or <code>null</code> if the code
+	 *         action is unknown, or was computed on a document which has changed
+	 *         since
+	 * @throws CoreException
+	 *             if the edit cannot be computed
+	 */
+	public static WorkspaceEdit resolveCodeAction(List<Object> arguments) throws CoreException {
+		if (arguments == null || arguments.size() < 2 || !(arguments.get(0) instanceof Number) || !(arguments.get(1) instanceof Number)) {
+			return null;
+		}
+		CodeActionResponse response = CodeActionResponses.get(((Number) arguments.get(0)).longValue());
+		int index = ((Number) arguments.get(1)).intValue();
+		if (response == null || index < 0 || index >= response.getProposals().size()) {
+			return null;
+		}
+		ICompilationUnit unit = response.getUnit();
+		if (!unit.exists() || !response.getContents().equals(unit.getSource())) {
+			return null;
+		}
+		CUCorrectionProposal proposal = response.getProposals().get(index);
+		return convertChangeToWorkspaceEdit(proposal.getCompilationUnit(), proposal.getChange());
+	}
+
 	private IProblemLocationCore[] getProblemLocationCores(ICompilationUnit unit, List<Diagnostic> diagnostics) {
 		IProblemLocationCore[] locations = new IProblemLocationCore[diagnostics.size()];
 		for (int i = 0; i < diagnostics.size(); i++) {
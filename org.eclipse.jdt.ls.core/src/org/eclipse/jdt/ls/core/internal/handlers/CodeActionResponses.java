@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.CUCorrectionProposal;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache of the proposals of the code actions returned by a
+ * <code>textDocument/codeAction</code> request, keyed by request id, so that
+ * the edit of a code action is only computed when it is applied.
+ * <p>
+ * The cache is bounded in size and age, the proposals of the requests the
+ * client never follows up on are evicted.
+ * </p>
+ */
+public final class CodeActionResponses {
+
+	/**
+	 * Maximum number of responses kept for resolution.
+	 */
+	private static final int MAX_SIZE = 16;
+
+	/**
+	 * Responses which were not accessed for this long are evicted.
+	 */
+	private static final long MAX_AGE_IN_MINUTES = 5;
+
+	private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+
+	private static final Cache<Long, CodeActionResponse> CODE_ACTIONS = CacheBuilder.newBuilder()
+			.maximumSize(MAX_SIZE)
+			.expireAfterAccess(MAX_AGE_IN_MINUTES, TimeUnit.MINUTES)
+			.build();
+
+	private CodeActionResponses() {
+		//Don't instantiate
+	}
+
+	/**
+	 * Stores the proposals computed for a request.
+	 *
+	 * @return the id of the response
+	 */
+	public static long store(ICompilationUnit unit, String contents, List<CUCorrectionProposal> proposals) {
+		long id = ID_SEQUENCE.incrementAndGet();
+		CODE_ACTIONS.put(id, new CodeActionResponse(unit, contents, proposals));
+		return id;
+	}
+
+	/**
+	 * Returns the response with the given id, or <code>null</code> if it was
+	 * evicted.
+	 */
+	public static CodeActionResponse get(long id) {
+		return CODE_ACTIONS.getIfPresent(id);
+	}
+
+	public static void clear() {
+		CODE_ACTIONS.invalidateAll();
+	}
+
+	public static final class CodeActionResponse {
+		private final ICompilationUnit unit;
+		private final String contents;
+		private final List<CUCorrectionProposal> proposals;
+
+		private CodeActionResponse(ICompilationUnit unit, String contents, List<CUCorrectionProposal> proposals) {
+			this.unit = unit;
+			this.contents = contents;
+			this.proposals = proposals;
+		}
+
+		public ICompilationUnit getUnit() {
+			return unit;
+		}
+
+		/**
+		 * @return the contents of the document the proposals were computed on
+		 */
+		public String getContents() {
+			return contents;
+		}
+
+		public List<CUCorrectionProposal> getProposals() {
+			return proposals;
+		}
+	}
+}
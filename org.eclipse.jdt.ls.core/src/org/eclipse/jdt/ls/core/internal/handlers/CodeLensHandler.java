@@ -16,28 +16,19 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
-import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
-import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeRoot;
-import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
-import org.eclipse.jdt.core.search.IJavaSearchConstants;
-import org.eclipse.jdt.core.search.IJavaSearchScope;
-import org.eclipse.jdt.core.search.SearchEngine;
-import org.eclipse.jdt.core.search.SearchMatch;
-import org.eclipse.jdt.core.search.SearchParticipant;
-import org.eclipse.jdt.core.search.SearchPattern;
-import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JSONUtility;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
@@ -92,14 +83,14 @@ public class CodeLensHandler {
 		try {
 			ITypeRoot typeRoot = JDTUtils.resolveTypeRoot(uri);
 			if (typeRoot != null) {
-				IJavaElement element = JDTUtils.findElementAtSelection(typeRoot, position.getLine(), position.getCharacter(), this.preferenceManager, monitor);
 				if (REFERENCES_TYPE.equals(type)) {
 					try {
-						locations = findReferences(element, monitor);
+						locations = findReferences(typeRoot, position, monitor);
 					} catch (CoreException e) {
 						JavaLanguageServerPlugin.logException(e.getMessage(), e);
 					}
 				} else if (IMPLEMENTATION_TYPE.equals(type)) {
+					IJavaElement element = JDTUtils.findElementAtSelection(typeRoot, position.getLine(), position.getCharacter(), this.preferenceManager, monitor);
 					if (element instanceof IType) {
 						try {
 							IDocument document = JsonRpcHelpers.toDocument(typeRoot.getBuffer());
@@ -134,34 +125,52 @@ public class CodeLensHandler {
 		return searcher.findImplementations(monitor);
 	}
 
-	private List<Location> findReferences(IJavaElement element, IProgressMonitor monitor)
-			throws JavaModelException, CoreException {
-		if (element == null) {
-			return Collections.emptyList();
+	/**
+	 * Returns the references to the element of the lens at the given position.
+	 * The references to all the elements of the unit which aren't cached yet
+	 * are searched at once, so that resolving the other lenses of the unit
+	 * doesn't search again.
+	 */
+	private List<Location> findReferences(ITypeRoot typeRoot, Position position, IProgressMonitor monitor) throws CoreException {
+		List<IJavaElement> elements = new ArrayList<>();
+		collectCodeLensElements(typeRoot.getChildren(), elements, monitor);
+		int offset = JsonRpcHelpers.toOffset(typeRoot.getBuffer(), position.getLine(), position.getCharacter());
+		IJavaElement element = null;
+		for (IJavaElement e : elements) {
+			ISourceRange r = ((ISourceReference) e).getNameRange();
+			if (r != null && r.getOffset() == offset) {
+				element = e;
+				break;
+			}
 		}
-		SearchPattern pattern = SearchPattern.createPattern(element, IJavaSearchConstants.REFERENCES);
-		final List<Location> result = new ArrayList<>();
-		SearchEngine engine = new SearchEngine();
-		engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() },
-				createSearchScope(), new SearchRequestor() {
-
-			@Override
-			public void acceptSearchMatch(SearchMatch match) throws CoreException {
-				Object o = match.getElement();
-				if (o instanceof IJavaElement) {
-					IJavaElement element = (IJavaElement) o;
-					ICompilationUnit compilationUnit = (ICompilationUnit) element
-							.getAncestor(IJavaElement.COMPILATION_UNIT);
-					if (compilationUnit == null) {
-						return;
-					}
-					Location location = JDTUtils.toLocation(compilationUnit, match.getOffset(), match.getLength());
-					result.add(location);
-				}
+		ReferencesCache cache = JavaLanguageServerPlugin.getReferencesCache();
+		if (element == null || cache == null) {
+			if (element == null) {
+				element = JDTUtils.findElementAtSelection(typeRoot, position.getLine(), position.getCharacter(), this.preferenceManager, monitor);
 			}
-		}, monitor);
+			return findReferences(element, monitor);
+		}
+		List<Location> locations = cache.get(element);
+		if (locations != null) {
+			return locations;
+		}
+		List<IJavaElement> pending = new ArrayList<>();
+		for (IJavaElement e : elements) {
+			if (cache.get(e) == null) {
+				pending.add(e);
+			}
+		}
+		long generation = cache.getGeneration();
+		Map<IJavaElement, List<Location>> references = new ReferenceSearchEngine(false).search(pending, monitor);
+		cache.put(references, generation);
+		return references.get(element);
+	}
 
-		return result;
+	private List<Location> findReferences(IJavaElement element, IProgressMonitor monitor) throws CoreException {
+		if (element == null) {
+			return Collections.emptyList();
+		}
+		return new ReferenceSearchEngine(false).search(element, monitor);
 	}
 
 	public List<CodeLens> getCodeLensSymbols(String uri, IProgressMonitor monitor) {
@@ -182,8 +191,9 @@ public class CodeLensHandler {
 		}
 		try {
 			ITypeRoot typeRoot = unit != null ? unit : classFile;
-			IJavaElement[] elements = typeRoot.getChildren();
-			LinkedHashSet<CodeLens> lenses = new LinkedHashSet<>(elements.length);
+			List<IJavaElement> elements = new ArrayList<>();
+			collectCodeLensElements(typeRoot.getChildren(), elements, monitor);
+			LinkedHashSet<CodeLens> lenses = new LinkedHashSet<>(elements.size());
 			collectCodeLenses(typeRoot, elements, lenses, monitor);
 			if (monitor.isCanceled()) {
 				lenses.clear();
@@ -195,15 +205,17 @@ public class CodeLensHandler {
 		return Collections.emptyList();
 	}
 
-	private void collectCodeLenses(ITypeRoot typeRoot, IJavaElement[] elements, Collection<CodeLens> lenses,
-			IProgressMonitor monitor)
-			throws JavaModelException {
+	/**
+	 * Collects the types and methods which get code lenses, the members of a
+	 * type before the type.
+	 */
+	private void collectCodeLensElements(IJavaElement[] elements, Collection<IJavaElement> result, IProgressMonitor monitor) throws JavaModelException {
 		for (IJavaElement element : elements) {
 			if (monitor.isCanceled()) {
 				return;
 			}
 			if (element.getElementType() == IJavaElement.TYPE) {
-				collectCodeLenses(typeRoot, ((IType) element).getChildren(), lenses, monitor);
+				collectCodeLensElements(((IType) element).getChildren(), result, monitor);
 			} else if (element.getElementType() == IJavaElement.METHOD) {
 				if (JDTUtils.isHiddenGeneratedElement(element)) {
 					continue;
@@ -216,7 +228,17 @@ public class CodeLensHandler {
 			} else {//neither a type nor a method, we bail
 				continue;
 			}
+			result.add(element);
+		}
+	}
 
+	private void collectCodeLenses(ITypeRoot typeRoot, List<IJavaElement> elements, Collection<CodeLens> lenses,
+			IProgressMonitor monitor)
+			throws JavaModelException {
+		for (IJavaElement element : elements) {
+			if (monitor.isCanceled()) {
+				return;
+			}
 			if (preferenceManager.getPreferences().isReferencesCodeLensEnabled()) {
 				CodeLens lens = getCodeLens(REFERENCES_TYPE, element, typeRoot);
 				if (lens != null) {
@@ -255,9 +277,4 @@ public class CodeLensHandler {
 		lens.setData(Arrays.asList(uri, range.getStart(), type));
 		return lens;
 	}
-
-	private IJavaSearchScope createSearchScope() throws JavaModelException {
-		IJavaProject[] projects = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects();
-		return SearchEngine.createJavaSearchScope(projects, IJavaSearchScope.SOURCES);
-	}
 }
@@ -40,10 +40,10 @@ public class CompletionHandler{
 
 	Either<List<CompletionItem>, CompletionList> completion(CompletionParams position,
 			IProgressMonitor monitor) {
-		List<CompletionItem> completionItems = null;
+		CompletionList $ = null;
 		try {
 			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(position.getTextDocument().getUri());
-			completionItems = this.computeContentAssist(unit,
+			$ = this.computeContentAssist(unit,
 					position.getPosition().getLine(),
 					position.getPosition().getCharacter(), monitor);
 		} catch (OperationCanceledException ignorable) {
@@ -53,26 +53,60 @@ public class CompletionHandler{
 			JavaLanguageServerPlugin.logException("Problem with codeComplete for " +  position.getTextDocument().getUri(), e);
 			monitor.setCanceled(true);
 		}
-		CompletionList $ = new CompletionList();
+		if ($ == null) {
+			$ = new CompletionList(Collections.emptyList());
+		}
 		if (monitor.isCanceled()) {
 			$.setIsIncomplete(true);
-			completionItems = null;
+			$.setItems(Collections.emptyList());
 			JavaLanguageServerPlugin.logInfo("Completion request cancelled");
 		} else {
 			JavaLanguageServerPlugin.logInfo("Completion request completed");
 		}
-		$.setItems(completionItems == null ? Collections.emptyList() : completionItems);
 		return Either.forRight($);
 	}
 
-	private List<CompletionItem> computeContentAssist(ICompilationUnit unit, int line, int column, IProgressMonitor monitor) throws JavaModelException {
-		CompletionResponses.clear();
+	private CompletionList computeContentAssist(ICompilationUnit unit, int line, int column, IProgressMonitor monitor) throws JavaModelException {
+		List<CompletionItem> proposals = new ArrayList<>();
+		CompletionList $ = new CompletionList(proposals);
 		if (unit == null) {
-			return Collections.emptyList();
+			return $;
 		}
-		List<CompletionItem> proposals = new ArrayList<>();
 
 		final int offset = JsonRpcHelpers.toOffset(unit.getBuffer(), line, column);
+		CompletionProposalRequestor collector = createRequestor(unit, offset);
+		collector.setMaxResults(getMaxResults());
+
+		if (offset >-1 && !monitor.isCanceled()) {
+			IBuffer buffer = unit.getBuffer();
+			if (buffer != null && buffer.getLength() >= offset) {
+				IProgressMonitor subMonitor = createTimeoutMonitor(monitor);
+				try {
+					// the user only extended the identifier since the previous request: filter the previous proposals
+					boolean refined = collector.refine(CompletionResponses.getLatest(JDTUtils.toURI(unit)));
+					if (!refined) {
+						unit.codeComplete(offset, collector, subMonitor);
+					}
+					proposals.addAll(collector.getCompletionItems());
+					proposals.addAll(SnippetCompletionProposal.getSnippets(unit, collector.getContext(), subMonitor));
+					if (!refined) {
+						proposals.addAll(new JavadocCompletionProposal().getProposals(unit, offset, collector, subMonitor));
+					}
+					$.setIsIncomplete(collector.isIncomplete());
+				} catch (OperationCanceledException e) {
+					monitor.setCanceled(true);
+				}
+			}
+		}
+		return $;
+	}
+
+	/**
+	 * Creates the requestor collecting the proposals of a completion at the
+	 * given offset, also used to compute the proposals again when resolving an
+	 * item whose response was evicted.
+	 */
+	static CompletionProposalRequestor createRequestor(ICompilationUnit unit, int offset) {
 		CompletionProposalRequestor collector = new CompletionProposalRequestor(unit, offset);
 		// Allow completions for unresolved types - since 3.3
 		collector.setAllowsRequiredProposals(CompletionProposal.FIELD_REF, CompletionProposal.TYPE_REF, true);
@@ -91,43 +125,43 @@ public class CompletionHandler{
 		collector.setAllowsRequiredProposals(CompletionProposal.TYPE_REF, CompletionProposal.TYPE_REF, true);
 
 		collector.setFavoriteReferences(getFavoriteStaticMembers());
+		return collector;
+	}
 
-		if (offset >-1 && !monitor.isCanceled()) {
-			IBuffer buffer = unit.getBuffer();
-			if (buffer != null && buffer.getLength() >= offset) {
-				IProgressMonitor subMonitor = new ProgressMonitorWrapper(monitor) {
-					private long timeLimit;
-					private static final long TIMEOUT = 5000;
-
-					@Override
-					public void beginTask(String name, int totalWork) {
-						timeLimit = System.currentTimeMillis() + TIMEOUT;
-					}
-
-					@Override
-					public boolean isCanceled() {
-						return super.isCanceled() || timeLimit <= System.currentTimeMillis();
-					}
+	/**
+	 * @return a monitor canceling the code completion after 5 seconds
+	 */
+	static IProgressMonitor createTimeoutMonitor(IProgressMonitor monitor) {
+		return new ProgressMonitorWrapper(monitor) {
+			private long timeLimit;
+			private static final long TIMEOUT = 5000;
+
+			@Override
+			public void beginTask(String name, int totalWork) {
+				timeLimit = System.currentTimeMillis() + TIMEOUT;
+			}
 
-				};
-				try {
-					unit.codeComplete(offset, collector, subMonitor);
-					proposals.addAll(collector.getCompletionItems());
-					proposals.addAll(SnippetCompletionProposal.getSnippets(unit, collector.getContext(), subMonitor));
-					proposals.addAll(new JavadocCompletionProposal().getProposals(unit, offset, collector, subMonitor));
-				} catch (OperationCanceledException e) {
-					monitor.setCanceled(true);
-				}
+			@Override
+			public boolean isCanceled() {
+				return super.isCanceled() || timeLimit <= System.currentTimeMillis();
 			}
-		}
-		return proposals;
+
+		};
 	}
 
-	private String[] getFavoriteStaticMembers() {
+	private static String[] getFavoriteStaticMembers() {
 		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
 		if (preferenceManager != null) {
 			return preferenceManager.getPreferences().getJavaCompletionFavoriteMembers();
 		}
 		return new String[0];
 	}
+
+	private static int getMaxResults() {
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		if (preferenceManager != null) {
+			return preferenceManager.getPreferences().getCompletionMaxResults();
+		}
+		return 0;
+	}
 }
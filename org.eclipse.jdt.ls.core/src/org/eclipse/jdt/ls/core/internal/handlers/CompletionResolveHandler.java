@@ -19,6 +19,9 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.CompletionProposal;
+import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IMember;
@@ -35,6 +38,7 @@ import org.eclipse.jdt.ls.core.internal.contentassist.CompletionProposalRequesto
 import org.eclipse.jdt.ls.core.internal.javadoc.JavadocContentAccess;
 import org.eclipse.jdt.ls.core.internal.javadoc.JavadocContentAccess2;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.MarkupContent;
 import org.eclipse.lsp4j.MarkupKind;
@@ -66,6 +70,8 @@ public class CompletionResolveHandler {
 	public static final String DATA_FIELD_NAME = "name";
 	public static final String DATA_FIELD_REQUEST_ID = "rid";
 	public static final String DATA_FIELD_PROPOSAL_ID = "pid";
+	public static final String DATA_FIELD_DOCUMENT_VERSION = "ver";
+	public static final String DATA_FIELD_OFFSET = "offset";
 
 	public CompletionItem resolve(CompletionItem param, IProgressMonitor monitor) {
 
@@ -78,20 +84,25 @@ public class CompletionResolveHandler {
 		}
 		int proposalId = Integer.parseInt(data.get(DATA_FIELD_PROPOSAL_ID));
 		long requestId = Long.parseLong(data.get(DATA_FIELD_REQUEST_ID));
-		CompletionResponse completionResponse = CompletionResponses.get(requestId);
-		if (completionResponse == null || completionResponse.getProposals().size() <= proposalId) {
-			throw new IllegalStateException("Invalid completion proposal");
-		}
 		String uri = data.get(DATA_FIELD_URI);
+		String version = data.get(DATA_FIELD_DOCUMENT_VERSION);
+		long documentVersion = version == null ? IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP : Long.parseLong(version);
 		ICompilationUnit unit = JDTUtils.resolveCompilationUnit(uri);
 		if (unit == null) {
 			throw new IllegalStateException(NLS.bind("Unable to match Compilation Unit from {0} ", uri));
 		}
-		CompletionProposalReplacementProvider proposalProvider = new CompletionProposalReplacementProvider(unit,
-				completionResponse.getContext(),
-				completionResponse.getOffset(),
-				this.manager.getClientPreferences());
-		proposalProvider.updateReplacement(completionResponse.getProposals().get(proposalId), param, '\0');
+		CompletionResponse completionResponse = CompletionResponses.get(uri, documentVersion, requestId);
+		if (completionResponse != null && completionResponse.getProposals().size() > proposalId) {
+			CompletionProposalReplacementProvider proposalProvider = new CompletionProposalReplacementProvider(unit,
+					completionResponse.getContext(),
+					completionResponse.getOffset(),
+					this.manager.getClientPreferences());
+			CompletionProposal proposal = completionResponse.getProposals().get(proposalId);
+			CompletionProposalRequestor.updateProposal(completionResponse, proposal, () -> proposalProvider.updateReplacement(proposal, param, '\0'));
+		} else if (!recomputeReplacement(unit, data, documentVersion, proposalId, param, monitor)) {
+			// keep the insert text computed by the completion request, and still resolve the documentation
+			JavaLanguageServerPlugin.logInfo("Completion response " + requestId + " is no longer available, " + CompletionResponses.getStats());
+		}
 		if (monitor.isCanceled()) {
 			param.setData(null);
 			return param;
@@ -170,4 +181,36 @@ public class CompletionResolveHandler {
 		}
 		return param;
 	}
+
+	/**
+	 * Computes the proposals again when the response of the item was evicted,
+	 * so that the item still gets its text edits, including the imports it
+	 * requires. This is only possible while the document is unchanged.
+	 *
+	 * @return whether the replacement of the item was updated
+	 */
+	private boolean recomputeReplacement(ICompilationUnit unit, Map<String, String> data, long documentVersion, int proposalId, CompletionItem param, IProgressMonitor monitor) {
+		String offsetData = data.get(DATA_FIELD_OFFSET);
+		if (offsetData == null || monitor.isCanceled()) {
+			return false;
+		}
+		int offset = Integer.parseInt(offsetData);
+		try {
+			IBuffer buffer = unit.getBuffer();
+			if (buffer == null || offset < 0 || offset > buffer.getLength() || documentVersion == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP
+					|| JsonRpcHelpers.getModificationStamp(buffer) != documentVersion) {
+				return false;
+			}
+			CompletionProposalRequestor collector = CompletionHandler.createRequestor(unit, offset);
+			unit.codeComplete(offset, collector, CompletionHandler.createTimeoutMonitor(monitor));
+			CompletionProposal proposal = collector.findProposal(proposalId, param);
+			if (proposal == null || monitor.isCanceled()) {
+				return false;
+			}
+			new CompletionProposalReplacementProvider(unit, collector.getContext(), offset, this.manager.getClientPreferences()).updateReplacement(proposal, param, '\0');
+			return true;
+		} catch (JavaModelException | OperationCanceledException e) {
+			return false;
+		}
+	}
 }
@@ -15,6 +15,8 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jdt.core.CompletionContext;
 import org.eclipse.jdt.core.CompletionProposal;
+import org.eclipse.jdt.ls.core.internal.contentassist.CompletionPrefixTracker;
+import org.eclipse.jface.text.IDocumentExtension4;
 
 /**
  * Class representing {@link CompletionProposal} responses to for a given {@link CompletionContext}.
@@ -25,7 +27,12 @@ public class CompletionResponse {
 
 	private static AtomicLong idSeed = new AtomicLong(0);
 	private Long id;
+	private String uri;
+	private long documentVersion = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
 	private int offset;
+	private String prefix;
+	private int proposalsOffset;
+	private CompletionPrefixTracker prefixTracker;
 	private CompletionContext context;
 	private List<CompletionProposal> proposals;
 
@@ -40,6 +47,34 @@ public class CompletionResponse {
 		return id;
 	}
 
+	/**
+	 * @return the uri of the document the proposals were computed for
+	 */
+	public String getUri() {
+		return uri;
+	}
+
+	/**
+	 * @param uri the uri to set
+	 */
+	public void setUri(String uri) {
+		this.uri = uri;
+	}
+
+	/**
+	 * @return the modification stamp of the document the proposals were computed for
+	 */
+	public long getDocumentVersion() {
+		return documentVersion;
+	}
+
+	/**
+	 * @param documentVersion the documentVersion to set
+	 */
+	public void setDocumentVersion(long documentVersion) {
+		this.documentVersion = documentVersion;
+	}
+
 	/**
 	 * @return the context
 	 */
@@ -76,4 +111,54 @@ public class CompletionResponse {
 	public void setOffset(int offset) {
 		this.offset = offset;
 	}
+	/**
+	 * @return the identifier prefix typed before the offset, or
+	 *         <code>null</code> if the proposals can't be refined when the
+	 *         prefix grows
+	 */
+	public String getPrefix() {
+		return prefix;
+	}
+	/**
+	 * @param prefix the prefix to set
+	 */
+	public void setPrefix(String prefix) {
+		this.prefix = prefix;
+	}
+	/**
+	 * @return the offset the proposals were computed at. They are shared with
+	 *         the responses they were refined from and are left untouched, their
+	 *         ranges are moved to {@link #getOffset()} when they are resolved
+	 */
+	public int getProposalsOffset() {
+		return proposalsOffset;
+	}
+	/**
+	 * @param proposalsOffset the proposalsOffset to set
+	 */
+	public void setProposalsOffset(int proposalsOffset) {
+		this.proposalsOffset = proposalsOffset;
+	}
+	/**
+	 * @return the tracker of the changes made to the document after the
+	 *         prefix, or <code>null</code>
+	 */
+	public CompletionPrefixTracker getPrefixTracker() {
+		return prefixTracker;
+	}
+	/**
+	 * @param prefixTracker the prefixTracker to set
+	 */
+	public void setPrefixTracker(CompletionPrefixTracker prefixTracker) {
+		this.prefixTracker = prefixTracker;
+	}
+	/**
+	 * Stops tracking the changes of the document, once the response can no
+	 * longer be refined.
+	 */
+	public void dispose() {
+		if (prefixTracker != null) {
+			prefixTracker.dispose();
+		}
+	}
 }
@@ -10,39 +10,135 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
 
 /**
- * Cache of {@link CompletionResponse}s.
+ * Cache of {@link CompletionResponse}s, keyed by document URI, document version
+ * and request id.
+ * <p>
+ * The cache is bounded in size and age, least recently used responses are
+ * evicted first, so that pending <code>completionItem/resolve</code> requests
+ * of concurrent completions can still be served without keeping proposal
+ * graphs alive forever.
+ * </p>
  *
  * @author Fred Bricon
  */
 public final class CompletionResponses {
 
+	/**
+	 * Maximum number of responses kept for resolution.
+	 */
+	public static final int MAX_SIZE = 16;
+
+	/**
+	 * Responses which were not accessed for this long are evicted.
+	 */
+	private static final long MAX_AGE_IN_MINUTES = 5;
+
 	private CompletionResponses(){
 		//Don't instantiate
 	}
 
-	private static final Map<Long, CompletionResponse> COMPLETIONS = new ConcurrentHashMap<>();
+	// a single segment, so that the least recently used response is evicted first
+	private static final Cache<Key, CompletionResponse> COMPLETIONS = CacheBuilder.newBuilder()
+			.concurrencyLevel(1)
+			.maximumSize(MAX_SIZE)
+			.expireAfterAccess(MAX_AGE_IN_MINUTES, TimeUnit.MINUTES)
+			.recordStats()
+			.removalListener((RemovalNotification<Key, CompletionResponse> notification) -> notification.getValue().dispose())
+			.build();
+
+	public static CompletionResponse get(String uri, long documentVersion, Long id) {
+		return COMPLETIONS.getIfPresent(new Key(uri, documentVersion, id));
+	}
 
-	public static CompletionResponse get(Long id) {
-		return COMPLETIONS.get(id);
+	/**
+	 * Returns the most recent response computed for the given document, or
+	 * <code>null</code> if there is none.
+	 */
+	public static CompletionResponse getLatest(String uri) {
+		CompletionResponse latest = null;
+		for (CompletionResponse response : COMPLETIONS.asMap().values()) {
+			if (Objects.equals(uri, response.getUri()) && (latest == null || response.getId() > latest.getId())) {
+				latest = response;
+			}
+		}
+		return latest;
 	}
 
 	public static void store(CompletionResponse response) {
 		if (response != null) {
-			COMPLETIONS.put(response.getId(), response);
+			// only the latest response of a document is refined
+			for (CompletionResponse other : COMPLETIONS.asMap().values()) {
+				if (Objects.equals(response.getUri(), other.getUri())) {
+					other.dispose();
+				}
+			}
+			COMPLETIONS.put(Key.of(response), response);
 		}
 	}
 
 	public static void delete(CompletionResponse response) {
 		if (response != null) {
-			COMPLETIONS.remove(response.getId());
+			COMPLETIONS.invalidate(Key.of(response));
 		}
 	}
 
+	/**
+	 * Removes all the responses computed for the given document.
+	 */
+	public static void invalidate(String uri) {
+		COMPLETIONS.asMap().keySet().removeIf(key -> Objects.equals(uri, key.uri));
+	}
+
 	public static void clear() {
-		COMPLETIONS.clear();
+		COMPLETIONS.invalidateAll();
+	}
+
+	/**
+	 * @return the hit, miss and eviction counts of the cache
+	 */
+	public static CacheStats getStats() {
+		return COMPLETIONS.stats();
+	}
+
+	private static final class Key {
+		private final String uri;
+		private final long documentVersion;
+		private final Long id;
+
+		Key(String uri, long documentVersion, Long id) {
+			this.uri = uri;
+			this.documentVersion = documentVersion;
+			this.id = id;
+		}
+
+		static Key of(CompletionResponse response) {
+			return new Key(response.getUri(), response.getDocumentVersion(), response.getId());
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(uri, documentVersion, id);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return documentVersion == other.documentVersion && Objects.equals(uri, other.uri) && Objects.equals(id, other.id);
+		}
 	}
 }
@@ -17,6 +17,7 @@ import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IOpenable;
 import org.eclipse.jdt.core.IProblemRequestor;
@@ -40,9 +41,21 @@ public class DiagnosticsHandler implements IProblemRequestor {
 	private final JavaClientConnection connection;
 	private boolean reportAllErrors = true;
 	private boolean isDefaultProject;
+	private final boolean publishOnEndReporting;
+	private PublishDiagnosticsParams diagnostics;
 
 	public DiagnosticsHandler(JavaClientConnection conn, ICompilationUnit cu) {
+		this(conn, cu, true);
+	}
+
+	/**
+	 * @param publishOnEndReporting
+	 *            if <code>false</code>, the collected diagnostics are only sent
+	 *            to the client when {@link #publishDiagnostics()} is called
+	 */
+	public DiagnosticsHandler(JavaClientConnection conn, ICompilationUnit cu, boolean publishOnEndReporting) {
 		problems = new ArrayList<>();
+		this.publishOnEndReporting = publishOnEndReporting;
 		this.cu = cu;
 		this.uri = JDTUtils.toURI(cu);
 		this.connection = conn;
@@ -116,8 +129,25 @@ public class DiagnosticsHandler implements IProblemRequestor {
 	@Override
 	public void endReporting() {
 		JavaLanguageServerPlugin.logInfo(problems.size() + " problems reported for " + this.uri.substring(this.uri.lastIndexOf('/')));
-		PublishDiagnosticsParams $ = new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), toDiagnosticsArray(this.cu, problems));
-		this.connection.publishDiagnostics($);
+		diagnostics = new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), toDiagnosticsArray(this.cu, problems));
+		if (publishOnEndReporting) {
+			publishDiagnostics();
+		}
+	}
+
+	/**
+	 * Sends the diagnostics collected by the last reporting session, if any, to
+	 * the client.
+	 *
+	 * @return <code>true</code> if a reporting session was completed and its
+	 *         diagnostics were sent
+	 */
+	public boolean publishDiagnostics() {
+		if (diagnostics == null) {
+			return false;
+		}
+		this.connection.publishDiagnostics(diagnostics);
+		return true;
 	}
 
 	@Override
@@ -127,13 +157,14 @@ public class DiagnosticsHandler implements IProblemRequestor {
 
 	public static List<Diagnostic> toDiagnosticsArray(IOpenable openable, List<IProblem> problems) {
 		List<Diagnostic> array = new ArrayList<>(problems.size());
+		LineTable lines = problems.isEmpty() ? null : getLineTable(openable);
 		for (IProblem problem : problems) {
 			Diagnostic diag = new Diagnostic();
 			diag.setSource(JavaLanguageServerPlugin.SERVER_SOURCE_ID);
 			diag.setMessage(problem.getMessage());
 			diag.setCode(Integer.toString(problem.getID()));
 			diag.setSeverity(convertSeverity(problem));
-			diag.setRange(convertRange(openable, problem));
+			diag.setRange(convertRange(lines, problem));
 			array.add(diag);
 		}
 		return array;
@@ -149,11 +180,24 @@ public class DiagnosticsHandler implements IProblemRequestor {
 		return DiagnosticSeverity.Information;
 	}
 
-	@SuppressWarnings("restriction")
-	private static Range convertRange(IOpenable openable, IProblem problem) {
+	/**
+	 * @return the line table of the buffer of the openable, an empty table if
+	 *         it has no buffer, or <code>null</code> if it failed to open
+	 */
+	private static LineTable getLineTable(IOpenable openable) {
 		try {
-			return JDTUtils.toRange(openable, problem.getSourceStart(), problem.getSourceEnd() - problem.getSourceStart() + 1);
+			IBuffer buffer = openable.getBuffer();
+			return buffer == null ? LineTable.of("") : LineTable.get(buffer);
 		} catch (CoreException e) {
+			return null;
+		}
+	}
+
+	@SuppressWarnings("restriction")
+	private static Range convertRange(LineTable lines, IProblem problem) {
+		if (lines != null) {
+			return lines.toRange(problem.getSourceStart(), problem.getSourceEnd() - problem.getSourceStart() + 1);
+		} else {
 			// In case failed to open the IOpenable's buffer, use the IProblem's information to calculate the range.
 			Position start = new Position();
 			Position end = new Position();
@@ -45,11 +45,12 @@ public class DocumentHighlightHandler{
 						List<DocumentHighlight> result = new ArrayList<>();
 						OccurrenceLocation[] occurrences = finder.getOccurrences();
 						if (occurrences != null) {
+							LineTable lines = LineTable.get(unit.getBuffer());
 							for (OccurrenceLocation loc : occurrences) {
 								if (monitor.isCanceled()) {
 									return Collections.emptyList();
 								}
-								result.add(convertToHighlight(unit, loc));
+								result.add(convertToHighlight(lines, loc));
 							}
 						}
 						return result;
@@ -62,8 +63,7 @@ public class DocumentHighlightHandler{
 		return Collections.emptyList();
 	}
 
-	private DocumentHighlight convertToHighlight(ITypeRoot unit, OccurrenceLocation occurrence)
-			throws JavaModelException {
+	private DocumentHighlight convertToHighlight(LineTable lines, OccurrenceLocation occurrence) {
 		DocumentHighlight h = new DocumentHighlight();
 		if ((occurrence.getFlags() | IOccurrencesFinder.F_WRITE_OCCURRENCE) == IOccurrencesFinder.F_WRITE_OCCURRENCE) {
 			h.setKind(DocumentHighlightKind.Write);
@@ -71,8 +71,8 @@ public class DocumentHighlightHandler{
 				| IOccurrencesFinder.F_READ_OCCURRENCE) == IOccurrencesFinder.F_READ_OCCURRENCE) {
 			h.setKind(DocumentHighlightKind.Read);
 		}
-		int[] loc = JsonRpcHelpers.toLine(unit.getBuffer(), occurrence.getOffset());
-		int[] endLoc = JsonRpcHelpers.toLine(unit.getBuffer(), occurrence.getOffset() + occurrence.getLength());
+		int[] loc = lines.toLine(occurrence.getOffset());
+		int[] endLoc = lines.toLine(occurrence.getOffset() + occurrence.getLength());
 
 		h.setRange(new Range(
 				new Position(loc[0], loc[1]),
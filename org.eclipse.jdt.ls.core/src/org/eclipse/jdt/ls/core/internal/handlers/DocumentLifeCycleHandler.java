@@ -10,18 +10,32 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
-import static com.google.common.collect.Lists.newArrayList;
-
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.resources.WorkspaceJob;
@@ -30,11 +44,16 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IProblemRequestor;
 import org.eclipse.jdt.core.JavaCore;
@@ -48,9 +67,7 @@ import org.eclipse.jdt.ls.core.internal.DocumentAdapter;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
-import org.eclipse.jdt.ls.core.internal.highlighting.HighlightedPosition;
 import org.eclipse.jdt.ls.core.internal.highlighting.SemanticHighlightingService;
-import org.eclipse.jdt.ls.core.internal.highlighting.SemanticHighlightingService.HighlightedPositionDiffContext;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager.CHANGE_TYPE;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
@@ -58,8 +75,6 @@ import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
 import org.eclipse.jdt.ls.core.internal.preferences.Preferences.Severity;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.BadPositionCategoryException;
-import org.eclipse.jface.text.Document;
-import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4j.Command;
 import org.eclipse.lsp4j.DidChangeTextDocumentParams;
@@ -75,8 +90,6 @@ import org.eclipse.text.edits.MalformedTreeException;
 import org.eclipse.text.edits.ReplaceEdit;
 import org.eclipse.text.edits.TextEdit;
 
-import com.google.common.collect.Iterables;
-
 public class DocumentLifeCycleHandler {
 
 	public static final String DOCUMENT_LIFE_CYCLE_JOBS = "DocumentLifeCycleJobs";
@@ -87,7 +100,24 @@ public class DocumentLifeCycleHandler {
 	private CoreASTProvider sharedASTProvider;
 	private WorkspaceJob validationTimer;
 	private Set<ICompilationUnit> toReconcile = new HashSet<>();
+	private ValidationDependencyTracker dependencyTracker = new ValidationDependencyTracker();
+	private ValidationDelayCalculator delayCalculator = new ValidationDelayCalculator();
+	/**
+	 * Units whose validation was interrupted by a newer change; guarded by
+	 * {@link #toReconcile}.
+	 */
+	private Set<ICompilationUnit> pendingValidation = new HashSet<>();
+	private Map<ICompilationUnit, Integer> documentVersions = new ConcurrentHashMap<>();
+	private AtomicInteger changeStamp = new AtomicInteger();
+	private AtomicLong completedValidations = new AtomicLong();
+	private AtomicLong abortedValidations = new AtomicLong();
 	private SemanticHighlightingService semanticHighlightingService;
+	private Job highlightingJob;
+	/**
+	 * The units whose semantic highlighting must be updated, with their URI.
+	 */
+	private Map<ICompilationUnit, String> toHighlight = new LinkedHashMap<>();
+	private static ExecutorService validationExecutor;
 
 	public DocumentLifeCycleHandler(JavaClientConnection connection, PreferenceManager preferenceManager, ProjectsManager projectsManager, boolean delayValidation) {
 		this.connection = connection;
@@ -110,12 +140,26 @@ public class DocumentLifeCycleHandler {
 					return DOCUMENT_LIFE_CYCLE_JOBS.equals(family);
 				}
 			};
-			this.validationTimer.setRule(ResourcesPlugin.getWorkspace().getRoot());
+			// the validation acquires the rule of each validated unit's project, so that
+			// units of different projects can be validated concurrently
+			this.highlightingJob = new Job("Update semantic highlighting") {
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					return performSemanticHighlighting(monitor);
+				}
+
+				@Override
+				public boolean belongsTo(Object family) {
+					return DOCUMENT_LIFE_CYCLE_JOBS.equals(family);
+				}
+			};
+			this.highlightingJob.setSystem(true);
 		}
 	}
 
 	private void triggerValidation(ICompilationUnit cu) throws JavaModelException {
-		triggerValidation(cu, 400);
+		Preferences preferences = preferenceManager.getPreferences();
+		triggerValidation(cu, delayCalculator.getDelay(cu, preferences.getValidationDelayMin(), preferences.getValidationDelayMax()));
 	}
 
 	private void triggerValidation(ICompilationUnit cu, long delay) throws JavaModelException {
@@ -131,61 +175,264 @@ public class DocumentLifeCycleHandler {
 		}
 	}
 
+	private void triggerSemanticHighlighting(ICompilationUnit cu, String uri) {
+		if (!semanticHighlightingService.isEnabled()) {
+			return;
+		}
+		synchronized (toHighlight) {
+			toHighlight.put(cu, uri);
+		}
+		if (highlightingJob != null) {
+			// a running update is stale, it will hand its units over to the next one
+			highlightingJob.cancel();
+			highlightingJob.schedule();
+		} else {
+			performSemanticHighlighting(new NullProgressMonitor());
+		}
+	}
+
+	/**
+	 * Updates the semantic highlighting of the changed units once, however many
+	 * changes they received since the previous update. Updates made stale by a
+	 * newer change are dropped, and left to the next run.
+	 */
+	private IStatus performSemanticHighlighting(IProgressMonitor monitor) {
+		Map<ICompilationUnit, String> units;
+		synchronized (toHighlight) {
+			units = new LinkedHashMap<>(toHighlight);
+			toHighlight.clear();
+		}
+		Iterator<Map.Entry<ICompilationUnit, String>> iterator = units.entrySet().iterator();
+		while (iterator.hasNext() && !monitor.isCanceled()) {
+			Map.Entry<ICompilationUnit, String> entry = iterator.next();
+			ICompilationUnit unit = entry.getKey();
+			Integer version = documentVersions.get(unit);
+			try {
+				// closed units don't have a version anymore
+				if (version == null || updateSemanticHighlightings(unit, new VersionedTextDocumentIdentifier(entry.getValue(), version), () -> !version.equals(documentVersions.get(unit)), monitor)) {
+					iterator.remove();
+				}
+			} catch (JavaModelException | BadLocationException | BadPositionCategoryException e) {
+				JavaLanguageServerPlugin.logException("Error while updating semantic highlighting. URI: " + entry.getValue(), e);
+				iterator.remove();
+			}
+		}
+		if (!units.isEmpty()) {
+			synchronized (toHighlight) {
+				units.forEach(toHighlight::putIfAbsent);
+			}
+			return Status.CANCEL_STATUS;
+		}
+		return Status.OK_STATUS;
+	}
+
 	private IStatus performValidation(IProgressMonitor monitor) throws JavaModelException {
 		long start = System.currentTimeMillis();
 
+		// any document change made after this point makes the pass stale
+		int stamp = changeStamp.get();
 		List<ICompilationUnit> cusToReconcile = new ArrayList<>();
+		Set<ICompilationUnit> pending = new HashSet<>();
 		synchronized (toReconcile) {
 			cusToReconcile.addAll(toReconcile);
 			toReconcile.clear();
+			pending.addAll(pendingValidation);
+			pendingValidation.clear();
 		}
-		if (cusToReconcile.isEmpty()) {
+		if (cusToReconcile.isEmpty() && pending.isEmpty()) {
 			return Status.OK_STATUS;
 		}
-		// first reconcile all units with content changes
-		SubMonitor progress = SubMonitor.convert(monitor, cusToReconcile.size() + 1);
-		for (ICompilationUnit cu : cusToReconcile) {
-			cu.reconcile(ICompilationUnit.NO_AST, true, null, progress.newChild(1));
-		}
-		this.sharedASTProvider.disposeAST();
-		List<ICompilationUnit> toValidate = Arrays.asList(JavaCore.getWorkingCopies(null));
-		List<CompilationUnit> astRoots = new ArrayList<>();
-		for (ICompilationUnit rootToValidate : toValidate) {
-			CompilationUnit astRoot = this.sharedASTProvider.getAST(rootToValidate, CoreASTProvider.WAIT_YES, monitor);
-			astRoots.add(astRoot);
+		Map<ICompilationUnit, Integer> versions = new HashMap<>(documentVersions);
+		IProgressMonitor validationMonitor = new ProgressMonitorWrapper(monitor) {
+			@Override
+			public boolean isCanceled() {
+				return super.isCanceled() || changeStamp.get() != stamp;
+			}
+		};
+		Set<ICompilationUnit> unpublished = new HashSet<>();
+		boolean reconciled = false;
+		try {
+			// first reconcile all units with content changes
+			SubMonitor progress = SubMonitor.convert(validationMonitor, cusToReconcile.size() + 1);
+			for (ICompilationUnit cu : cusToReconcile) {
+				ResourcesPlugin.getWorkspace().run(m -> cu.reconcile(ICompilationUnit.NO_AST, true, null, m), getSchedulingRule(cu), IWorkspace.AVOID_UPDATE, progress.newChild(1));
+			}
+			reconciled = true;
+			this.sharedASTProvider.disposeAST();
+			// only validate the units which may be affected by the changes, and the ones a previous pass didn't complete
+			ICompilationUnit[] workingCopies = JavaCore.getWorkingCopies(null);
+			Set<ICompilationUnit> affected = new HashSet<>(dependencyTracker.getUnitsToValidate(cusToReconcile, workingCopies));
+			affected.addAll(pending);
+			List<ICompilationUnit> toValidate = new ArrayList<>();
+			for (ICompilationUnit workingCopy : workingCopies) {
+				if (affected.contains(workingCopy)) {
+					toValidate.add(workingCopy);
+				}
+			}
+			unpublished.addAll(toValidate);
+			// the workers can't acquire their project rule if the current thread already owns a conflicting one
+			if (toValidate.size() > 1 && Job.getJobManager().currentRule() == null) {
+				validateInParallel(toValidate, versions, unpublished, progress.newChild(1));
+			} else {
+				SubMonitor validationProgress = progress.newChild(1).setWorkRemaining(toValidate.size());
+				for (ICompilationUnit unit : toValidate) {
+					publishDiagnostics(unit, validate(unit, validationProgress.newChild(1)), versions, unpublished);
+				}
+			}
+			if (validationMonitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			long completed = completedValidations.incrementAndGet();
+			JavaLanguageServerPlugin.logInfo("Reconciled " + cusToReconcile.size() + ", validated: " + toValidate.size() + ". Took " + (System.currentTimeMillis() - start) + " ms. Completed passes: " + completed
+					+ ", aborted passes: " + abortedValidations.get());
+		} catch (OperationCanceledException e) {
+			// hand the work over to the next pass, scheduled by the change that made this one stale
+			synchronized (toReconcile) {
+				if (!reconciled) {
+					toReconcile.addAll(cusToReconcile);
+				}
+				pendingValidation.addAll(unpublished);
+			}
+			long aborted = abortedValidations.incrementAndGet();
+			JavaLanguageServerPlugin.logInfo("Validation aborted after " + (System.currentTimeMillis() - start) + " ms. Completed passes: " + completedValidations.get() + ", aborted passes: " + aborted);
+			return Status.CANCEL_STATUS;
+		} catch (JavaModelException e) {
+			throw e;
+		} catch (CoreException e) {
+			throw new JavaModelException(e);
 		}
-		for (CompilationUnit astRoot : astRoots) {
-			// report errors, even if there are no problems in the file: The client need to know that they got fixed.
-			ICompilationUnit unit = (ICompilationUnit) astRoot.getTypeRoot();
-			final DiagnosticsHandler handler = new DiagnosticsHandler(connection, unit);
-			WorkingCopyOwner wcOwner = new WorkingCopyOwner() {
+		return Status.OK_STATUS;
+	}
 
-				/* (non-Javadoc)
-				 * @see org.eclipse.jdt.core.WorkingCopyOwner#createBuffer(org.eclipse.jdt.core.ICompilationUnit)
-				 */
-				@Override
-				public IBuffer createBuffer(ICompilationUnit workingCopy) {
-					ICompilationUnit original = workingCopy.getPrimary();
-					IResource resource = original.getResource();
-					if (resource instanceof IFile) {
-						return new DocumentAdapter(workingCopy, (IFile) resource);
+	/**
+	 * Fans out the validation of the given units to the validation workers, and
+	 * publishes their diagnostics in the order of <code>units</code>.
+	 */
+	private void validateInParallel(List<ICompilationUnit> units, Map<ICompilationUnit, Integer> versions, Set<ICompilationUnit> unpublished, IProgressMonitor monitor) {
+		SubMonitor progress = SubMonitor.convert(monitor, units.size());
+		// progress monitors aren't thread safe, the workers only need to know about cancellation
+		IProgressMonitor workerMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return monitor.isCanceled();
+			}
+		};
+		List<Future<DiagnosticsHandler>> results = new ArrayList<>(units.size());
+		for (ICompilationUnit unit : units) {
+			results.add(getValidationExecutor().submit(() -> validate(unit, workerMonitor)));
+		}
+		try {
+			for (int i = 0; i < results.size(); i++) {
+				try {
+					publishDiagnostics(units.get(i), results.get(i).get(), versions, unpublished);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof OperationCanceledException) {
+						throw (OperationCanceledException) e.getCause();
 					}
-					return DocumentAdapter.Null;
+					JavaLanguageServerPlugin.logException("Error while validating " + units.get(i).getElementName(), e.getCause());
 				}
+				progress.worked(1);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} finally {
+			// no-op for the completed ones
+			results.forEach(result -> result.cancel(false));
+		}
+	}
 
-				/* (non-Javadoc)
-				 * @see org.eclipse.jdt.core.WorkingCopyOwner#getProblemRequestor(org.eclipse.jdt.core.ICompilationUnit)
-				 */
-				@Override
-				public IProblemRequestor getProblemRequestor(ICompilationUnit workingCopy) {
-					return handler;
+	/**
+	 * Publishes the diagnostics of the given unit, unless the document changed
+	 * since the validation pass started. Stale diagnostics are dropped, the unit
+	 * will be validated again by the next pass.
+	 */
+	private void publishDiagnostics(ICompilationUnit unit, DiagnosticsHandler handler, Map<ICompilationUnit, Integer> versions, Set<ICompilationUnit> unpublished) {
+		if (Objects.equals(versions.get(unit), documentVersions.get(unit)) && handler.publishDiagnostics()) {
+			unpublished.remove(unit);
+		}
+	}
+
+	private void updateDocumentVersion(ICompilationUnit unit, Integer version) {
+		changeStamp.incrementAndGet();
+		// clients may not send versions, make sure each change still bumps it
+		documentVersions.compute(unit, (cu, previous) -> version != null ? version : (previous == null ? 0 : previous + 1));
+	}
+
+	/**
+	 * @noreference public for test purposes only
+	 */
+	public long getCompletedValidationCount() {
+		return completedValidations.get();
+	}
+
+	/**
+	 * @noreference public for test purposes only
+	 */
+	public long getAbortedValidationCount() {
+		return abortedValidations.get();
+	}
+
+	private DiagnosticsHandler validate(ICompilationUnit unit, IProgressMonitor monitor) throws CoreException {
+		// report errors, even if there are no problems in the file: The client need to know that they got fixed.
+		final DiagnosticsHandler handler = new DiagnosticsHandler(connection, unit, false);
+		WorkingCopyOwner wcOwner = new WorkingCopyOwner() {
+
+			/* (non-Javadoc)
+			 * @see org.eclipse.jdt.core.WorkingCopyOwner#createBuffer(org.eclipse.jdt.core.ICompilationUnit)
+			 */
+			@Override
+			public IBuffer createBuffer(ICompilationUnit workingCopy) {
+				ICompilationUnit original = workingCopy.getPrimary();
+				IResource resource = original.getResource();
+				if (resource instanceof IFile) {
+					return new DocumentAdapter(workingCopy, (IFile) resource);
 				}
+				return DocumentAdapter.Null;
+			}
 
-			};
+			/* (non-Javadoc)
+			 * @see org.eclipse.jdt.core.WorkingCopyOwner#getProblemRequestor(org.eclipse.jdt.core.ICompilationUnit)
+			 */
+			@Override
+			public IProblemRequestor getProblemRequestor(ICompilationUnit workingCopy) {
+				return handler;
+			}
+
+		};
+		long start = System.currentTimeMillis();
+		ResourcesPlugin.getWorkspace().run(m -> {
+			SubMonitor progress = SubMonitor.convert(m, 2);
+			this.sharedASTProvider.getAST(unit, CoreASTProvider.WAIT_YES, progress.newChild(1));
 			unit.reconcile(ICompilationUnit.NO_AST, true, wcOwner, progress.newChild(1));
+		}, getSchedulingRule(unit), IWorkspace.AVOID_UPDATE, monitor);
+		IBuffer buffer = unit.getBuffer();
+		delayCalculator.record(unit, System.currentTimeMillis() - start, buffer == null ? 0 : buffer.getLength());
+		return handler;
+	}
+
+	private static ISchedulingRule getSchedulingRule(ICompilationUnit unit) {
+		IJavaProject javaProject = unit.getJavaProject();
+		if (javaProject == null) {
+			return ResourcesPlugin.getWorkspace().getRoot();
 		}
-		JavaLanguageServerPlugin.logInfo("Reconciled " + toReconcile.size() + ", validated: " + toValidate.size() + ". Took " + (System.currentTimeMillis() - start) + " ms");
-		return Status.OK_STATUS;
+		return javaProject.getProject();
+	}
+
+	private static synchronized ExecutorService getValidationExecutor() {
+		if (validationExecutor == null) {
+			// leave one core to the thread reading the client messages
+			int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+			AtomicInteger count = new AtomicInteger();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				Thread thread = new Thread(runnable, "Document validation worker " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			executor.allowCoreThreadTimeOut(true);
+			validationExecutor = executor;
+		}
+		return validationExecutor;
 	}
 
 	public void didClose(DidCloseTextDocumentParams params) {
@@ -294,6 +541,7 @@ public class DocumentLifeCycleHandler {
 			if (buffer != null && !buffer.getContents().equals(newContent)) {
 				buffer.setContents(newContent);
 			}
+			updateDocumentVersion(unit, params.getTextDocument().getVersion());
 			triggerValidation(unit);
 			installSemanticHighlightings(unit);
 			// see https://github.com/redhat-developer/vscode-java/issues/274
@@ -315,8 +563,8 @@ public class DocumentLifeCycleHandler {
 			if (unit.equals(sharedASTProvider.getActiveJavaElement())) {
 				sharedASTProvider.disposeAST();
 			}
+			updateDocumentVersion(unit, params.getTextDocument().getVersion());
 			List<TextDocumentContentChangeEvent> contentChanges = params.getContentChanges();
-			List<HighlightedPositionDiffContext> diffContexts = newArrayList();
 			for (TextDocumentContentChangeEvent changeEvent : contentChanges) {
 
 				Range range = changeEvent.getRange();
@@ -342,31 +590,14 @@ public class DocumentLifeCycleHandler {
 					edit = new ReplaceEdit(startOffset, length, text);
 				}
 
-				// Avoid any computation if the `SemanticHighlightingService#isEnabled` is `false`.
-				if (semanticHighlightingService.isEnabled()) {
-					IDocument oldState = new Document(unit.getBuffer().getContents());
-					IDocument newState = JsonRpcHelpers.toDocument(unit.getBuffer());
-					//@formatter:off
-					List<HighlightedPosition> oldPositions = diffContexts.isEmpty()
-						? semanticHighlightingService.getHighlightedPositions(uri)
-						: Iterables.getLast(diffContexts).newPositions;
-					//@formatter:on
-					edit.apply(newState, TextEdit.NONE);
-					// This is a must. Make the document immutable.
-					// Otherwise, any consecutive `newStates` get out-of-sync due to the shared buffer from the compilation unit.
-					newState = new Document(newState.get());
-					List<HighlightedPosition> newPositions = semanticHighlightingService.calculateHighlightedPositions(unit, true);
-					DocumentEvent event = new DocumentEvent(newState, startOffset, length, text);
-					diffContexts.add(new HighlightedPositionDiffContext(oldState, event, oldPositions, newPositions));
-				} else {
-					IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
-					edit.apply(document, TextEdit.NONE);
-				}
+				IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
+				edit.apply(document, TextEdit.NONE);
 
 			}
 			triggerValidation(unit);
-			updateSemanticHighlightings(params.getTextDocument(), diffContexts);
-		} catch (JavaModelException | MalformedTreeException | BadLocationException | BadPositionCategoryException e) {
+			// the highlighting is computed once for all the changes, off the thread reading the client messages
+			triggerSemanticHighlighting(unit, uri);
+		} catch (JavaModelException | MalformedTreeException | BadLocationException e) {
 			JavaLanguageServerPlugin.logException("Error while handling document change. URI: " + uri, e);
 		}
 	}
@@ -385,6 +616,13 @@ public class DocumentLifeCycleHandler {
 				sharedASTProvider.disposeAST();
 			}
 			unit.discardWorkingCopy();
+			synchronized (toHighlight) {
+				toHighlight.remove(unit);
+			}
+			dependencyTracker.forget(unit);
+			documentVersions.remove(unit);
+			delayCalculator.forget(unit);
+			CompletionResponses.invalidate(uri);
 			if (JDTUtils.isDefaultProject(unit)) {
 				File f = new File(unit.getUnderlyingResource().getLocationURI());
 				if (!f.exists()) {
@@ -469,8 +707,8 @@ public class DocumentLifeCycleHandler {
 		this.semanticHighlightingService.uninstall(uri);
 	}
 
-	protected void updateSemanticHighlightings(VersionedTextDocumentIdentifier textDocument, List<HighlightedPositionDiffContext> diffContexts) throws BadLocationException, BadPositionCategoryException, JavaModelException {
-		this.semanticHighlightingService.update(textDocument, diffContexts);
+	protected boolean updateSemanticHighlightings(ICompilationUnit unit, VersionedTextDocumentIdentifier textDocument, BooleanSupplier isStale, IProgressMonitor monitor) throws BadLocationException, BadPositionCategoryException, JavaModelException {
+		return this.semanticHighlightingService.update(unit, textDocument, isStale, monitor);
 	}
 
 }
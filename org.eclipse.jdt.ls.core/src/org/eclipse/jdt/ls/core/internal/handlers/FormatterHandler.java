@@ -10,8 +10,6 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
-import static java.util.stream.Collectors.toMap;
-
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -22,17 +20,28 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
-import org.eclipse.jdt.core.ToolFactory;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
+import org.eclipse.jdt.core.dom.CatchClause;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.SwitchStatement;
 import org.eclipse.jdt.core.formatter.CodeFormatter;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.internal.compiler.env.IModule;
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
 import org.eclipse.jdt.internal.corext.refactoring.util.TextEditUtil;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.managers.FormatterManager;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
@@ -58,6 +67,26 @@ public class FormatterHandler {
 	private static final char CLOSING_BRACE = '}';
 	private static final char NEW_LINE = '\n';
 
+	/**
+	 * Options under which the indentation of a statement or member only
+	 * depends on its enclosing blocks and types, see
+	 * {@link #getIndentationLevel(ASTNode, Map)}.
+	 */
+	private static final String[] INDENTATION_OPTIONS = {
+			DefaultCodeFormatterConstants.FORMATTER_INDENT_STATEMENTS_COMPARE_TO_BLOCK,
+			DefaultCodeFormatterConstants.FORMATTER_INDENT_STATEMENTS_COMPARE_TO_BODY,
+			DefaultCodeFormatterConstants.FORMATTER_INDENT_BODY_DECLARATIONS_COMPARE_TO_TYPE_HEADER,
+			DefaultCodeFormatterConstants.FORMATTER_INDENT_BODY_DECLARATIONS_COMPARE_TO_ENUM_DECLARATION_HEADER,
+			DefaultCodeFormatterConstants.FORMATTER_INDENT_BODY_DECLARATIONS_COMPARE_TO_ANNOTATION_DECLARATION_HEADER };
+
+	private static final String[] BRACE_POSITION_OPTIONS = {
+			DefaultCodeFormatterConstants.FORMATTER_BRACE_POSITION_FOR_BLOCK,
+			DefaultCodeFormatterConstants.FORMATTER_BRACE_POSITION_FOR_METHOD_DECLARATION,
+			DefaultCodeFormatterConstants.FORMATTER_BRACE_POSITION_FOR_CONSTRUCTOR_DECLARATION,
+			DefaultCodeFormatterConstants.FORMATTER_BRACE_POSITION_FOR_TYPE_DECLARATION,
+			DefaultCodeFormatterConstants.FORMATTER_BRACE_POSITION_FOR_ENUM_DECLARATION,
+			DefaultCodeFormatterConstants.FORMATTER_BRACE_POSITION_FOR_ANNOTATION_TYPE_DECLARATION };
+
 	private PreferenceManager preferenceManager;
 
 	public FormatterHandler(PreferenceManager preferenceManager) {
@@ -101,13 +130,19 @@ public class FormatterHandler {
 		if (cu == null || document == null || region == null || monitor.isCanceled()) {
 			return Collections.emptyList();
 		}
+		return format(cu, document, region, getOptions(options, cu), includeComments, monitor);
+	}
 
-		CodeFormatter formatter = ToolFactory.createCodeFormatter(getOptions(options, cu));
+	private List<org.eclipse.lsp4j.TextEdit> format(ICompilationUnit cu, IDocument document, IRegion region, Map<String, String> formatterOptions, boolean includeComments, IProgressMonitor monitor) {
+		CodeFormatter formatter = FormatterManager.getCodeFormatter(formatterOptions);
 
 		String lineDelimiter = TextUtilities.getDefaultLineDelimiter(document);
 		String sourceToFormat = document.get();
 		int kind = getFormattingKind(cu, includeComments);
-		TextEdit format = formatter.format(kind, sourceToFormat, region.getOffset(), region.getLength(), 0, lineDelimiter);
+		TextEdit format;
+		synchronized (formatter) {
+			format = formatter.format(kind, sourceToFormat, region.getOffset(), region.getLength(), 0, lineDelimiter);
+		}
 		if (format == null || format.getChildren().length == 0 || monitor.isCanceled()) {
 			// nothing to return
 			return Collections.<org.eclipse.lsp4j.TextEdit>emptyList();
@@ -139,11 +174,14 @@ public class FormatterHandler {
 	}
 
 	private static Map<String, String> getOptions(FormattingOptions options, ICompilationUnit cu) {
+		// a copy of the options cached by the project
 		Map<String, String> eclipseOptions = cu.getJavaProject().getOptions(true);
 
-		Map<String, String> customOptions = options.entrySet().stream().filter(map -> chekIfValueIsNotNull(map.getValue())).collect(toMap(e -> e.getKey(), e -> getOptionValue(e.getValue())));
-
-		eclipseOptions.putAll(customOptions);
+		for (Map.Entry<String, Either3<String, Number, Boolean>> option : options.entrySet()) {
+			if (chekIfValueIsNotNull(option.getValue())) {
+				eclipseOptions.put(option.getKey(), getOptionValue(option.getValue()));
+			}
+		}
 
 		Integer tabSize = options.getTabSize();
 		if (tabSize != null) {
@@ -224,7 +262,178 @@ public class FormatterHandler {
 		if (region == null) {
 			return Collections.emptyList();
 		}
-		return format(cu, document, region, options, false, monitor);
+		return formatSlice(cu, document, region, options, monitor);
+	}
+
+	/**
+	 * Formats the given region, passing only the statement or member enclosing
+	 * it to the formatter, so that the whole source isn't tokenized on every
+	 * keystroke. Falls back to formatting the region within the whole source
+	 * when the slice or its indentation can't be determined.
+	 */
+	private List<org.eclipse.lsp4j.TextEdit> formatSlice(ICompilationUnit cu, IDocument document, IRegion region, FormattingOptions options, IProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			return Collections.emptyList();
+		}
+		Map<String, String> formatterOptions = getOptions(options, cu);
+		try {
+			Slice slice = getSlice(cu, document, region, formatterOptions);
+			if (slice != null) {
+				int start = Math.max(region.getOffset(), slice.offset);
+				int end = Math.min(region.getOffset() + region.getLength(), slice.offset + slice.length);
+				CodeFormatter formatter = FormatterManager.getCodeFormatter(formatterOptions);
+				String lineDelimiter = TextUtilities.getDefaultLineDelimiter(document);
+				String sourceToFormat = document.get(slice.offset, slice.length);
+				TextEdit format;
+				synchronized (formatter) {
+					format = formatter.format(slice.kind, sourceToFormat, start - slice.offset, end - start, slice.indentationLevel, lineDelimiter);
+				}
+				// the slice may not parse on its own, format the whole source then
+				if (format != null) {
+					if (format.getChildren().length == 0 || monitor.isCanceled()) {
+						return Collections.<org.eclipse.lsp4j.TextEdit>emptyList();
+					}
+					format.moveTree(slice.offset);
+					MultiTextEdit flatEdit = TextEditUtil.flatten(format);
+					return convertEdits(flatEdit.getChildren(), document);
+				}
+			}
+		} catch (BadLocationException e) {
+			JavaLanguageServerPlugin.logException(e.getMessage(), e);
+		}
+		if (monitor.isCanceled()) {
+			return Collections.emptyList();
+		}
+		return format(cu, document, region, formatterOptions, false, monitor);
+	}
+
+	/**
+	 * Returns the innermost statement of a block, or member of a type,
+	 * enclosing the given region, starting at the beginning of its line when
+	 * only preceded by whitespace.
+	 *
+	 * @return the slice, or <code>null</code> if there is none
+	 */
+	private static Slice getSlice(ICompilationUnit cu, IDocument document, IRegion region, Map<String, String> options) throws BadLocationException {
+		// the whitespace around the region doesn't belong to the nodes
+		int start = region.getOffset();
+		int end = start + region.getLength();
+		while (start < end && Character.isWhitespace(document.getChar(start))) {
+			start++;
+		}
+		while (end > start && Character.isWhitespace(document.getChar(end - 1))) {
+			end--;
+		}
+		if (start == end) {
+			return null;
+		}
+		CompilationUnit astRoot = getSliceAST(cu, document, start);
+		ASTNode node = NodeFinder.perform(astRoot, start, end - start);
+		while (node != null && !isSliceRoot(node)) {
+			node = node.getParent();
+		}
+		if (node == null) {
+			return null;
+		}
+		int indentationLevel = getIndentationLevel(node, options);
+		if (indentationLevel < 0) {
+			return null;
+		}
+		int kind = node instanceof Statement ? CodeFormatter.K_STATEMENTS : CodeFormatter.K_CLASS_BODY_DECLARATIONS;
+		int offset = node.getStartPosition();
+		int lineOffset = document.getLineOffset(document.getLineOfOffset(offset));
+		if (document.get(lineOffset, offset - lineOffset).trim().isEmpty()) {
+			offset = lineOffset;
+		}
+		return new Slice(kind, offset, node.getStartPosition() + node.getLength() - offset, indentationLevel);
+	}
+
+	/**
+	 * Returns the shared AST if it is already built for the document.
+	 * Otherwise, the document is parsed without bindings, and without the
+	 * bodies of the methods which don't contain the given offset: the shared
+	 * AST is disposed on every change, and building it with bindings on every
+	 * keystroke would cost more than formatting the whole source.
+	 */
+	private static CompilationUnit getSliceAST(ICompilationUnit cu, IDocument document, int offset) {
+		CompilationUnit astRoot = CoreASTProvider.getInstance().getAST(cu, CoreASTProvider.WAIT_NO, null);
+		if (astRoot != null && astRoot.getStartPosition() + astRoot.getLength() == document.getLength()) {
+			return astRoot;
+		}
+		ASTParser parser = ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setProject(cu.getJavaProject());
+		parser.setSource(document.get().toCharArray());
+		parser.setResolveBindings(false);
+		parser.setFocalPosition(offset);
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+	private static boolean isSliceRoot(ASTNode node) {
+		if (node instanceof Statement) {
+			return node.getLocationInParent() == Block.STATEMENTS_PROPERTY;
+		}
+		if (node instanceof BodyDeclaration) {
+			ASTNode parent = node.getParent();
+			return parent instanceof AbstractTypeDeclaration && node.getLocationInParent() == ((AbstractTypeDeclaration) parent).getBodyDeclarationsProperty();
+		}
+		return false;
+	}
+
+	/**
+	 * Computes the indentation level of the given slice from its enclosing
+	 * blocks and types.
+	 *
+	 * @return the indentation level, or <code>-1</code> if it also depends on
+	 *         other constructs, or on the options
+	 */
+	private static int getIndentationLevel(ASTNode node, Map<String, String> options) {
+		for (String option : INDENTATION_OPTIONS) {
+			if (!DefaultCodeFormatterConstants.TRUE.equals(options.get(option))) {
+				return -1;
+			}
+		}
+		for (String option : BRACE_POSITION_OPTIONS) {
+			if (DefaultCodeFormatterConstants.NEXT_LINE_SHIFTED.equals(options.get(option))) {
+				return -1;
+			}
+		}
+		int level = 0;
+		ASTNode child = node;
+		ASTNode parent = node.getParent();
+		while (parent != null) {
+			if (parent instanceof Block || parent instanceof AbstractTypeDeclaration) {
+				level++;
+			} else if (parent instanceof CompilationUnit) {
+				return level;
+			} else if (parent instanceof MethodDeclaration || parent instanceof Initializer || parent instanceof CatchClause) {
+				// their body is a block
+			} else if (parent instanceof IfStatement && child.getLocationInParent() == IfStatement.ELSE_STATEMENT_PROPERTY && child instanceof IfStatement) {
+				if (!DefaultCodeFormatterConstants.TRUE.equals(options.get(DefaultCodeFormatterConstants.FORMATTER_COMPACT_ELSE_IF))) {
+					return -1;
+				}
+			} else if (!(parent instanceof Statement) || parent instanceof SwitchStatement || !(child instanceof Block || child instanceof CatchClause)) {
+				// expressions, switch statements, and bodies without braces
+				return -1;
+			}
+			child = parent;
+			parent = parent.getParent();
+		}
+		return -1;
+	}
+
+	private static final class Slice {
+		private final int kind;
+		private final int offset;
+		private final int length;
+		private final int indentationLevel;
+
+		Slice(int kind, int offset, int length, int indentationLevel) {
+			this.kind = kind;
+			this.offset = offset;
+			this.length = length;
+			this.indentationLevel = indentationLevel;
+		}
 	}
 
 	private IRegion getRegion(ICompilationUnit cu, IDocument document, Position position, String trigger) {
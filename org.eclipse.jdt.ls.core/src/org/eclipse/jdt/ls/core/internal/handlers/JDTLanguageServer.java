@@ -45,6 +45,7 @@ import org.eclipse.jdt.launching.JavaRuntime;
 import org.eclipse.jdt.launching.VMStandin;
 import org.eclipse.jdt.ls.core.internal.BuildWorkspaceStatus;
 import org.eclipse.jdt.ls.core.internal.CancellableProgressMonitor;
+import org.eclipse.jdt.ls.core.internal.DiagnosticsPublisher;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JSONUtility;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
@@ -53,6 +54,7 @@ import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.JobHelpers;
 import org.eclipse.jdt.ls.core.internal.LanguageServerWorkingCopyOwner;
 import org.eclipse.jdt.ls.core.internal.ServiceStatus;
+import org.eclipse.jdt.ls.core.internal.TypeRootCache;
 import org.eclipse.jdt.ls.core.internal.lsp.JavaProtocolExtensions;
 import org.eclipse.jdt.ls.core.internal.managers.ContentProviderManager;
 import org.eclipse.jdt.ls.core.internal.managers.FormatterManager;
@@ -143,7 +145,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	}
 
 	public void connectClient(JavaLanguageClient client) {
-		this.client = new JavaClientConnection(client);
+		this.client = new JavaClientConnection(client, DiagnosticsPublisher.DEFAULT_DELAY);
 		progressReporterManager = new ProgressReporterManager(client, preferenceManager);
 		Job.getJobManager().setProgressProvider(progressReporterManager);
 		this.workingCopyOwner = new LanguageServerWorkingCopyOwner(this.client);
@@ -216,7 +218,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		workspaceDiagnosticsHandler = new WorkspaceDiagnosticsHandler(this.client, pm);
 		workspaceDiagnosticsHandler.addResourceChangeListener();
 
-		computeAsync((monitor) -> {
+		computeAsync("initialized", (monitor) -> {
 			try {
 				workspaceDiagnosticsHandler.publishDiagnostics(monitor);
 			} catch (CoreException e) {
@@ -264,7 +266,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<Object> shutdown() {
 		logInfo(">> shutdown");
-		return computeAsync((monitor) -> {
+		return computeAsync("shutdown", (monitor) -> {
 			try {
 				if (workspaceDiagnosticsHandler != null) {
 					workspaceDiagnosticsHandler.removeResourceChangeListener();
@@ -319,7 +321,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends SymbolInformation>> symbol(WorkspaceSymbolParams params) {
 		logInfo(">> workspace/symbol");
 		WorkspaceSymbolHandler handler = new WorkspaceSymbolHandler(preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync("workspace/symbol", (monitor) -> {
 			return handler.search(params.getQuery(), monitor);
 		});
 	}
@@ -429,7 +431,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<Object> executeCommand(ExecuteCommandParams params) {
 		logInfo(">> workspace/executeCommand " + (params == null ? null : params.getCommand()));
 		WorkspaceExecuteCommandHandler handler = new WorkspaceExecuteCommandHandler();
-		return computeAsync((monitor) -> {
+		return computeAsync("workspace/executeCommand", (monitor) -> {
 			return handler.executeCommand(params, monitor);
 		});
 	}
@@ -442,7 +444,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> document/completion");
 		CompletionHandler handler = new CompletionHandler();
 		final IProgressMonitor[] monitors = new IProgressMonitor[1];
-		CompletableFuture<Either<List<CompletionItem>, CompletionList>> result = computeAsync((monitor) -> {
+		CompletableFuture<Either<List<CompletionItem>, CompletionList>> result = computeAsync("document/completion", (monitor) -> {
 			monitors[0] = monitor;
 			if (Boolean.getBoolean(JAVA_LSP_JOIN_ON_COMPLETION)) {
 				waitForLifecycleJobs(monitor);
@@ -464,7 +466,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> document/resolveCompletionItem");
 		CompletionResolveHandler handler = new CompletionResolveHandler(preferenceManager);
 		final IProgressMonitor[] monitors = new IProgressMonitor[1];
-		CompletableFuture<CompletionItem> result = computeAsync((monitor) -> {
+		CompletableFuture<CompletionItem> result = computeAsync("document/resolveCompletionItem", (monitor) -> {
 			monitors[0] = monitor;
 			if ((Boolean.getBoolean(JAVA_LSP_JOIN_ON_COMPLETION))) {
 				waitForLifecycleJobs(monitor);
@@ -485,7 +487,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<Hover> hover(TextDocumentPositionParams position) {
 		logInfo(">> document/hover");
 		HoverHandler handler = new HoverHandler(this.preferenceManager);
-		return computeAsync((monitor) -> handler.hover(position, monitor));
+		return computeAsync("document/hover", (monitor) -> handler.hover(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -495,7 +497,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<SignatureHelp> signatureHelp(TextDocumentPositionParams position) {
 		logInfo(">> document/signatureHelp");
 		SignatureHelpHandler handler = new SignatureHelpHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.signatureHelp(position, monitor));
+		return computeAsync("document/signatureHelp", (monitor) -> handler.signatureHelp(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -505,7 +507,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends Location>> definition(TextDocumentPositionParams position) {
 		logInfo(">> document/definition");
 		NavigateToDefinitionHandler handler = new NavigateToDefinitionHandler(this.preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync("document/definition", (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.definition(position, monitor);
 		});
@@ -518,7 +520,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends Location>> typeDefinition(TextDocumentPositionParams position) {
 		logInfo(">> document/typeDefinition");
 		NavigateToTypeDefinitionHandler handler = new NavigateToTypeDefinitionHandler();
-		return computeAsync((monitor) -> {
+		return computeAsync("document/typeDefinition", (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.typeDefinition(position, monitor);
 		});
@@ -531,7 +533,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends Location>> references(ReferenceParams params) {
 		logInfo(">> document/references");
 		ReferencesHandler handler = new ReferencesHandler(this.preferenceManager);
-		return computeAsync((monitor) -> handler.findReferences(params, monitor));
+		return computeAsync("document/references", (monitor) -> handler.findReferences(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -541,7 +543,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends DocumentHighlight>> documentHighlight(TextDocumentPositionParams position) {
 		logInfo(">> document/documentHighlight");
 		DocumentHighlightHandler handler = new DocumentHighlightHandler();
-		return computeAsync((monitor) -> handler.documentHighlight(position, monitor));
+		return computeAsync("document/documentHighlight", (monitor) -> handler.documentHighlight(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -552,7 +554,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> document/documentSymbol");
 		boolean hierarchicalDocumentSymbolSupported = preferenceManager.getClientPreferences().isHierarchicalDocumentSymbolSupported();
 		DocumentSymbolHandler handler = new DocumentSymbolHandler(hierarchicalDocumentSymbolSupported);
-		return computeAsync((monitor) -> {
+		return computeAsync("document/documentSymbol", (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.documentSymbol(params, monitor);
 		});
@@ -564,8 +566,8 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<List<Either<Command, CodeAction>>> codeAction(CodeActionParams params) {
 		logInfo(">> document/codeAction");
-		CodeActionHandler handler = new CodeActionHandler();
-		return computeAsync((monitor) -> {
+		CodeActionHandler handler = new CodeActionHandler(preferenceManager);
+		return computeAsync("document/codeAction", (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.getCodeActionCommands(params, monitor).stream().map(command -> Either.<Command, CodeAction>forLeft(command)).collect(Collectors.toList());
 		});
@@ -578,7 +580,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends CodeLens>> codeLens(CodeLensParams params) {
 		logInfo(">> document/codeLens");
 		CodeLensHandler handler = new CodeLensHandler(preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync("document/codeLens", (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.getCodeLensSymbols(params.getTextDocument().getUri(), monitor);
 		});
@@ -591,7 +593,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<CodeLens> resolveCodeLens(CodeLens unresolved) {
 		logInfo(">> codeLens/resolve");
 		CodeLensHandler handler = new CodeLensHandler(preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync("codeLens/resolve", (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.resolve(unresolved, monitor);
 		});
@@ -604,7 +606,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> formatting(DocumentFormattingParams params) {
 		logInfo(">> document/formatting");
 		FormatterHandler handler = new FormatterHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.formatting(params, monitor));
+		return computeAsync("document/formatting", (monitor) -> handler.formatting(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -614,7 +616,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> rangeFormatting(DocumentRangeFormattingParams params) {
 		logInfo(">> document/rangeFormatting");
 		FormatterHandler handler = new FormatterHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.rangeFormatting(params, monitor));
+		return computeAsync("document/rangeFormatting", (monitor) -> handler.rangeFormatting(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -624,7 +626,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> onTypeFormatting(DocumentOnTypeFormattingParams params) {
 		logInfo(">> document/onTypeFormatting");
 		FormatterHandler handler = new FormatterHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.onTypeFormatting(params, monitor));
+		return computeAsync("document/onTypeFormatting", (monitor) -> handler.onTypeFormatting(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -634,7 +636,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<WorkspaceEdit> rename(RenameParams params) {
 		logInfo(">> document/rename");
 		RenameHandler handler = new RenameHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.rename(params, monitor));
+		return computeAsync("document/rename", (monitor) -> handler.rename(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -671,7 +673,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<TextEdit>> willSaveWaitUntil(WillSaveTextDocumentParams params) {
 		logInfo(">> document/willSaveWaitUntil");
 		SaveActionHandler handler = new SaveActionHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.willSaveWaitUntil(params, monitor));
+		return computeAsync("document/willSaveWaitUntil", (monitor) -> handler.willSaveWaitUntil(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -691,7 +693,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> java/classFileContents");
 		ContentProviderManager handler = JavaLanguageServerPlugin.getContentProviderManager();
 		URI uri = JDTUtils.toURI(param.getUri());
-		return computeAsync((monitor) -> handler.getContent(uri, monitor));
+		return computeAsync("java/classFileContents", (monitor) -> handler.getContent(uri, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -711,7 +713,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<BuildWorkspaceStatus> buildWorkspace(boolean forceReBuild) {
 		logInfo(">> java/buildWorkspace (" + (forceReBuild ? "full)" : "incremental)"));
 		BuildWorkspaceHandler handler = new BuildWorkspaceHandler(client, pm);
-		return computeAsync((monitor) -> handler.buildWorkspace(forceReBuild, monitor));
+		return computeAsync("java/buildWorkspace", (monitor) -> handler.buildWorkspace(forceReBuild, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -727,7 +729,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<List<? extends Location>> implementation(TextDocumentPositionParams position) {
 		logInfo(">> document/implementation");
-		return computeAsyncWithClientProgress((monitor) -> new ImplementationsHandler(preferenceManager).findImplementations(position, monitor));
+		return computeAsyncWithClientProgress("document/implementation", (monitor) -> new ImplementationsHandler(preferenceManager).findImplementations(position, monitor));
 	}
 
 	public void sendStatus(ServiceStatus serverStatus, String status) {
@@ -760,17 +762,27 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		return client;
 	}
 
-	private <R> CompletableFuture<R> computeAsync(Function<IProgressMonitor, R> code) {
-		return CompletableFutures.computeAsync(cc -> code.apply(toMonitor(cc)));
+	private <R> CompletableFuture<R> computeAsync(String request, Function<IProgressMonitor, R> code) {
+		return CompletableFutures.computeAsync(cc -> apply(request, code, toMonitor(cc)));
 	}
 
-	private <R> CompletableFuture<R> computeAsyncWithClientProgress(Function<IProgressMonitor, R> code) {
+	private <R> CompletableFuture<R> computeAsyncWithClientProgress(String request, Function<IProgressMonitor, R> code) {
 		return CompletableFutures.computeAsync((cc) -> {
 			IProgressMonitor monitor = progressReporterManager.getProgressReporter(cc);
-			return code.apply(monitor);
+			return apply(request, code, monitor);
 		});
 	}
 
+	private static <R> R apply(String request, Function<IProgressMonitor, R> code, IProgressMonitor monitor) {
+		// attributes the lookups of the type root cache to the request
+		TypeRootCache.setRequest(request);
+		try {
+			return code.apply(monitor);
+		} finally {
+			TypeRootCache.setRequest(null);
+		}
+	}
+
 	private IProgressMonitor toMonitor(CancelChecker checker) {
 		return new CancellableProgressMonitor(checker);
 	}
@@ -22,6 +22,7 @@ import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 
 final public class JsonRpcHelpers {
 
@@ -38,7 +39,7 @@ final public class JsonRpcHelpers {
 	 */
 	public static int toOffset(IBuffer buffer, int line, int column){
 		if (buffer != null) {
-			return toOffset(toDocument(buffer), line, column);
+			return LineTable.get(buffer).toOffset(line, column);
 		}
 		return -1;
 	}
@@ -68,7 +69,7 @@ final public class JsonRpcHelpers {
 	 * @return
 	 */
 	public static int[] toLine(IBuffer buffer, int offset){
-		return toLine(toDocument(buffer), offset);
+		return LineTable.get(buffer).toLine(offset);
 	}
 
 	/**
@@ -113,6 +114,27 @@ final public class JsonRpcHelpers {
 	}
 
 
+	/**
+	 * Returns the modification stamp of the given buffer's document. The
+	 * buffer isn't copied into a new document when it has none.
+	 *
+	 * @param buffer a buffer
+	 * @return the modification stamp, or {@link IDocumentExtension4#UNKNOWN_MODIFICATION_STAMP} if
+	 * the buffer is <code>null</code>, isn't backed by a document or its document doesn't track modifications
+	 */
+	public static long getModificationStamp(IBuffer buffer) {
+		IDocument document = null;
+		if (buffer instanceof IDocument) {
+			document = (IDocument) buffer;
+		} else if (buffer instanceof org.eclipse.jdt.ls.core.internal.DocumentAdapter) {
+			document = ((org.eclipse.jdt.ls.core.internal.DocumentAdapter) buffer).getDocument();
+		}
+		if (document instanceof IDocumentExtension4) {
+			return ((IDocumentExtension4) document).getModificationStamp();
+		}
+		return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+	}
+
 	/**
 	 * Returns an {@link IDocument} for the given {@link IFile}.
 	 *
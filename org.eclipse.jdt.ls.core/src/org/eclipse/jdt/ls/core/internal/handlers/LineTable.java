@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.ls.core.internal.DocumentAdapter;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * The offsets of the lines of a text, to convert offsets to line and column
+ * and back with a binary search. Lines are delimited by <code>\n</code>,
+ * <code>\r\n</code> or <code>\r</code>, like in {@link IDocument}s.
+ * <p>
+ * The tables of buffers and documents are cached as long as they are
+ * referenced, and rebuilt when their modification stamp changes, so that
+ * all the conversions of a unit share the same table. Tables are immutable.
+ * </p>
+ */
+public final class LineTable {
+
+	private static final int MAX_SIZE = 64;
+
+	/**
+	 * The version of the contents which never change, such as the buffers of
+	 * class files.
+	 */
+	private static final long READ_ONLY = Long.MIN_VALUE;
+
+	private static final Cache<Object, VersionedTable> TABLES = CacheBuilder.newBuilder()
+			.weakKeys()
+			.maximumSize(MAX_SIZE)
+			.build();
+
+	private final int[] lineOffsets;
+	private final int length;
+
+	private LineTable(int[] lineOffsets, int length) {
+		this.lineOffsets = lineOffsets;
+		this.length = length;
+	}
+
+	/**
+	 * Builds the line table of the given text.
+	 */
+	public static LineTable of(CharSequence text) {
+		int length = text.length();
+		int[] offsets = new int[16];
+		int lines = 1;
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+				i++;
+			} else if (c != '\r' && c != '\n') {
+				continue;
+			}
+			if (lines == offsets.length) {
+				offsets = Arrays.copyOf(offsets, lines * 2);
+			}
+			offsets[lines++] = i + 1;
+		}
+		return new LineTable(Arrays.copyOf(offsets, lines), length);
+	}
+
+	/**
+	 * Returns the line table of the current contents of the given buffer.
+	 *
+	 * @return the line table, or <code>null</code> if the buffer is
+	 *         <code>null</code>
+	 */
+	public static LineTable get(IBuffer buffer) {
+		if (buffer == null) {
+			return null;
+		}
+		return get(buffer, getVersion(buffer), () -> buffer.getContents());
+	}
+
+	/**
+	 * Returns the line table of the current contents of the given document.
+	 */
+	public static LineTable get(IDocument document) {
+		long version = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+		if (document instanceof IDocumentExtension4) {
+			version = ((IDocumentExtension4) document).getModificationStamp();
+		}
+		return get(document, version, () -> document.get());
+	}
+
+	private static LineTable get(Object key, long version, Supplier<String> contents) {
+		if (version == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+			String text = contents.get();
+			return of(text == null ? "" : text);
+		}
+		VersionedTable table = TABLES.getIfPresent(key);
+		if (table == null || table.version != version) {
+			String text = contents.get();
+			table = new VersionedTable(version, of(text == null ? "" : text));
+			TABLES.put(key, table);
+		}
+		return table.lines;
+	}
+
+	/**
+	 * Returns the version of the contents of a buffer: the modification stamp
+	 * of its document if it has one. Otherwise class file buffers never
+	 * change, and the buffers of units without unsaved changes have the
+	 * contents of their resource.
+	 */
+	private static long getVersion(IBuffer buffer) {
+		IDocument document = null;
+		if (buffer instanceof IDocument) {
+			document = (IDocument) buffer;
+		} else if (buffer instanceof DocumentAdapter) {
+			document = ((DocumentAdapter) buffer).getDocument();
+		}
+		if (document instanceof IDocumentExtension4) {
+			return ((IDocumentExtension4) document).getModificationStamp();
+		}
+		if (buffer.isReadOnly()) {
+			return READ_ONLY;
+		}
+		if (!buffer.hasUnsavedChanges() && buffer.getOwner() != null) {
+			IResource resource = buffer.getUnderlyingResource();
+			if (resource != null && resource.getModificationStamp() != IResource.NULL_STAMP) {
+				return resource.getModificationStamp();
+			}
+		}
+		return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+	}
+
+	public int getNumberOfLines() {
+		return lineOffsets.length;
+	}
+
+	/**
+	 * @return the line of the offset, or <code>-1</code> if the offset is out
+	 *         of the text
+	 */
+	public int getLineOfOffset(int offset) {
+		return getLineOfOffset(offset, 0);
+	}
+
+	private int getLineOfOffset(int offset, int fromLine) {
+		if (offset < 0 || offset > length) {
+			return -1;
+		}
+		int index = Arrays.binarySearch(lineOffsets, fromLine, lineOffsets.length, offset);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	/**
+	 * @return the offset of the line, or <code>-1</code> if there is no such
+	 *         line
+	 */
+	public int getLineOffset(int line) {
+		if (line < 0 || line > lineOffsets.length) {
+			return -1;
+		}
+		return line == lineOffsets.length ? length : lineOffsets[line];
+	}
+
+	/**
+	 * Converts the offset to line number and column.
+	 *
+	 * @return the line and column, or <code>null</code> if the offset is out
+	 *         of the text
+	 */
+	public int[] toLine(int offset) {
+		int line = getLineOfOffset(offset);
+		if (line < 0) {
+			return null;
+		}
+		return new int[] { line, offset - lineOffsets[line] };
+	}
+
+	/**
+	 * Converts the line and column to an offset.
+	 *
+	 * @return the offset, or <code>-1</code> if there is no such line
+	 */
+	public int toOffset(int line, int column) {
+		int offset = getLineOffset(line);
+		return offset < 0 ? -1 : offset + column;
+	}
+
+	/**
+	 * Converts the given offsets at once. Increasing offsets are looked up
+	 * from the line of the previous one.
+	 *
+	 * @return the line and column of each offset, in pairs, <code>-1</code>
+	 *         for the offsets out of the text
+	 */
+	public int[] toLines(int[] offsets) {
+		int[] result = new int[offsets.length * 2];
+		int previousOffset = 0;
+		int previousLine = 0;
+		for (int i = 0; i < offsets.length; i++) {
+			int offset = offsets[i];
+			int line = getLineOfOffset(offset, offset >= previousOffset ? previousLine : 0);
+			if (line < 0) {
+				result[2 * i] = -1;
+				result[2 * i + 1] = -1;
+				continue;
+			}
+			result[2 * i] = line;
+			result[2 * i + 1] = offset - lineOffsets[line];
+			previousOffset = offset;
+			previousLine = line;
+		}
+		return result;
+	}
+
+	/**
+	 * Same as {@link JDTUtils#toRange(org.eclipse.jdt.core.IOpenable, int, int)}:
+	 * the ends out of the text are set to line 0, column 0.
+	 */
+	public Range toRange(int offset, int length) {
+		Range range = JDTUtils.newRange();
+		if (offset > 0 || length > 0) {
+			setPosition(range.getStart(), offset);
+			setPosition(range.getEnd(), offset + length);
+		}
+		return range;
+	}
+
+	private void setPosition(Position position, int offset) {
+		int line = getLineOfOffset(offset);
+		if (line >= 0) {
+			position.setLine(line);
+			position.setCharacter(offset - lineOffsets[line]);
+		}
+	}
+
+	private static final class VersionedTable {
+		private final long version;
+		private final LineTable lines;
+
+		VersionedTable(long version, LineTable lines) {
+			this.version = version;
+			this.lines = lines;
+		}
+	}
+}
@@ -0,0 +1,666 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.IClasspathContainer;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ConstructorInvocation;
+import org.eclipse.jdt.core.dom.EnumConstantDeclaration;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.MethodRef;
+import org.eclipse.jdt.core.dom.MethodReference;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.NameQualifiedType;
+import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jdt.core.dom.QualifiedType;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SimpleType;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.SuperConstructorInvocation;
+import org.eclipse.jdt.core.dom.SuperMethodInvocation;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.MethodReferenceMatch;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchParticipant;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.SearchRequestor;
+import org.eclipse.jdt.core.search.TypeReferenceMatch;
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.ResourceUtils;
+import org.eclipse.lsp4j.Location;
+
+/**
+ * Searches the references to a Java element in parallel: the source folders
+ * of each project, and the libraries by groups, are searched as separate
+ * partitions on a pool of workers. The matches of each unit are converted to
+ * locations at once, with the shared {@link LineTable} of its buffer.
+ */
+public final class ReferenceSearchEngine {
+
+	/**
+	 * Maximum number of libraries searched in a single partition.
+	 */
+	private static final int MAX_LIBRARIES_PER_PARTITION = 16;
+
+	/**
+	 * Interval at which the cancellation is checked while waiting for the
+	 * partitions.
+	 */
+	private static final long POLL_INTERVAL_MS = 50;
+
+	private static ExecutorService searchExecutor;
+
+	private final boolean includeClassFiles;
+
+	/**
+	 * @param includeClassFiles
+	 *            whether to search the application libraries, and return the
+	 *            matches in class files with attached sources
+	 */
+	public ReferenceSearchEngine(boolean includeClassFiles) {
+		this.includeClassFiles = includeClassFiles;
+	}
+
+	/**
+	 * Returns the locations of the references to the given element, in the
+	 * order of the partitions.
+	 *
+	 * @throws OperationCanceledException
+	 *             if the monitor is canceled
+	 */
+	public List<Location> search(IJavaElement element, IProgressMonitor monitor) throws CoreException {
+		List<Location> locations = search(getPartitions(), () -> createPattern(element), getResolver(element), monitor).get(element);
+		return locations == null ? new ArrayList<>() : locations;
+	}
+
+	/**
+	 * Returns the locations of the references to each of the given elements.
+	 * The types and methods are searched at once, with a single pattern, each
+	 * match being attributed to an element by the binding it refers to. The
+	 * elements a match can't be attributed to this way, and the other
+	 * elements, are searched one by one.
+	 *
+	 * @return the locations of the references, by element
+	 * @throws OperationCanceledException
+	 *             if the monitor is canceled
+	 */
+	public Map<IJavaElement, List<Location>> search(Collection<? extends IJavaElement> elements, IProgressMonitor monitor) throws CoreException {
+		Set<IJavaElement> batch = new HashSet<>();
+		Set<IJavaElement> others = new HashSet<>();
+		for (IJavaElement element : elements) {
+			if (element instanceof IType || element instanceof IMethod) {
+				batch.add(element);
+			} else {
+				others.add(element);
+			}
+		}
+		Map<IJavaElement, List<Location>> result = new LinkedHashMap<>();
+		List<List<IJavaElement>> partitions = getPartitions();
+		if (batch.size() > 1) {
+			BatchResolver resolver = new BatchResolver(batch);
+			result.putAll(search(partitions, () -> createPattern(batch), resolver, monitor));
+			others.addAll(resolver.ambiguous);
+		} else {
+			others.addAll(batch);
+		}
+		for (IJavaElement element : elements) {
+			if (others.contains(element)) {
+				List<Location> locations = search(partitions, () -> createPattern(element), getResolver(element), monitor).get(element);
+				result.put(element, locations == null ? Collections.emptyList() : locations);
+			} else {
+				result.putIfAbsent(element, Collections.emptyList());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Searches the references to the given element, passing the locations of
+	 * each partition to the consumer as soon as it has been searched, on the
+	 * calling thread.
+	 *
+	 * @throws OperationCanceledException
+	 *             if the monitor is canceled
+	 */
+	public void search(IJavaElement element, Consumer<List<Location>> consumer, IProgressMonitor monitor) throws CoreException {
+		search(getPartitions(), () -> createPattern(element), getResolver(element), (index, references) -> {
+			List<Location> locations = references.get(element);
+			consumer.accept(locations == null ? Collections.emptyList() : locations);
+		}, monitor);
+	}
+
+	/**
+	 * Attributes the matches of a unit to the elements they refer to.
+	 */
+	private interface MatchResolver {
+		/**
+		 * @param astRoot
+		 *            the AST of the unit, with bindings, if {@link #needsAST()}
+		 *            and the unit has a source; <code>null</code> otherwise
+		 */
+		void resolve(List<SearchMatch> matches, CompilationUnit astRoot, IBuffer buffer, ReferenceConsumer consumer);
+
+		default boolean needsAST() {
+			return false;
+		}
+	}
+
+	private interface ReferenceConsumer {
+		void accept(IJavaElement element, int offset, int length);
+	}
+
+	private interface PartitionConsumer {
+		void accept(int index, Map<IJavaElement, List<Location>> references);
+	}
+
+	/**
+	 * @return the locations of the references, by element, in the order of the
+	 *         partitions
+	 */
+	private Map<IJavaElement, List<Location>> search(List<List<IJavaElement>> partitions, Supplier<SearchPattern> patterns, MatchResolver resolver, IProgressMonitor monitor) throws CoreException {
+		List<Map<IJavaElement, List<Location>>> results = new ArrayList<>(Collections.nCopies(partitions.size(), null));
+		search(partitions, patterns, resolver, (index, references) -> results.set(index, references), monitor);
+		Map<IJavaElement, List<Location>> references = new LinkedHashMap<>();
+		for (Map<IJavaElement, List<Location>> result : results) {
+			result.forEach((element, locations) -> references.computeIfAbsent(element, e -> new ArrayList<>()).addAll(locations));
+		}
+		return references;
+	}
+
+	private void search(List<List<IJavaElement>> partitions, Supplier<SearchPattern> patterns, MatchResolver resolver, PartitionConsumer consumer, IProgressMonitor monitor) throws CoreException {
+		if (partitions.isEmpty()) {
+			return;
+		}
+		// the workers only share the cancellation of the monitor, not its progress
+		IProgressMonitor partitionMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return monitor.isCanceled();
+			}
+		};
+		CompletionService<Map<IJavaElement, List<Location>>> completionService = new ExecutorCompletionService<>(getSearchExecutor());
+		Map<Future<Map<IJavaElement, List<Location>>>, Integer> indexes = new LinkedHashMap<>();
+		for (int i = 0; i < partitions.size(); i++) {
+			List<IJavaElement> partition = partitions.get(i);
+			indexes.put(completionService.submit(() -> search(partition, patterns, resolver, partitionMonitor)), i);
+		}
+		try {
+			int remaining = partitions.size();
+			while (remaining > 0) {
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				Future<Map<IJavaElement, List<Location>>> future = completionService.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+				if (future != null) {
+					remaining--;
+					consumer.accept(indexes.get(future), future.get());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new RuntimeException(cause);
+		} finally {
+			for (Future<Map<IJavaElement, List<Location>>> future : indexes.keySet()) {
+				future.cancel(false);
+			}
+		}
+	}
+
+	private Map<IJavaElement, List<Location>> search(List<IJavaElement> partition, Supplier<SearchPattern> patterns, MatchResolver resolver, IProgressMonitor monitor) throws CoreException {
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+		// patterns aren't meant to be shared by concurrent searches
+		SearchPattern pattern = patterns.get();
+		if (pattern == null) {
+			return Collections.emptyMap();
+		}
+		Map<ITypeRoot, List<SearchMatch>> matches = new LinkedHashMap<>();
+		SearchEngine engine = new SearchEngine();
+		engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, SearchEngine.createJavaSearchScope(partition.toArray(new IJavaElement[partition.size()])), new SearchRequestor() {
+
+			@Override
+			public void acceptSearchMatch(SearchMatch match) throws CoreException {
+				Object o = match.getElement();
+				if (o instanceof IJavaElement) {
+					IJavaElement element = (IJavaElement) o;
+					ITypeRoot typeRoot = (ITypeRoot) element.getAncestor(IJavaElement.COMPILATION_UNIT);
+					if (typeRoot == null && includeClassFiles) {
+						typeRoot = (ITypeRoot) element.getAncestor(IJavaElement.CLASS_FILE);
+					}
+					if (typeRoot != null) {
+						matches.computeIfAbsent(typeRoot, t -> new ArrayList<>()).add(match);
+					}
+				}
+			}
+		}, monitor);
+		Map<IJavaElement, List<Location>> references = new LinkedHashMap<>();
+		if (resolver.needsAST()) {
+			toLocations(matches, resolver, references, monitor);
+		} else {
+			for (Map.Entry<ITypeRoot, List<SearchMatch>> entry : matches.entrySet()) {
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				toLocations(entry.getKey(), entry.getValue(), null, resolver, references);
+			}
+		}
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+		return references;
+	}
+
+	/**
+	 * Converts the matches of each unit with the AST of the unit. The ASTs of
+	 * the compilation units of a project are created together, and aren't
+	 * kept once their matches are converted.
+	 */
+	private static void toLocations(Map<ITypeRoot, List<SearchMatch>> matches, MatchResolver resolver, Map<IJavaElement, List<Location>> references, IProgressMonitor monitor) throws JavaModelException {
+		Map<IJavaProject, List<ICompilationUnit>> units = new LinkedHashMap<>();
+		for (Map.Entry<ITypeRoot, List<SearchMatch>> entry : matches.entrySet()) {
+			ITypeRoot typeRoot = entry.getKey();
+			if (typeRoot instanceof ICompilationUnit) {
+				units.computeIfAbsent(typeRoot.getJavaProject(), p -> new ArrayList<>()).add((ICompilationUnit) typeRoot);
+			} else {
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				CompilationUnit astRoot = null;
+				if (typeRoot.getBuffer() != null) {
+					ASTParser parser = createParser();
+					parser.setSource(typeRoot);
+					astRoot = (CompilationUnit) parser.createAST(monitor);
+				}
+				toLocations(typeRoot, entry.getValue(), astRoot, resolver, references);
+			}
+		}
+		for (Map.Entry<IJavaProject, List<ICompilationUnit>> entry : units.entrySet()) {
+			List<ICompilationUnit> sources = entry.getValue();
+			ASTParser parser = createParser();
+			parser.setProject(entry.getKey());
+			parser.createASTs(sources.toArray(new ICompilationUnit[sources.size()]), new String[0], new ASTRequestor() {
+
+				@Override
+				public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+					try {
+						toLocations(source, matches.get(source), ast, resolver, references);
+					} catch (JavaModelException e) {
+						JavaLanguageServerPlugin.logException(e.getMessage(), e);
+					}
+				}
+			}, monitor);
+		}
+	}
+
+	private static ASTParser createParser() {
+		ASTParser parser = ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+		parser.setResolveBindings(true);
+		parser.setBindingsRecovery(true);
+		parser.setStatementsRecovery(true);
+		return parser;
+	}
+
+	private static void toLocations(ITypeRoot typeRoot, List<SearchMatch> matches, CompilationUnit astRoot, MatchResolver resolver, Map<IJavaElement, List<Location>> references) throws JavaModelException {
+		String uri;
+		if (typeRoot instanceof ICompilationUnit) {
+			uri = ResourceUtils.toClientUri(JDTUtils.toURI((ICompilationUnit) typeRoot));
+		} else {
+			IClassFile classFile = (IClassFile) typeRoot;
+			uri = classFile.getSourceRange() == null ? null : JDTUtils.toUri(classFile);
+		}
+		if (uri == null) {
+			return;
+		}
+		IBuffer buffer = typeRoot.getBuffer();
+		LineTable lines = buffer == null ? LineTable.of("") : LineTable.get(buffer);
+		resolver.resolve(matches, astRoot, buffer, (element, offset, length) -> {
+			references.computeIfAbsent(element, e -> new ArrayList<>()).add(new Location(uri, lines.toRange(offset, length)));
+		});
+	}
+
+	/**
+	 * @return the resolver attributing all the matches to the given element
+	 */
+	private static MatchResolver getResolver(IJavaElement element) {
+		return (matches, astRoot, buffer, consumer) -> {
+			for (SearchMatch match : matches) {
+				consumer.accept(element, match.getOffset(), match.getLength());
+			}
+		};
+	}
+
+	private static SearchPattern createPattern(IJavaElement element) {
+		return SearchPattern.createPattern(element, IJavaSearchConstants.REFERENCES);
+	}
+
+	private static SearchPattern createPattern(Collection<IJavaElement> elements) {
+		SearchPattern pattern = null;
+		for (IJavaElement element : elements) {
+			SearchPattern elementPattern = createPattern(element);
+			if (elementPattern != null) {
+				pattern = pattern == null ? elementPattern : SearchPattern.createOrPattern(pattern, elementPattern);
+			}
+		}
+		return pattern;
+	}
+
+	/**
+	 * Attributes the matches of an or-pattern to the types and methods of the
+	 * batch, with the bindings of the AST of the unit. The elements a match
+	 * can't be attributed to unambiguously are collected, to be searched on
+	 * their own.
+	 */
+	private static final class BatchResolver implements MatchResolver {
+
+		private final Set<IJavaElement> elements;
+		private final Set<IJavaElement> ambiguous = ConcurrentHashMap.newKeySet();
+
+		BatchResolver(Set<IJavaElement> elements) {
+			this.elements = elements;
+		}
+
+		@Override
+		public boolean needsAST() {
+			return true;
+		}
+
+		@Override
+		public void resolve(List<SearchMatch> matches, CompilationUnit astRoot, IBuffer buffer, ReferenceConsumer consumer) {
+			// a qualified name may be reported by several matches
+			Map<IJavaElement, Set<Integer>> reported = new HashMap<>();
+			ReferenceConsumer unique = (element, offset, length) -> {
+				if (reported.computeIfAbsent(element, e -> new HashSet<>()).add(offset)) {
+					consumer.accept(element, offset, length);
+				}
+			};
+			for (SearchMatch match : matches) {
+				ASTNode node = astRoot == null ? null : NodeFinder.perform(astRoot, match.getOffset(), match.getLength());
+				if (node != null && match instanceof TypeReferenceMatch) {
+					if (resolveTypeReferences(node, unique)) {
+						continue;
+					}
+				} else if (node != null && match instanceof MethodReferenceMatch) {
+					IMethodBinding binding = getMethodBinding(node);
+					IJavaElement element = binding == null ? null : binding.getMethodDeclaration().getJavaElement();
+					if (element != null && elements.contains(element)) {
+						unique.accept(element, match.getOffset(), match.getLength());
+						continue;
+					}
+				}
+				resolveByName(match, buffer, unique);
+			}
+		}
+
+		/**
+		 * Attributes the references to the types of the qualified name
+		 * enclosing the given node. An or-pattern only reports one match per
+		 * node, such as <code>Inner</code> for <code>Outer.Inner</code>, while
+		 * the search of <code>Outer</code> alone reports it as well.
+		 *
+		 * @return whether a reference was attributed
+		 */
+		private boolean resolveTypeReferences(ASTNode node, ReferenceConsumer consumer) {
+			if (!isTypeName(node)) {
+				return false;
+			}
+			ASTNode root = node;
+			while (isTypeName(root.getParent())) {
+				root = root.getParent();
+			}
+			int start = root.getStartPosition();
+			boolean[] resolved = new boolean[1];
+			root.accept(new ASTVisitor(true) {
+				@Override
+				public boolean visit(SimpleName name) {
+					IBinding binding = name.resolveBinding();
+					if (binding instanceof ITypeBinding) {
+						IJavaElement element = ((ITypeBinding) binding).getTypeDeclaration().getJavaElement();
+						if (element != null && elements.contains(element)) {
+							consumer.accept(element, start, name.getStartPosition() + name.getLength() - start);
+							resolved[0] = true;
+						}
+					}
+					return false;
+				}
+			});
+			return resolved[0];
+		}
+
+		/**
+		 * Attributes a match without binding by the names found in its
+		 * source, when a single element of the batch has one of them.
+		 * Otherwise, the candidates are searched on their own.
+		 */
+		private void resolveByName(SearchMatch match, IBuffer buffer, ReferenceConsumer consumer) {
+			List<IJavaElement> candidates = new ArrayList<>();
+			List<IJavaElement> others = new ArrayList<>();
+			Set<String> names = new HashSet<>();
+			if (buffer != null && match.getOffset() >= 0 && match.getOffset() + match.getLength() <= buffer.getLength()) {
+				names.addAll(getNames(buffer.getText(match.getOffset(), match.getLength())));
+			}
+			for (IJavaElement element : elements) {
+				boolean sameKind = match instanceof TypeReferenceMatch ? element instanceof IType : !(match instanceof MethodReferenceMatch) || element instanceof IMethod;
+				if (sameKind) {
+					(names.contains(element.getElementName()) ? candidates : others).add(element);
+				}
+			}
+			if (candidates.size() == 1) {
+				consumer.accept(candidates.get(0), match.getOffset(), match.getLength());
+			} else {
+				ambiguous.addAll(candidates.isEmpty() ? others : candidates);
+			}
+		}
+	}
+
+	private static boolean isTypeName(ASTNode node) {
+		return node instanceof Name || node instanceof SimpleType || node instanceof QualifiedType || node instanceof NameQualifiedType;
+	}
+
+	/**
+	 * Returns the method or constructor invoked by the given node, or by the
+	 * closest enclosing invocation within its statement.
+	 */
+	private static IMethodBinding getMethodBinding(ASTNode node) {
+		for (ASTNode current = node; current != null; current = current.getParent()) {
+			if (current instanceof SimpleName) {
+				SimpleName name = (SimpleName) current;
+				IBinding binding = name.isDeclaration() ? null : name.resolveBinding();
+				if (binding instanceof IMethodBinding) {
+					return (IMethodBinding) binding;
+				}
+			} else if (current instanceof MethodInvocation) {
+				return ((MethodInvocation) current).resolveMethodBinding();
+			} else if (current instanceof SuperMethodInvocation) {
+				return ((SuperMethodInvocation) current).resolveMethodBinding();
+			} else if (current instanceof ClassInstanceCreation) {
+				return ((ClassInstanceCreation) current).resolveConstructorBinding();
+			} else if (current instanceof ConstructorInvocation) {
+				return ((ConstructorInvocation) current).resolveConstructorBinding();
+			} else if (current instanceof SuperConstructorInvocation) {
+				return ((SuperConstructorInvocation) current).resolveConstructorBinding();
+			} else if (current instanceof EnumConstantDeclaration) {
+				return ((EnumConstantDeclaration) current).resolveConstructorBinding();
+			} else if (current instanceof MethodReference) {
+				return ((MethodReference) current).resolveMethodBinding();
+			} else if (current instanceof MethodRef) {
+				IBinding binding = ((MethodRef) current).resolveBinding();
+				return binding instanceof IMethodBinding ? (IMethodBinding) binding : null;
+			} else if (current instanceof MethodDeclaration) {
+				// the implicit invocation of the super constructor
+				IMethodBinding binding = ((MethodDeclaration) current).resolveBinding();
+				return binding == null || !binding.isConstructor() ? null : getDefaultConstructor(binding.getDeclaringClass().getSuperclass());
+			} else if (current instanceof AbstractTypeDeclaration) {
+				// the implicit invocation of the super constructor, by the default constructor
+				ITypeBinding binding = ((AbstractTypeDeclaration) current).resolveBinding();
+				return binding == null ? null : getDefaultConstructor(binding.getSuperclass());
+			} else if (current instanceof Statement || current instanceof BodyDeclaration) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private static IMethodBinding getDefaultConstructor(ITypeBinding type) {
+		if (type != null) {
+			for (IMethodBinding method : type.getDeclaredMethods()) {
+				if (method.isConstructor() && method.getParameterTypes().length == 0) {
+					return method;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the identifiers found in the given source, in order
+	 */
+	private static List<String> getNames(String source) {
+		List<String> names = new ArrayList<>();
+		int start = -1;
+		for (int i = 0; i <= source.length(); i++) {
+			boolean part = i < source.length() && (start < 0 ? Character.isJavaIdentifierStart(source.charAt(i)) : Character.isJavaIdentifierPart(source.charAt(i)));
+			if (part && start < 0) {
+				start = i;
+			} else if (!part && start >= 0) {
+				names.add(source.substring(start, i));
+				start = -1;
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Splits the search scope: the source folders of each project, then the
+	 * libraries, by groups of {@link #MAX_LIBRARIES_PER_PARTITION}. A library
+	 * shared by several projects is only searched once.
+	 */
+	private List<List<IJavaElement>> getPartitions() throws JavaModelException {
+		IJavaProject[] projects = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects();
+		List<List<IJavaElement>> partitions = new ArrayList<>();
+		Map<IPath, IPackageFragmentRoot> libraries = new LinkedHashMap<>();
+		for (IJavaProject project : projects) {
+			List<IJavaElement> sources = new ArrayList<>();
+			for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+				if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
+					sources.add(root);
+				} else if (includeClassFiles && !libraries.containsKey(root.getPath()) && !isSystemLibrary(root)) {
+					libraries.put(root.getPath(), root);
+				}
+			}
+			if (!sources.isEmpty()) {
+				partitions.add(sources);
+			}
+		}
+		List<IJavaElement> partition = new ArrayList<>();
+		for (IPackageFragmentRoot library : libraries.values()) {
+			partition.add(library);
+			if (partition.size() == MAX_LIBRARIES_PER_PARTITION) {
+				partitions.add(partition);
+				partition = new ArrayList<>();
+			}
+		}
+		if (!partition.isEmpty()) {
+			partitions.add(partition);
+		}
+		return partitions;
+	}
+
+	/**
+	 * Whether the given library belongs to a system container, such as the
+	 * JRE, which isn't part of the application libraries.
+	 */
+	private static boolean isSystemLibrary(IPackageFragmentRoot root) throws JavaModelException {
+		IClasspathEntry entry = root.getRawClasspathEntry();
+		if (entry != null && entry.getEntryKind() == IClasspathEntry.CPE_CONTAINER) {
+			IClasspathContainer container = JavaCore.getClasspathContainer(entry.getPath(), root.getJavaProject());
+			return container != null && container.getKind() != IClasspathContainer.K_APPLICATION;
+		}
+		return false;
+	}
+
+	private static synchronized ExecutorService getSearchExecutor() {
+		if (searchExecutor == null) {
+			int workers = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+			AtomicInteger count = new AtomicInteger();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				Thread thread = new Thread(runnable, "Reference search worker " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			executor.allowCoreThreadTimeOut(true);
+			searchExecutor = executor;
+		}
+		return searchExecutor;
+	}
+}
@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.ResourceUtils;
+import org.eclipse.lsp4j.Location;
+
+/**
+ * Cache of the references shown by the code lenses, keyed by the handle
+ * identifier of the referenced element.
+ * <p>
+ * When a compilation unit changes, the entries of the elements it declares or
+ * references are dropped. The unit may also reference other elements now: it
+ * is recorded as changed, and an entry is dropped when it is next read if the
+ * name of its element appears in a unit changed since the entry was cached.
+ * All entries are dropped when units are added or removed, or when the
+ * classpath changes.
+ * </p>
+ */
+public class ReferencesCache implements IElementChangedListener {
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * The generation at which each unit last changed, by handle identifier.
+	 */
+	private final Map<String, ChangedUnit> changedUnits = new ConcurrentHashMap<>();
+
+	/**
+	 * Incremented whenever entries are dropped, so that references searched
+	 * concurrently aren't cached after the change.
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * @return the cached references to the given element, or <code>null</code>
+	 */
+	public List<Location> get(IJavaElement element) {
+		String handleIdentifier = element.getHandleIdentifier();
+		Entry entry = entries.get(handleIdentifier);
+		if (entry == null) {
+			return null;
+		}
+		long current = generation.get();
+		if (entry.checked < current) {
+			for (ChangedUnit changed : changedUnits.values()) {
+				if (changed.generation > entry.checked && mayReference(changed.unit, entry.name)) {
+					entries.remove(handleIdentifier, entry);
+					return null;
+				}
+			}
+			entry.checked = current;
+		}
+		return entry.locations;
+	}
+
+	/**
+	 * Tells whether the source of the given unit contains the name as an
+	 * identifier.
+	 */
+	private static boolean mayReference(ICompilationUnit unit, String name) {
+		String source;
+		try {
+			source = unit.getSource();
+		} catch (JavaModelException e) {
+			return true;
+		}
+		if (source == null) {
+			return false;
+		}
+		for (int index = source.indexOf(name); index >= 0; index = source.indexOf(name, index + 1)) {
+			int end = index + name.length();
+			if ((index == 0 || !Character.isJavaIdentifierPart(source.charAt(index - 1))) && (end == source.length() || !Character.isJavaIdentifierPart(source.charAt(end)))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the generation to pass to {@link #put(Map, long)}, to be read
+	 * before searching the references.
+	 */
+	public long getGeneration() {
+		return generation.get();
+	}
+
+	/**
+	 * Caches the references searched since the given generation, unless
+	 * entries were dropped since.
+	 */
+	public void put(Map<IJavaElement, List<Location>> references, long searchGeneration) {
+		references.forEach((element, locations) -> {
+			ICompilationUnit unit = (ICompilationUnit) element.getAncestor(IJavaElement.COMPILATION_UNIT);
+			Set<String> uris = new HashSet<>();
+			for (Location location : locations) {
+				uris.add(location.getUri());
+			}
+			entries.put(element.getHandleIdentifier(), new Entry(element.getElementName(), unit == null ? null : unit.getPrimary().getHandleIdentifier(), uris, locations, searchGeneration));
+		});
+		if (generation.get() != searchGeneration) {
+			for (IJavaElement element : references.keySet()) {
+				entries.remove(element.getHandleIdentifier());
+			}
+		}
+	}
+
+	public void clear() {
+		generation.incrementAndGet();
+		entries.clear();
+		changedUnits.clear();
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		if (!entries.isEmpty()) {
+			processDelta(event.getDelta());
+		}
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				break;
+			case IJavaElement.JAVA_PROJECT:
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH
+						| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED)) != 0) {
+					clear();
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED) {
+					clear();
+				} else if ((delta.getFlags() & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_FINE_GRAINED | IJavaElementDelta.F_CHILDREN)) != 0) {
+					invalidate((ICompilationUnit) element);
+				}
+				return;
+			default:
+				return;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			processDelta(child);
+		}
+	}
+
+	private void invalidate(ICompilationUnit unit) {
+		ICompilationUnit primary = unit.getPrimary();
+		String handleIdentifier = primary.getHandleIdentifier();
+		String uri = ResourceUtils.toClientUri(JDTUtils.toURI(unit));
+		long changed = generation.incrementAndGet();
+		changedUnits.put(handleIdentifier, new ChangedUnit(primary, changed));
+		for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext();) {
+			Entry entry = iterator.next();
+			if (handleIdentifier.equals(entry.declaringUnit) || entry.uris.contains(uri)) {
+				iterator.remove();
+			}
+		}
+		if (entries.isEmpty()) {
+			changedUnits.clear();
+		}
+	}
+
+	private static final class Entry {
+		private final String name;
+		private final String declaringUnit;
+		private final Set<String> uris;
+		private final List<Location> locations;
+		/**
+		 * The generation up to which the changed units were checked.
+		 */
+		private volatile long checked;
+
+		Entry(String name, String declaringUnit, Set<String> uris, List<Location> locations, long checked) {
+			this.name = name;
+			this.declaringUnit = declaringUnit;
+			this.uris = uris;
+			this.locations = locations;
+			this.checked = checked;
+		}
+	}
+
+	private static final class ChangedUnit {
+		private final ICompilationUnit unit;
+		private final long generation;
+
+		ChangedUnit(ICompilationUnit unit, long generation) {
+			this.unit = unit;
+			this.generation = generation;
+		}
+	}
+}
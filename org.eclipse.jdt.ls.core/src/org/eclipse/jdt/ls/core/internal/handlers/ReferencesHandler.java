@@ -13,22 +13,9 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.jdt.core.IClassFile;
-import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
-import org.eclipse.jdt.core.IJavaProject;
-import org.eclipse.jdt.core.JavaCore;
-import org.eclipse.jdt.core.JavaModelException;
-import org.eclipse.jdt.core.search.IJavaSearchConstants;
-import org.eclipse.jdt.core.search.IJavaSearchScope;
-import org.eclipse.jdt.core.search.SearchEngine;
-import org.eclipse.jdt.core.search.SearchMatch;
-import org.eclipse.jdt.core.search.SearchParticipant;
-import org.eclipse.jdt.core.search.SearchPattern;
-import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
@@ -43,18 +30,9 @@ public final class ReferencesHandler {
 		this.preferenceManager = preferenceManager;
 	}
 
-	private IJavaSearchScope createSearchScope() throws JavaModelException {
-		IJavaProject[] projects = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects();
-		int scope = IJavaSearchScope.SOURCES;
-		if (preferenceManager.isClientSupportsClassFileContent()) {
-			scope |= IJavaSearchScope.APPLICATION_LIBRARIES;
-		}
-		return SearchEngine.createJavaSearchScope(projects, scope);
-	}
-
 	public List<Location> findReferences(ReferenceParams param, IProgressMonitor monitor) {
 
-		final List<Location> locations = new ArrayList<>();
+		List<Location> locations = new ArrayList<>();
 		try {
 			IJavaElement elementToSearch = JDTUtils.findElementAtSelection(JDTUtils.resolveTypeRoot(param.getTextDocument().getUri()), param.getPosition().getLine(), param.getPosition().getCharacter(), this.preferenceManager, monitor);
 
@@ -63,32 +41,7 @@ public final class ReferencesHandler {
 			}
 
 			boolean includeClassFiles = preferenceManager.isClientSupportsClassFileContent();
-			SearchEngine engine = new SearchEngine();
-			SearchPattern pattern = SearchPattern.createPattern(elementToSearch, IJavaSearchConstants.REFERENCES);
-
-			engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, createSearchScope(), new SearchRequestor() {
-
-				@Override
-				public void acceptSearchMatch(SearchMatch match) throws CoreException {
-					Object o = match.getElement();
-					if (o instanceof IJavaElement) {
-						IJavaElement element = (IJavaElement) o;
-						ICompilationUnit compilationUnit = (ICompilationUnit) element.getAncestor(IJavaElement.COMPILATION_UNIT);
-						Location location = null;
-						if (compilationUnit != null) {
-							location = JDTUtils.toLocation(compilationUnit, match.getOffset(), match.getLength());
-						} else if (includeClassFiles) {
-							IClassFile cf = (IClassFile) element.getAncestor(IJavaElement.CLASS_FILE);
-							if (cf != null && cf.getSourceRange() != null) {
-								location = JDTUtils.toLocation(cf, match.getOffset(), match.getLength());
-							}
-						}
-						if (location != null) {
-							locations.add(location);
-						}
-					}
-				}
-			}, monitor);
+			locations = new ReferenceSearchEngine(includeClassFiles).search(elementToSearch, monitor);
 
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Find references failure ", e);
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Computes how long to wait after a change before validating a document, from
+ * the measured cost of the previous validations. Small documents get their
+ * diagnostics quickly, while large ones back off so validations don't pile up
+ * during fast typing.
+ */
+public class ValidationDelayCalculator {
+
+	/**
+	 * Weight of the latest measure in the moving averages.
+	 */
+	private static final double SMOOTHING = 0.3;
+
+	/**
+	 * Ratio between the delay and the expected validation cost.
+	 */
+	private static final int COST_FACTOR = 2;
+
+	private final Map<ICompilationUnit, Double> unitCosts = new ConcurrentHashMap<>();
+	private double costPerChar = -1;
+
+	/**
+	 * Records the time it took to validate a unit.
+	 *
+	 * @param unit
+	 *            the validated unit
+	 * @param elapsed
+	 *            the validation duration, in milliseconds
+	 * @param length
+	 *            the length of the unit's contents
+	 */
+	public void record(ICompilationUnit unit, long elapsed, int length) {
+		unitCosts.merge(unit, (double) elapsed, (previous, latest) -> smooth(previous, latest));
+		if (length > 0) {
+			synchronized (this) {
+				double latest = (double) elapsed / length;
+				costPerChar = costPerChar < 0 ? latest : smooth(costPerChar, latest);
+			}
+		}
+	}
+
+	/**
+	 * Returns the delay before validating the given unit, in milliseconds.
+	 * Units which were never validated are estimated from their size.
+	 */
+	public long getDelay(ICompilationUnit unit, long minDelay, long maxDelay) {
+		Double cost = unitCosts.get(unit);
+		if (cost == null) {
+			cost = estimateCost(unit);
+		}
+		long delay = Math.round(cost * COST_FACTOR);
+		return Math.max(minDelay, Math.min(maxDelay, delay));
+	}
+
+	/**
+	 * Forgets the measures of the given unit, typically when its working copy
+	 * is discarded.
+	 */
+	public void forget(ICompilationUnit unit) {
+		unitCosts.remove(unit);
+	}
+
+	private double estimateCost(ICompilationUnit unit) {
+		double perChar;
+		synchronized (this) {
+			perChar = costPerChar;
+		}
+		if (perChar < 0) {
+			return 0;
+		}
+		try {
+			IBuffer buffer = unit.getBuffer();
+			return buffer == null ? 0 : perChar * buffer.getLength();
+		} catch (JavaModelException e) {
+			return 0;
+		}
+	}
+
+	private static double smooth(double previous, double latest) {
+		return SMOOTHING * latest + (1 - SMOOTHING) * previous;
+	}
+
+}
@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeParameter;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+
+/**
+ * Computes which open working copies need to be validated after a set of
+ * compilation units was reconciled.
+ * <p>
+ * The structural signature (types and member declarations) of every reconciled
+ * unit is remembered. When a unit is reconciled again, its new signature is
+ * compared with the previous one:
+ * <ul>
+ * <li>if only method bodies or private declarations changed, no other unit can
+ * be affected, so only the changed unit is validated;</li>
+ * <li>if package-private declarations changed, the open units of the same
+ * package are validated as well;</li>
+ * <li>if public or protected declarations changed (or the unit was never seen
+ * before), every open working copy is validated.</li>
+ * </ul>
+ */
+public class ValidationDependencyTracker {
+
+	/**
+	 * How far a change to a compilation unit, or to one of its members, is
+	 * visible, ordered by increasing reach.
+	 */
+	enum Impact {
+		NONE, PACKAGE, API
+	}
+
+	private final Map<ICompilationUnit, UnitSignature> signatures = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the working copies that need to be validated after
+	 * <code>changedUnits</code> were reconciled, in the order of
+	 * <code>workingCopies</code>.
+	 *
+	 * @param changedUnits
+	 *            the units that were just reconciled
+	 * @param workingCopies
+	 *            all the currently open working copies
+	 * @return the subset of <code>workingCopies</code> to validate
+	 */
+	public List<ICompilationUnit> getUnitsToValidate(Collection<ICompilationUnit> changedUnits, ICompilationUnit[] workingCopies) {
+		Impact impact = Impact.NONE;
+		Set<ICompilationUnit> changed = new HashSet<>(changedUnits);
+		Set<String> changedPackages = new HashSet<>();
+		for (ICompilationUnit unit : changed) {
+			Impact unitImpact = update(unit);
+			if (unitImpact == Impact.PACKAGE) {
+				changedPackages.add(getPackageName(unit));
+			}
+			if (unitImpact.compareTo(impact) > 0) {
+				impact = unitImpact;
+			}
+		}
+		List<ICompilationUnit> result = new ArrayList<>();
+		for (ICompilationUnit workingCopy : workingCopies) {
+			if (impact == Impact.API || changed.contains(workingCopy) || changedPackages.contains(getPackageName(workingCopy))) {
+				result.add(workingCopy);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Forgets the signature of the given unit, typically when its working copy is
+	 * discarded.
+	 */
+	public void forget(ICompilationUnit unit) {
+		signatures.remove(unit);
+	}
+
+	/**
+	 * Records the current signature of the unit and returns the impact of the
+	 * change since the last time it was recorded.
+	 */
+	Impact update(ICompilationUnit unit) {
+		UnitSignature newSignature;
+		try {
+			newSignature = unit.exists() ? computeSignature(unit) : null;
+		} catch (JavaModelException e) {
+			JavaLanguageServerPlugin.logException("Failed to compute the signature of " + unit.getElementName(), e);
+			newSignature = null;
+		}
+		if (newSignature == null) {
+			signatures.remove(unit);
+			return Impact.API;
+		}
+		UnitSignature oldSignature = signatures.put(unit, newSignature);
+		if (oldSignature == null || !oldSignature.api.equals(newSignature.api)) {
+			return Impact.API;
+		}
+		if (!oldSignature.packageVisible.equals(newSignature.packageVisible)) {
+			return Impact.PACKAGE;
+		}
+		return Impact.NONE;
+	}
+
+	private static String getPackageName(ICompilationUnit unit) {
+		IJavaElement parent = unit.getParent();
+		return parent == null ? "" : parent.getElementName();
+	}
+
+	private static UnitSignature computeSignature(ICompilationUnit unit) throws JavaModelException {
+		StringBuilder api = new StringBuilder();
+		StringBuilder packageVisible = new StringBuilder();
+		for (IType type : unit.getAllTypes()) {
+			Impact typeImpact = getImpact(type);
+			StringBuilder typeBuilder = select(typeImpact, api, packageVisible);
+			if (typeBuilder != null) {
+				appendType(typeBuilder, type);
+			}
+			boolean isInterface = type.isInterface();
+			for (IField field : type.getFields()) {
+				StringBuilder builder = select(min(typeImpact, getImpact(field.getFlags(), isInterface)), api, packageVisible);
+				if (builder != null) {
+					appendField(builder, field);
+				}
+			}
+			for (IMethod method : type.getMethods()) {
+				StringBuilder builder = select(min(typeImpact, getImpact(method.getFlags(), isInterface)), api, packageVisible);
+				if (builder != null) {
+					appendMethod(builder, method);
+				}
+			}
+		}
+		return new UnitSignature(api.toString(), packageVisible.toString());
+	}
+
+	private static StringBuilder select(Impact impact, StringBuilder api, StringBuilder packageVisible) {
+		switch (impact) {
+			case API:
+				return api;
+			case PACKAGE:
+				return packageVisible;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Returns the impact of a change to the given type, which is only visible
+	 * as far as the type and all its declaring types are.
+	 */
+	private static Impact getImpact(IType type) throws JavaModelException {
+		Impact impact = Impact.API;
+		IType current = type;
+		while (current != null) {
+			IType declaringType = current.getDeclaringType();
+			boolean inInterface = declaringType != null && declaringType.isInterface();
+			impact = min(impact, getImpact(current.getFlags(), inInterface));
+			current = declaringType;
+		}
+		return impact;
+	}
+
+	/**
+	 * Returns the impact of a change to a member with the given flags: none for
+	 * private members, the package for package-private ones.
+	 */
+	private static Impact getImpact(int flags, boolean isInterfaceMember) {
+		if (Flags.isPrivate(flags)) {
+			return Impact.NONE;
+		}
+		if (isInterfaceMember || Flags.isPublic(flags) || Flags.isProtected(flags)) {
+			return Impact.API;
+		}
+		return Impact.PACKAGE;
+	}
+
+	private static Impact min(Impact a, Impact b) {
+		return a.compareTo(b) <= 0 ? a : b;
+	}
+
+	private static void appendType(StringBuilder builder, IType type) throws JavaModelException {
+		builder.append('T').append(type.getFullyQualifiedName()).append('|').append(type.getFlags());
+		builder.append('|').append(type.getSuperclassTypeSignature());
+		for (String superInterface : type.getSuperInterfaceTypeSignatures()) {
+			builder.append(',').append(superInterface);
+		}
+		appendTypeParameters(builder, type.getTypeParameters());
+		builder.append('\n');
+	}
+
+	private static void appendField(StringBuilder builder, IField field) throws JavaModelException {
+		int flags = field.getFlags();
+		builder.append('F').append(field.getElementName()).append('|').append(flags).append('|').append(field.getTypeSignature());
+		if (Flags.isStatic(flags) && Flags.isFinal(flags)) {
+			// constants are inlined by the compiler in referencing units
+			builder.append('=').append(field.getConstant());
+		}
+		builder.append('\n');
+	}
+
+	private static void appendMethod(StringBuilder builder, IMethod method) throws JavaModelException {
+		builder.append('M').append(method.getElementName()).append('(');
+		for (String parameterType : method.getParameterTypes()) {
+			builder.append(parameterType).append(',');
+		}
+		builder.append(')').append(method.getReturnType()).append('|').append(method.getFlags());
+		for (String exceptionType : method.getExceptionTypes()) {
+			builder.append(',').append(exceptionType);
+		}
+		appendTypeParameters(builder, method.getTypeParameters());
+		builder.append('\n');
+	}
+
+	private static void appendTypeParameters(StringBuilder builder, ITypeParameter[] typeParameters) throws JavaModelException {
+		for (ITypeParameter typeParameter : typeParameters) {
+			builder.append('<').append(typeParameter.getElementName());
+			for (String bound : typeParameter.getBoundsSignatures()) {
+				builder.append('&').append(bound);
+			}
+			builder.append('>');
+		}
+	}
+
+	private static final class UnitSignature {
+		private final String api;
+		private final String packageVisible;
+
+		UnitSignature(String api, String packageVisible) {
+			this.api = api;
+			this.packageVisible = packageVisible;
+		}
+	}
+
+}
@@ -15,7 +15,11 @@ import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
 import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
@@ -25,6 +29,8 @@ import org.eclipse.jdt.core.search.TypeNameMatch;
 import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.ProjectUtils;
+import org.eclipse.jdt.ls.core.internal.managers.WorkspaceSymbolIndex;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.SymbolInformation;
@@ -44,53 +50,151 @@ public class WorkspaceSymbolHandler{
 		}
 
 		try {
-			ArrayList<SymbolInformation> symbols = new ArrayList<>();
-			new SearchEngine().searchAllTypeNames(null,SearchPattern.R_PATTERN_MATCH, query.toCharArray(), SearchPattern.R_CAMELCASE_MATCH, IJavaSearchConstants.TYPE, createSearchScope(),new TypeNameMatchRequestor() {
-
+			int maxResults = preferenceManager.getPreferences().getSymbolsMaxResults();
+			WorkspaceSymbolIndex index = JavaLanguageServerPlugin.getWorkspaceSymbolIndex();
+			// the symbols declared in the workspace sources come from the index once it is built, the search engine finds the library types
+			List<SymbolInformation> symbols = index == null ? null : searchIndex(index, query, maxResults, monitor);
+			IJavaSearchScope scope;
+			if (symbols == null) {
+				symbols = new ArrayList<>();
+				scope = createSearchScope();
+			} else {
+				scope = createLibrarySearchScope();
+			}
+			if (scope == null || (maxResults > 0 && symbols.size() >= maxResults)) {
+				return symbols;
+			}
+			// only collect the matches while searching, their location is computed once the search is over
+			List<TypeNameMatch> matches = new ArrayList<>();
+			int maxMatches = maxResults > 0 ? maxResults - symbols.size() : Integer.MAX_VALUE;
+			IProgressMonitor searchMonitor = new ProgressMonitorWrapper(monitor == null ? new NullProgressMonitor() : monitor) {
 				@Override
-				public void acceptTypeNameMatch(TypeNameMatch match) {
-					SymbolInformation symbolInformation = new SymbolInformation();
-					symbolInformation.setContainerName(match.getTypeContainerName());
-					symbolInformation.setName(match.getSimpleTypeName());
-					symbolInformation.setKind(mapKind(match));
-					Location location;
-					try {
-						if (match.getType().isBinary()) {
-							location = JDTUtils.toLocation(match.getType().getClassFile());
-						}  else {
-							location = JDTUtils.toLocation(match.getType());
-						}
-					} catch (Exception e) {
-						JavaLanguageServerPlugin.logException("Unable to determine location for " +  match.getSimpleTypeName(), e);
-						return;
-					}
-					symbolInformation.setLocation(location);
-					symbols.add(symbolInformation);
+				public boolean isCanceled() {
+					// stops the search engine once enough types were found
+					return matches.size() >= maxMatches || super.isCanceled();
 				}
+			};
+			try {
+				new SearchEngine().searchAllTypeNames(null, SearchPattern.R_PATTERN_MATCH, query.toCharArray(), SearchPattern.R_CAMELCASE_MATCH, IJavaSearchConstants.TYPE, scope, new TypeNameMatchRequestor() {
 
-				private SymbolKind mapKind(TypeNameMatch match) {
-					int flags= match.getModifiers();
-					if (Flags.isInterface(flags)) {
-						return SymbolKind.Interface;
-					}
-					if (Flags.isAnnotation(flags)) {
-						return SymbolKind.Property;
-					}
-					if (Flags.isEnum(flags)) {
-						return SymbolKind.Enum;
+					@Override
+					public void acceptTypeNameMatch(TypeNameMatch match) {
+						if (matches.size() < maxMatches) {
+							matches.add(match);
+						}
 					}
-					return SymbolKind.Class;
+				}, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, searchMonitor);
+			} catch (OperationCanceledException e) {
+				if (matches.size() < maxMatches) {
+					throw e;
+				}
+			}
+			for (TypeNameMatch match : matches) {
+				SymbolInformation symbolInformation = toSymbolInformation(match);
+				if (symbolInformation != null) {
+					symbols.add(symbolInformation);
 				}
-			}, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+			}
 			return symbols;
+		} catch (OperationCanceledException e) {
+			// the request was cancelled
 		} catch (Exception e) {
 			JavaLanguageServerPlugin.logException("Problem getting search for" +  query, e);
 		}
 		return Collections.emptyList();
 	}
 
+	/**
+	 * Returns the symbols of the index matching the query, or <code>null</code>
+	 * if the index isn't built yet.
+	 */
+	private List<SymbolInformation> searchIndex(WorkspaceSymbolIndex index, String query, int maxResults, IProgressMonitor monitor) {
+		int limit = maxResults;
+		while (true) {
+			List<WorkspaceSymbolIndex.Symbol> found = index.search(query, limit, monitor);
+			if (found == null) {
+				return null;
+			}
+			List<SymbolInformation> symbols = new ArrayList<>();
+			for (WorkspaceSymbolIndex.Symbol symbol : found) {
+				SymbolInformation symbolInformation = toSymbolInformation(symbol);
+				if (symbolInformation != null) {
+					symbols.add(symbolInformation);
+				}
+			}
+			if (maxResults <= 0 || symbols.size() >= maxResults || found.size() < limit) {
+				return symbols;
+			}
+			// some symbols don't exist anymore, until the index is updated: ask for as many more
+			limit += maxResults - symbols.size();
+		}
+	}
+
 	private IJavaSearchScope createSearchScope() throws JavaModelException {
 		return JDTUtils.createSearchScope(null, preferenceManager);
 	}
 
+	/**
+	 * @return the scope of the libraries of the workspace projects, or
+	 *         <code>null</code> if the client can't open class files
+	 */
+	private IJavaSearchScope createLibrarySearchScope() {
+		if (!preferenceManager.isClientSupportsClassFileContent()) {
+			return null;
+		}
+		return SearchEngine.createJavaSearchScope(ProjectUtils.getJavaProjects(), IJavaSearchScope.APPLICATION_LIBRARIES | IJavaSearchScope.SYSTEM_LIBRARIES);
+	}
+
+	private SymbolInformation toSymbolInformation(TypeNameMatch match) {
+		SymbolInformation symbolInformation = new SymbolInformation();
+		symbolInformation.setContainerName(match.getTypeContainerName());
+		symbolInformation.setName(match.getSimpleTypeName());
+		symbolInformation.setKind(mapKind(match));
+		Location location;
+		try {
+			if (match.getType().isBinary()) {
+				location = JDTUtils.toLocation(match.getType().getClassFile());
+			}  else {
+				location = JDTUtils.toLocation(match.getType());
+			}
+		} catch (Exception e) {
+			JavaLanguageServerPlugin.logException("Unable to determine location for " +  match.getSimpleTypeName(), e);
+			return null;
+		}
+		symbolInformation.setLocation(location);
+		return symbolInformation;
+	}
+
+	private SymbolKind mapKind(TypeNameMatch match) {
+		int flags= match.getModifiers();
+		if (Flags.isInterface(flags)) {
+			return SymbolKind.Interface;
+		}
+		if (Flags.isAnnotation(flags)) {
+			return SymbolKind.Property;
+		}
+		if (Flags.isEnum(flags)) {
+			return SymbolKind.Enum;
+		}
+		return SymbolKind.Class;
+	}
+
+	private SymbolInformation toSymbolInformation(WorkspaceSymbolIndex.Symbol symbol) {
+		IJavaElement element = symbol.getElement();
+		try {
+			if (element == null || !element.exists()) {
+				return null;
+			}
+			SymbolInformation symbolInformation = new SymbolInformation();
+			symbolInformation.setName(symbol.getName());
+			symbolInformation.setKind(symbol.getKind());
+			symbolInformation.setContainerName(symbol.getContainerName());
+			symbolInformation.setLocation(JDTUtils.toLocation(element));
+			return symbolInformation;
+		} catch (JavaModelException e) {
+			JavaLanguageServerPlugin.logException("Unable to determine location for " + symbol.getName(), e);
+			return null;
+		}
+	}
+
 }
\ No newline at end of file
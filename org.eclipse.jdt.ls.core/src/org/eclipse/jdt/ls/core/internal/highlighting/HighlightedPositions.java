@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.highlighting;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of highlighted positions, sorted by offset, packed in a
+ * single <code>int</code> array of (offset, length, scope index) triples.
+ * Elements are materialized as new {@link HighlightedPosition} instances on
+ * access, so that caching the positions of a document costs a single array.
+ * Updates create new instances, which can be shared freely.
+ */
+public final class HighlightedPositions extends AbstractList<HighlightedPosition> implements RandomAccess {
+
+	public static final HighlightedPositions EMPTY = new HighlightedPositions(new int[0]);
+
+	private static final int OFFSET = 0;
+	private static final int LENGTH = 1;
+	private static final int SCOPE = 2;
+	private static final int FIELDS = 3;
+
+	/**
+	 * Lock of the materialized positions, they are never shared.
+	 */
+	private static final Object LOCK = new Object();
+
+	private final int[] data;
+
+	private HighlightedPositions(int[] data) {
+		this.data = data;
+	}
+
+	/**
+	 * Packs the given positions, which must be sorted by offset.
+	 */
+	public static HighlightedPositions of(List<? extends HighlightedPosition> positions) {
+		if (positions instanceof HighlightedPositions) {
+			return (HighlightedPositions) positions;
+		}
+		if (positions.isEmpty()) {
+			return EMPTY;
+		}
+		int[] data = new int[positions.size() * FIELDS];
+		int i = 0;
+		for (HighlightedPosition position : positions) {
+			data[i + OFFSET] = position.getOffset();
+			data[i + LENGTH] = position.getLength();
+			data[i + SCOPE] = SemanticHighlightingService.getIndex(position.getHighlightingScopes());
+			i += FIELDS;
+		}
+		return new HighlightedPositions(data);
+	}
+
+	@Override
+	public int size() {
+		return data.length / FIELDS;
+	}
+
+	@Override
+	public HighlightedPosition get(int index) {
+		return new HighlightedPosition(getOffset(index), getLength(index), SemanticHighlightingService.getScopes(getScope(index)), LOCK);
+	}
+
+	public int getOffset(int index) {
+		return data[checkIndex(index) * FIELDS + OFFSET];
+	}
+
+	public int getLength(int index) {
+		return data[checkIndex(index) * FIELDS + LENGTH];
+	}
+
+	/**
+	 * Returns the index of the scopes of the position, see
+	 * {@link SemanticHighlightingService#getScopes(int)}.
+	 */
+	public int getScope(int index) {
+		return data[checkIndex(index) * FIELDS + SCOPE];
+	}
+
+	/**
+	 * Returns the index of the first position starting at or after the given
+	 * offset, or {@link #size()} if there is none.
+	 */
+	public int indexOfOffset(int offset) {
+		int low = 0;
+		int high = size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (data[middle * FIELDS + OFFSET] < offset) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns a view of the positions starting in the given range.
+	 *
+	 * @param start
+	 *            the start offset, inclusive
+	 * @param end
+	 *            the end offset, exclusive
+	 */
+	public List<HighlightedPosition> between(int start, int end) {
+		int from = indexOfOffset(start);
+		return subList(from, Math.max(from, indexOfOffset(end)));
+	}
+
+	/**
+	 * Returns new positions, where the ones starting in the given range are
+	 * replaced, and the ones following it are shifted.
+	 *
+	 * @param start
+	 *            the start offset of the replaced range, inclusive
+	 * @param end
+	 *            the end offset of the replaced range, exclusive
+	 * @param replacement
+	 *            the positions replacing the range, already shifted
+	 * @param delta
+	 *            the value added to the offsets of the positions following the
+	 *            range
+	 */
+	public HighlightedPositions replace(int start, int end, HighlightedPositions replacement, int delta) {
+		int from = indexOfOffset(start) * FIELDS;
+		int to = Math.max(from, indexOfOffset(end) * FIELDS);
+		int[] result = new int[from + replacement.data.length + data.length - to];
+		System.arraycopy(data, 0, result, 0, from);
+		System.arraycopy(replacement.data, 0, result, from, replacement.data.length);
+		int following = from + replacement.data.length;
+		System.arraycopy(data, to, result, following, data.length - to);
+		for (int i = following + OFFSET; i < result.length; i += FIELDS) {
+			result[i] += delta;
+		}
+		return new HighlightedPositions(result);
+	}
+
+	private int checkIndex(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+		return index;
+	}
+
+}
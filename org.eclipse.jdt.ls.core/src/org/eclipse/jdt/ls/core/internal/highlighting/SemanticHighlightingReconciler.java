@@ -22,12 +22,17 @@ import java.util.List;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
 import org.eclipse.jdt.core.dom.BooleanLiteral;
 import org.eclipse.jdt.core.dom.CharacterLiteral;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.ConstructorInvocation;
 import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.NodeFinder;
 import org.eclipse.jdt.core.dom.NumberLiteral;
 import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.SimpleType;
@@ -284,6 +289,18 @@ public class SemanticHighlightingReconciler {
 	private List<String> fJobDeprecatedMemberHighlighting;
 
 	public List<HighlightedPosition> reconciled(IDocument document, ASTNode ast, boolean forced, IProgressMonitor progressMonitor) throws BadPositionCategoryException {
+		if (ast == null) {
+			return emptyList();
+		}
+		return reconciled(document, getAffectedSubtrees(ast), progressMonitor);
+	}
+
+	/**
+	 * Collects the positions of the given subtrees only, typically the body
+	 * declaration returned by {@link #getAffectedDeclaration(ASTNode, int, int)}.
+	 * The positions of the rest of the document are not part of the result.
+	 */
+	public List<HighlightedPosition> reconciled(IDocument document, ASTNode[] subtrees, IProgressMonitor progressMonitor) throws BadPositionCategoryException {
 		// ensure at most one thread can be reconciling at any time
 		synchronized (fReconcileLock) {
 			if (fIsReconciling) {
@@ -297,11 +314,6 @@ public class SemanticHighlightingReconciler {
 		fJobHighlightings= fHighlightings;
 
 		try {
-			if (ast == null) {
-				return emptyList();
-			}
-
-			ASTNode[] subtrees= getAffectedSubtrees(ast);
 			if (subtrees.length == 0) {
 				return emptyList();
 			}
@@ -352,6 +364,38 @@ public class SemanticHighlightingReconciler {
 		return new ASTNode[] { node };
 	}
 
+	/**
+	 * Returns the method or initializer whose body contains the given region of
+	 * the AST, excluding the braces. Edits made there can't change the
+	 * highlighting of the rest of the document, so that only this declaration
+	 * needs to be reconciled.
+	 *
+	 * @param ast
+	 *            the AST, which must be free of syntax errors
+	 * @param offset
+	 *            the offset of the edited region
+	 * @param length
+	 *            the length of the edited region
+	 * @return the innermost declaration whose body contains the region, or
+	 *         <code>null</code> if the whole AST must be reconciled
+	 */
+	public static BodyDeclaration getAffectedDeclaration(ASTNode ast, int offset, int length) {
+		ASTNode node = NodeFinder.perform(ast, offset, length);
+		while (node != null) {
+			Block body = null;
+			if (node instanceof MethodDeclaration) {
+				body = ((MethodDeclaration) node).getBody();
+			} else if (node instanceof Initializer) {
+				body = ((Initializer) node).getBody();
+			}
+			if (body != null && body.getStartPosition() < offset && offset + length <= body.getStartPosition() + body.getLength() - 1) {
+				return (BodyDeclaration) node;
+			}
+			node = node.getParent();
+		}
+		return null;
+	}
+
 	/**
 	 * Start reconciling positions.
 	 */
@@ -12,30 +12,40 @@ package org.eclipse.jdt.ls.core.internal.highlighting;
 
 import static com.google.common.base.Suppliers.memoize;
 import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Maps.newHashMap;
 import static java.util.Collections.emptyList;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
+import org.eclipse.jdt.ls.core.internal.handlers.LineTable;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.BadPositionCategoryException;
+import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Position;
 import org.eclipse.lsp4j.SemanticHighlightingInformation;
 import org.eclipse.lsp4j.SemanticHighlightingParams;
@@ -44,12 +54,10 @@ import org.eclipse.lsp4j.util.SemanticHighlightingTokens;
 
 import com.google.common.base.Supplier;
 import com.google.common.collect.BiMap;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableBiMap.Builder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Multimap;
 
 /**
  * A stateful service for installing, un-installing, and updating semantic
@@ -135,7 +143,16 @@ public class SemanticHighlightingService {
 
 	private final Supplier<Boolean> enabled;
 	private final JavaClientConnection connection;
-	private final Map<String, List<HighlightedPosition>> cache;
+	private final Map<String, HighlightedPositions> cache;
+	/**
+	 * The contents of the documents the cached positions were calculated on.
+	 */
+	private final Map<String, String> contents;
+	/**
+	 * The documents whose cached positions were calculated on an AST without
+	 * syntax errors.
+	 */
+	private final Set<String> wellFormed;
 	private CoreASTProvider astProvider;
 	private SemanticHighlightingDiffCalculator diffCalculator;
 
@@ -147,7 +164,9 @@ public class SemanticHighlightingService {
 		this.connection = connection;
 		this.astProvider = astProvider;
 		this.enabled = enabled; // XXX: move this out and have a factory instead, that creates a NOOP service instance.
-		this.cache = newHashMap();
+		this.cache = new ConcurrentHashMap<>();
+		this.contents = new ConcurrentHashMap<>();
+		this.wellFormed = Collections.newSetFromMap(new ConcurrentHashMap<>());
 		this.diffCalculator = new SemanticHighlightingDiffCalculator();
 	}
 
@@ -158,86 +177,203 @@ public class SemanticHighlightingService {
 	public void uninstall(String uri) {
 		if (enabled.get()) {
 			this.cache.remove(uri);
+			this.contents.remove(uri);
+			this.wellFormed.remove(uri);
 		}
 	}
 
 	public List<Position> install(ICompilationUnit unit) throws JavaModelException, BadPositionCategoryException {
 		if (enabled.get()) {
-			List<HighlightedPosition> positions = calculateHighlightedPositions(unit, false);
-			String uri = JDTUtils.getFileURI(unit.getResource());
-			this.cache.put(uri, positions);
+			HighlightedPositions positions = HighlightedPositions.of(calculateHighlightedPositions(unit, true));
 			if (!positions.isEmpty()) {
+				String uri = JDTUtils.getFileURI(unit.getResource());
 				IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
 				List<SemanticHighlightingInformation> infos = toInfos(document, positions);
 				VersionedTextDocumentIdentifier textDocument = new VersionedTextDocumentIdentifier(uri, 1);
 				notifyClient(textDocument, infos);
 			}
-			return ImmutableList.copyOf(positions);
+			return Collections.unmodifiableList(positions);
 		}
 		return emptyList();
 	}
 
 	public List<HighlightedPosition> calculateHighlightedPositions(ICompilationUnit unit, boolean cache) throws JavaModelException, BadPositionCategoryException {
 		if (enabled.get()) {
-			IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
-			ASTNode ast = getASTNode(unit);
-			List<HighlightedPosition> positions = calculateHighlightedPositions(document, ast);
+			IDocument document = new Document(unit.getBuffer().getContents());
+			ASTNode ast = getASTNode(unit, new NullProgressMonitor());
+			HighlightedPositions positions = HighlightedPositions.of(calculateHighlightedPositions(document, ast));
 			if (cache) {
 				String uri = JDTUtils.getFileURI(unit.getResource());
 				this.cache.put(uri, positions);
+				this.contents.put(uri, document.get());
+				setWellFormed(uri, ast);
 			}
-			return ImmutableList.copyOf(positions);
+			return positions;
 		}
 		return emptyList();
 	}
 
+	/**
+	 * Returns the cached positions of the document. They are immutable, and
+	 * aren't copied.
+	 */
 	public List<HighlightedPosition> getHighlightedPositions(String uri) {
-		return ImmutableList.copyOf(cache.getOrDefault(uri, emptyList()));
+		return cache.getOrDefault(uri, HighlightedPositions.EMPTY);
 	}
 
-	public void update(VersionedTextDocumentIdentifier textDocument, List<HighlightedPositionDiffContext> diffContexts) throws BadLocationException, BadPositionCategoryException, JavaModelException {
-		if (enabled.get() && !diffContexts.isEmpty()) {
-			List<SemanticHighlightingInformation> deltaInfos = newArrayList();
-			for (HighlightedPositionDiffContext context : diffContexts) {
-				deltaInfos.addAll(diffCalculator.getDiffInfos(context));
-			}
-			if (!deltaInfos.isEmpty()) {
-				notifyClient(textDocument, deltaInfos);
+	/**
+	 * Calculates the highlighted positions of the current contents of the unit,
+	 * and notifies the client about the differences with the previous ones. All
+	 * the changes since the previous update are handled at once. When they are
+	 * confined to a method or initializer body, only its declaration is
+	 * reconciled and diffed, the other positions are shifted.
+	 *
+	 * @param isStale
+	 *            tells whether the document changed after its contents were
+	 *            read. If so, nothing is cached nor sent, and the caller is
+	 *            expected to update the newer version
+	 * @return <code>false</code> if the update was dropped because it is stale
+	 *         or cancelled
+	 */
+	public boolean update(ICompilationUnit unit, VersionedTextDocumentIdentifier textDocument, BooleanSupplier isStale, IProgressMonitor monitor) throws BadLocationException, BadPositionCategoryException, JavaModelException {
+		if (!enabled.get()) {
+			return true;
+		}
+		String uri = JDTUtils.getFileURI(unit.getResource());
+		String oldContents = contents.get(uri);
+		IBuffer buffer = unit.getBuffer();
+		if (oldContents == null || buffer == null) {
+			return true;
+		}
+		String newContents = buffer.getContents();
+		if (oldContents.equals(newContents)) {
+			return true;
+		}
+		IDocument newState = new Document(newContents);
+		ASTNode ast = getASTNode(unit, monitor);
+		if (ast == null) {
+			// cancelled
+			return false;
+		}
+		DocumentEvent event = createEvent(oldContents, newState);
+		HighlightedPositions oldPositions = cache.getOrDefault(uri, HighlightedPositions.EMPTY);
+		BodyDeclaration declaration = null;
+		if (wellFormed.contains(uri) && !hasSyntaxErrors(ast)) {
+			declaration = SemanticHighlightingReconciler.getAffectedDeclaration(ast, event.getOffset(), event.getText().length());
+		}
+		HighlightedPositions newPositions;
+		HighlightedPositionDiffContext context;
+		if (declaration == null) {
+			newPositions = HighlightedPositions.of(calculateHighlightedPositions(newState, ast));
+			context = new HighlightedPositionDiffContext(new Document(oldContents), event, oldPositions, newPositions);
+		} else {
+			int start = declaration.getStartPosition();
+			int end = start + declaration.getLength();
+			int delta = newContents.length() - oldContents.length();
+			HighlightedPositions declarationPositions = HighlightedPositions.of(calculateHighlightedPositions(newState, new ASTNode[] { declaration }));
+			newPositions = oldPositions.replace(start, end - delta, declarationPositions, delta);
+			// the lines of the declaration are diffed as a whole, with the positions sharing them
+			int regionStart = newState.getLineInformationOfOffset(start).getOffset();
+			IRegion lastLine = newState.getLineInformationOfOffset(end);
+			int regionEnd = lastLine.getOffset() + lastLine.getLength();
+			context = new HighlightedPositionDiffContext(new Document(oldContents), event, oldPositions.between(regionStart, regionEnd - delta), newPositions.between(regionStart, regionEnd));
+		}
+		if (isStale.getAsBoolean() || !newContents.equals(buffer.getContents())) {
+			return false;
+		}
+		List<SemanticHighlightingInformation> deltaInfos = diffCalculator.getDiffInfos(context);
+		this.cache.put(uri, newPositions);
+		this.contents.put(uri, newContents);
+		setWellFormed(uri, ast);
+		notifyClient(textDocument, deltaInfos);
+		return true;
+	}
+
+	private void setWellFormed(String uri, ASTNode ast) {
+		if (hasSyntaxErrors(ast)) {
+			wellFormed.remove(uri);
+		} else {
+			wellFormed.add(uri);
+		}
+	}
+
+	private static boolean hasSyntaxErrors(ASTNode ast) {
+		if (!(ast instanceof CompilationUnit)) {
+			return true;
+		}
+		for (IProblem problem : ((CompilationUnit) ast).getProblems()) {
+			if ((problem.getID() & IProblem.Syntax) != 0) {
+				return true;
 			}
 		}
+		return false;
+	}
+
+	/**
+	 * Creates a single event replacing the region which differs between the old
+	 * contents and the new document, so that any number of edits can be diffed
+	 * at once.
+	 */
+	protected DocumentEvent createEvent(String oldContents, IDocument newState) {
+		String newContents = newState.get();
+		int max = Math.min(oldContents.length(), newContents.length());
+		int prefix = 0;
+		while (prefix < max && oldContents.charAt(prefix) == newContents.charAt(prefix)) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (suffix < max - prefix && oldContents.charAt(oldContents.length() - 1 - suffix) == newContents.charAt(newContents.length() - 1 - suffix)) {
+			suffix++;
+		}
+		return new DocumentEvent(newState, prefix, oldContents.length() - prefix - suffix, newContents.substring(prefix, newContents.length() - suffix));
 	}
 
 	protected List<HighlightedPosition> calculateHighlightedPositions(IDocument document, ASTNode ast) throws BadPositionCategoryException {
 		return new SemanticHighlightingReconciler().reconciled(document, ast, false, new NullProgressMonitor());
 	}
 
-	protected ASTNode getASTNode(ICompilationUnit unit) {
+	protected List<HighlightedPosition> calculateHighlightedPositions(IDocument document, ASTNode[] subtrees) throws BadPositionCategoryException {
+		return new SemanticHighlightingReconciler().reconciled(document, subtrees, new NullProgressMonitor());
+	}
+
+	protected ASTNode getASTNode(ICompilationUnit unit, IProgressMonitor monitor) {
 		// TODO: This seems odd here.
 		// I had problems when opened the second compilation unit in the editor.
 		// It was still using the previous AST.
 		this.astProvider.disposeAST();
-		return this.astProvider.getAST(unit, CoreASTProvider.WAIT_YES, new NullProgressMonitor());
+		return this.astProvider.getAST(unit, CoreASTProvider.WAIT_YES, monitor);
 	}
 
-	protected List<SemanticHighlightingInformation> toInfos(IDocument document, List<HighlightedPosition> positions) {
-		Multimap<Integer, SemanticHighlightingTokens.Token> infos = HashMultimap.create();
-		for (HighlightedPosition position : positions) {
-			int[] lineAndColumn = JsonRpcHelpers.toLine(document, position.offset);
-			if (lineAndColumn == null) {
-				JavaLanguageServerPlugin.logError("Cannot locate line and column information for the semantic highlighting position: " + position + ". Skipping it.");
+	protected List<SemanticHighlightingInformation> toInfos(IDocument document, HighlightedPositions positions) {
+		List<SemanticHighlightingInformation> infos = newArrayList();
+		// the positions are sorted, the tokens of a line are consecutive
+		List<SemanticHighlightingTokens.Token> lineTokens = newArrayList();
+		int currentLine = -1;
+		int n = positions.size();
+		int[] offsets = new int[n];
+		for (int i = 0; i < n; i++) {
+			offsets[i] = positions.getOffset(i);
+		}
+		int[] lineAndColumns = LineTable.get(document).toLines(offsets);
+		for (int i = 0; i < n; i++) {
+			int line = lineAndColumns[2 * i];
+			if (line < 0) {
+				JavaLanguageServerPlugin.logError("Cannot locate line and column information for the semantic highlighting position: " + positions.get(i) + ". Skipping it.");
 				continue;
 			}
-			int line = lineAndColumn[0];
-			int character = lineAndColumn[1];
-			int length = position.length;
-			int scope = LOOKUP_TABLE.inverse().get(position.getHighlightingScopes());
-			infos.put(line, new SemanticHighlightingTokens.Token(character, length, scope));
+			if (line != currentLine) {
+				if (!lineTokens.isEmpty()) {
+					infos.add(new SemanticHighlightingInformation(currentLine, SemanticHighlightingTokens.encode(lineTokens)));
+					lineTokens.clear();
+				}
+				currentLine = line;
+			}
+			lineTokens.add(new SemanticHighlightingTokens.Token(lineAndColumns[2 * i + 1], positions.getLength(i), positions.getScope(i)));
 		}
-		//@formatter:off
-		return infos.asMap().entrySet().stream()
-			.map(entry -> new SemanticHighlightingInformation(entry.getKey(), SemanticHighlightingTokens.encode(entry.getValue())))
-			.collect(Collectors.toList());
-		//@formatter:on
+		if (!lineTokens.isEmpty()) {
+			infos.add(new SemanticHighlightingInformation(currentLine, SemanticHighlightingTokens.encode(lineTokens)));
+		}
+		return infos;
 	}
 
 	protected void notifyClient(VersionedTextDocumentIdentifier textDocument, List<SemanticHighlightingInformation> infos) {
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.javadoc;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Cache of the Javadoc rendered as markdown, keyed by the handle identifier of
+ * the element plus the timestamp of its source: the modification stamp of the
+ * archive for binary elements, and of the compilation unit for source
+ * elements. Values are softly referenced, so that they can be reclaimed under
+ * memory pressure.
+ * <p>
+ * Since the Javadoc of a source element may be inherited from any other
+ * source, and working copies change without their resource, the entries of
+ * source elements are dropped whenever a compilation unit changes. All entries
+ * are dropped when the classpath changes.
+ * </p>
+ */
+public class JavadocCache implements IElementChangedListener {
+
+	private static final int MAX_SIZE = 500;
+
+	/**
+	 * The statistics are logged after this number of lookups.
+	 */
+	private static final long STATS_INTERVAL = 500;
+
+	private final Cache<String, Entry> cache = CacheBuilder.newBuilder()
+			.maximumSize(MAX_SIZE)
+			.softValues()
+			.recordStats()
+			.build();
+
+	private final AtomicLong lookups = new AtomicLong();
+
+	/**
+	 * Computes the markdown for the given element.
+	 */
+	public interface JavadocProvider {
+		String compute() throws CoreException;
+	}
+
+	/**
+	 * Returns the Javadoc of the given element as markdown, computing it if it
+	 * isn't cached yet.
+	 *
+	 * @return the markdown, or <code>null</code> if the element has no Javadoc
+	 * @throws CoreException
+	 *             if the Javadoc cannot be computed
+	 */
+	public String get(IJavaElement element, JavadocProvider provider) throws CoreException {
+		IPackageFragmentRoot root = (IPackageFragmentRoot) element.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+		if (root == null) {
+			return provider.compute();
+		}
+		boolean source = !root.isArchive() && root.getKind() == IPackageFragmentRoot.K_SOURCE;
+		String key = element.getHandleIdentifier() + '@' + getStamp(element, root, source);
+		try {
+			return cache.get(key, () -> new Entry(provider.compute(), source)).markdown;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof CoreException) {
+				throw (CoreException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} finally {
+			if (lookups.incrementAndGet() % STATS_INTERVAL == 0) {
+				logStatistics();
+			}
+		}
+	}
+
+	private static long getStamp(IJavaElement element, IPackageFragmentRoot root, boolean source) {
+		IResource resource = source ? ((IJavaElement) element.getOpenable()).getResource() : root.getResource();
+		if (resource != null) {
+			return resource.getModificationStamp();
+		}
+		// external archive or folder
+		return root.getPath().toFile().lastModified();
+	}
+
+	public CacheStats getStatistics() {
+		return cache.stats();
+	}
+
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	private void logStatistics() {
+		CacheStats stats = cache.stats();
+		JavaLanguageServerPlugin.logInfo(String.format("Javadoc cache: %d entries, hit rate %.1f%% (%d hits, %d misses, %d evictions)", cache.size(), stats.hitRate() * 100, stats.hitCount(), stats.missCount(),
+				stats.evictionCount()));
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		processDelta(event.getDelta());
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				break;
+			case IJavaElement.JAVA_PROJECT:
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				int flags = delta.getFlags();
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH
+						| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_SOURCEATTACHED | IJavaElementDelta.F_SOURCEDETACHED)) != 0) {
+					cache.invalidateAll();
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				invalidateSources();
+				return;
+			default:
+				return;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			processDelta(child);
+		}
+	}
+
+	private void invalidateSources() {
+		for (Map.Entry<String, Entry> entry : cache.asMap().entrySet()) {
+			if (entry.getValue().source) {
+				cache.invalidate(entry.getKey());
+			}
+		}
+	}
+
+	private static final class Entry {
+		private final String markdown;
+		private final boolean source;
+
+		Entry(String markdown, boolean source) {
+			this.markdown = markdown;
+			this.source = source;
+		}
+	}
+}
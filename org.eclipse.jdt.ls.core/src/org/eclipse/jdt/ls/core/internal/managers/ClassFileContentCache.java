@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+/**
+ * Two-tier cache of the contents computed for class files: an in-memory LRU
+ * cache, backed by an optional content-addressed store on disk. The key of a
+ * content is computed from the class file bytes, the id of the content
+ * provider and the decompiler settings, so that entries never need to be invalidated.
+ * <p>
+ * The size of the store is capped: when it grows over the limit, the least
+ * recently used files are deleted. The modification time of a file is updated
+ * when it is read, and tells when it was last used. The store is also pruned,
+ * and cleaned from interrupted writes, when the cache is created.
+ * </p>
+ */
+class ClassFileContentCache {
+
+	/**
+	 * Maximum number of characters kept in memory.
+	 */
+	private static final int MAX_WEIGHT = 8 * 1024 * 1024;
+
+	/**
+	 * Maximum size of the files of the disk store, in bytes.
+	 */
+	static final long MAX_DISK_SIZE = 64 * 1024 * 1024;
+
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+	private final Cache<String, String> contents = CacheBuilder.newBuilder()
+			.maximumWeight(MAX_WEIGHT)
+			.<String, String>weigher((key, content) -> content.length())
+			.build();
+
+	private final File directory;
+	private final long maxDiskSize;
+	private final AtomicLong diskSize = new AtomicLong();
+
+	/**
+	 * @param directory
+	 *            the directory of the disk store, or <code>null</code> to only
+	 *            cache in memory
+	 */
+	ClassFileContentCache(File directory) {
+		this(directory, MAX_DISK_SIZE);
+	}
+
+	ClassFileContentCache(File directory, long maxDiskSize) {
+		this.directory = directory;
+		this.maxDiskSize = maxDiskSize;
+		if (directory != null && directory.isDirectory()) {
+			prune(true);
+		}
+	}
+
+	static String getKey(byte[] bytes, String providerId, int preferencesHash) {
+		return Hashing.sha1().hashBytes(bytes).toString() + '-' + Hashing.sha1().hashString(providerId + ':' + preferencesHash, StandardCharsets.UTF_8).toString();
+	}
+
+	/**
+	 * @return the cached content, or <code>null</code>
+	 */
+	String get(String key) {
+		String content = contents.getIfPresent(key);
+		if (content == null && directory != null) {
+			Path file = getFile(key);
+			if (Files.isRegularFile(file)) {
+				try {
+					content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+					contents.put(key, content);
+					Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+				} catch (IOException e) {
+					JavaLanguageServerPlugin.logException("Unable to read cached content " + file, e);
+				}
+			}
+		}
+		return content;
+	}
+
+	void put(String key, String content) {
+		contents.put(key, content);
+		if (directory == null) {
+			return;
+		}
+		Path file = getFile(key);
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		try {
+			Files.createDirectories(file.getParent());
+			Path tempFile = Files.createTempFile(file.getParent(), key, TEMP_FILE_SUFFIX);
+			Files.write(tempFile, bytes);
+			try {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to cache content " + file, e);
+			return;
+		}
+		if (diskSize.addAndGet(bytes.length) > maxDiskSize) {
+			prune(false);
+		}
+	}
+
+	/**
+	 * Deletes the least recently used files of the disk store, until its size
+	 * is under the limit.
+	 *
+	 * @param startup
+	 *            whether the store is opened, and the files left by
+	 *            interrupted writes are deleted
+	 */
+	private synchronized void prune(boolean startup) {
+		if (!startup && diskSize.get() <= maxDiskSize) {
+			// pruned by another thread
+			return;
+		}
+		List<Entry> entries = new ArrayList<>();
+		try (Stream<Path> files = Files.walk(directory.toPath())) {
+			for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+				if (startup && file.getFileName().toString().endsWith(TEMP_FILE_SUFFIX)) {
+					Files.deleteIfExists(file);
+					continue;
+				}
+				BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+				entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime().toMillis()));
+			}
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to prune the cached contents in " + directory, e);
+			return;
+		}
+		long size = entries.stream().mapToLong(entry -> entry.size).sum();
+		if (size > maxDiskSize) {
+			// leave some room, so that the next writes don't prune again
+			long target = maxDiskSize * 3 / 4;
+			entries.sort(Comparator.comparingLong(entry -> entry.lastUsed));
+			for (Entry entry : entries) {
+				if (size <= target) {
+					break;
+				}
+				try {
+					Files.deleteIfExists(entry.file);
+					size -= entry.size;
+				} catch (IOException e) {
+					JavaLanguageServerPlugin.logException("Unable to delete cached content " + entry.file, e);
+				}
+			}
+		}
+		diskSize.set(size);
+	}
+
+	private Path getFile(String key) {
+		// spread the entries among sub-directories, by first byte of the hash
+		return directory.toPath().resolve(key.substring(0, 2)).resolve(key);
+	}
+
+	private static final class Entry {
+		private final Path file;
+		private final long size;
+		private final long lastUsed;
+
+		Entry(Path file, long size, long lastUsed) {
+			this.file = file;
+			this.size = size;
+			this.lastUsed = lastUsed;
+		}
+	}
+
+}
@@ -10,9 +10,15 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.managers;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -23,9 +29,12 @@ import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ls.core.internal.IContentProvider;
 import org.eclipse.jdt.ls.core.internal.IDecompiler;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.handlers.MapFlattener;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 
 public class ContentProviderManager {
@@ -36,15 +45,34 @@ public class ContentProviderManager {
 	private static final String ID = "id";
 	private static final String PRIORITY = "priority";
 	private static final String URI_PATTERN = "uriPattern";
+	private static final String CACHEABLE = "cacheable";
+	private static final String CACHE_DIRECTORY = ".class-file-contents";
+	/**
+	 * The settings the contents of the providers may depend on; changing other
+	 * settings doesn't invalidate the cached contents.
+	 */
+	private static final String DECOMPILER_SETTINGS = "java.decompiler";
 	private static final int DEFAULT_PRIORITY = 500;
 	private static final Pattern DEFAULT_URI_PATTERN = Pattern.compile("jdt://contents/.*\\.class.*");
 
 	private final PreferenceManager preferenceManager;
 
+	private final ClassFileContentCache cache;
+
 	private Set<ContentProviderDescriptor> descriptors;
 
 	public ContentProviderManager(PreferenceManager preferenceManager) {
+		this(preferenceManager, null);
+	}
+
+	/**
+	 * @param stateLocation
+	 *            the location where the contents of class files are cached, or
+	 *            <code>null</code> to only cache them in memory
+	 */
+	public ContentProviderManager(PreferenceManager preferenceManager, File stateLocation) {
 		this.preferenceManager = preferenceManager;
+		this.cache = new ClassFileContentCache(stateLocation == null ? null : new File(stateLocation, CACHE_DIRECTORY));
 	}
 
 	/**
@@ -60,7 +88,7 @@ public class ContentProviderManager {
 		if (classFile == null) {
 			return null;
 		}
-		return getContent(classFile, classFile.getHandleIdentifier(), IDecompiler.class, monitor);
+		return getContent(classFile, IDecompiler.class, monitor);
 	}
 
 	/**
@@ -76,24 +104,20 @@ public class ContentProviderManager {
 		if (uri == null) {
 			return null;
 		}
-		return getContent(uri, uri.toString(), IContentProvider.class, monitor);
+		return getContent(uri, IContentProvider.class, monitor);
 	}
 
-	private String getContent(Object source, String cacheKey, Class<? extends IContentProvider> providerType, IProgressMonitor monitor) {
+	private String getContent(Object source, Class<? extends IContentProvider> providerType, IProgressMonitor monitor) {
 		URI uri = source instanceof URI ? (URI) source : null;
 		List<ContentProviderDescriptor> matches = findMatchingProviders(uri);
 		if (monitor.isCanceled()) {
 			return EMPTY_CONTENT;
 		}
 
+		byte[] bytes = null;
+		boolean bytesRead = false;
 		int previousPriority = -1;
 		for (ContentProviderDescriptor match : matches) {
-			IContentProvider contentProvider = match.getContentProvider();
-			if (!providerType.isInstance(contentProvider)) {
-				JavaLanguageServerPlugin.logError("Unable to load " + providerType.getSimpleName() + " class for " + match.id);
-				continue;
-			}
-
 			if (monitor.isCanceled()) {
 				return EMPTY_CONTENT;
 			}
@@ -101,6 +125,26 @@ public class ContentProviderManager {
 			if (previousPriority == match.priority) {
 				requestPreferredProvider(match.priority, matches);
 			}
+			// the cached contents were computed by this provider, it is only needed on a miss
+			String cacheKey = null;
+			if (match.cacheable) {
+				if (!bytesRead) {
+					bytes = getClassFileBytes(source, uri);
+					bytesRead = true;
+				}
+				if (bytes != null) {
+					cacheKey = ClassFileContentCache.getKey(bytes, match.id, getPreferencesHash());
+					String cached = cache.get(cacheKey);
+					if (cached != null) {
+						return cached;
+					}
+				}
+			}
+			IContentProvider contentProvider = match.getContentProvider();
+			if (!providerType.isInstance(contentProvider)) {
+				JavaLanguageServerPlugin.logError("Unable to load " + providerType.getSimpleName() + " class for " + match.id);
+				continue;
+			}
 			try {
 				contentProvider.setPreferences(preferenceManager.getPreferences());
 				String content = null;
@@ -112,6 +156,9 @@ public class ContentProviderManager {
 				if (monitor.isCanceled()) {
 					return EMPTY_CONTENT;
 				} else if (content != null) {
+					if (cacheKey != null) {
+						cache.put(cacheKey, content);
+					}
 					return content;
 				}
 			} catch (Exception e) {
@@ -124,6 +171,44 @@ public class ContentProviderManager {
 		return EMPTY_CONTENT;
 	}
 
+	/**
+	 * Returns the bytes of the class file the content is requested for, or
+	 * <code>null</code> if it isn't a class file, or can't be read.
+	 */
+	private static byte[] getClassFileBytes(Object source, URI uri) {
+		try {
+			IClassFile classFile = source instanceof IClassFile ? (IClassFile) source : JDTUtils.resolveClassFile(uri);
+			if (classFile != null) {
+				return classFile.getBytes();
+			}
+			if (uri != null && "file".equals(uri.getScheme()) && uri.getPath() != null && uri.getPath().endsWith(".class")) {
+				return Files.readAllBytes(Paths.get(uri));
+			}
+		} catch (JavaModelException | IOException | IllegalArgumentException e) {
+			// the providers report the problem, if any
+		}
+		return null;
+	}
+
+	private int getPreferencesHash() {
+		Map<String, Object> configuration = preferenceManager.getPreferences().asMap();
+		if (configuration == null) {
+			return 0;
+		}
+		// the settings may be nested, or flattened into dotted keys
+		Map<String, Object> settings = new HashMap<>();
+		Object nested = MapFlattener.getValue(configuration, DECOMPILER_SETTINGS);
+		if (nested != null) {
+			settings.put(DECOMPILER_SETTINGS, nested);
+		}
+		configuration.forEach((key, value) -> {
+			if (key.startsWith(DECOMPILER_SETTINGS + '.')) {
+				settings.put(key, value);
+			}
+		});
+		return settings.hashCode();
+	}
+
 	private synchronized Set<ContentProviderDescriptor> getDescriptors(List<String> preferredProviderIds) {
 		if (descriptors == null) {
 			IConfigurationElement[] elements = Platform.getExtensionRegistry().getConfigurationElementsFor(EXTENSION_POINT_ID);
@@ -169,6 +254,8 @@ public class ContentProviderManager {
 		private final int basePriority;
 		public int priority;
 		public final Pattern uriPattern;
+		public final boolean cacheable;
+		private final ThreadLocal<IContentProvider> contentProvider = new ThreadLocal<>();
 
 		public ContentProviderDescriptor(IConfigurationElement element) {
 			configurationElement = element;
@@ -177,6 +264,7 @@ public class ContentProviderManager {
 			priority = basePriority;
 			String uriPatternString = configurationElement.getAttribute(URI_PATTERN);
 			uriPattern = uriPatternString != null ? Pattern.compile(uriPatternString) : DEFAULT_URI_PATTERN;
+			cacheable = !Boolean.FALSE.toString().equals(configurationElement.getAttribute(CACHEABLE));
 		}
 
 		private int parsePriority() {
@@ -197,11 +285,22 @@ public class ContentProviderManager {
 			}
 		}
 
-		public synchronized IContentProvider getContentProvider() {
+		/**
+		 * Returns the instance of the provider of the current thread: the
+		 * preferences are set on it for each request, so that instances aren't
+		 * shared by concurrent requests.
+		 */
+		public IContentProvider getContentProvider() {
+			IContentProvider provider = contentProvider.get();
+			if (provider != null) {
+				return provider;
+			}
 			try {
 				Object extension = configurationElement.createExecutableExtension(CLASS);
 				if (extension instanceof IContentProvider) {
-					return (IContentProvider) extension;
+					provider = (IContentProvider) extension;
+					contentProvider.set(provider);
+					return provider;
 				} else {
 					String message = "Invalid extension to " + EXTENSION_POINT_ID + ". Must implement " + IContentProvider.class.getName();
 					JavaLanguageServerPlugin.logError(message);
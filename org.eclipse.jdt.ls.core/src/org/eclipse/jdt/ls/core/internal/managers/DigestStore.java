@@ -10,19 +10,27 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.managers;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
@@ -34,12 +42,21 @@ import org.eclipse.jdt.ls.core.internal.StatusFactory;
  *         This class handles digests for build files. It serves to prevent
  *         unnecessary updating of maven/gradle, etc. info on workspace
  *         projects.
+ *
+ *         Files whose size and modification time didn't change are not read
+ *         again. Otherwise their contents are hashed while being streamed, and
+ *         the digests are written to a compact binary file, replaced
+ *         atomically. Use {@link #updateDigests(Collection)} to update many
+ *         files with a single write.
  */
 public class DigestStore {
-	private Map<String, String> fileDigests;
-	private File stateFile;
+	private final Map<String, Digest> fileDigests;
+	private final File stateFile;
 
-	private static final String SERIALIZATION_FILE_NAME = ".file-digests";
+	private static final String SERIALIZATION_FILE_NAME = ".build-file-digests";
+	private static final String LEGACY_SERIALIZATION_FILE_NAME = ".file-digests";
+	private static final int FORMAT_VERSION = 1;
+	private static final int BUFFER_SIZE = 8192;
 
 	public DigestStore(File stateLocation) {
 		this.stateFile = new File(stateLocation, SERIALIZATION_FILE_NAME);
@@ -48,6 +65,8 @@ public class DigestStore {
 		} else {
 			fileDigests = new HashMap<>();
 		}
+		// digests of the previous format are not reused, projects are updated once
+		new File(stateLocation, LEGACY_SERIALIZATION_FILE_NAME).delete();
 	}
 
 	/**
@@ -61,45 +80,132 @@ public class DigestStore {
 	 *             if a digest cannot be computed
 	 */
 	public boolean updateDigest(Path p) throws CoreException {
-		try {
-			String digest = computeDigest(p);
-			synchronized (fileDigests) {
-				if (!digest.equals(fileDigests.get(p.toString()))) {
-					fileDigests.put(p.toString(), digest);
+		return !updateDigests(Collections.singleton(p)).isEmpty();
+	}
+
+	/**
+	 * Updates the digests for the given paths, and saves them at once.
+	 *
+	 * @param paths
+	 *            Paths to the files in questions
+	 * @return the paths of the files which are considered changed, whose
+	 *         associated projects should be updated
+	 * @throws CoreException
+	 *             if a digest cannot be computed
+	 */
+	public Set<Path> updateDigests(Collection<Path> paths) throws CoreException {
+		Set<Path> changed = new LinkedHashSet<>();
+		boolean modified = false;
+		for (Path p : paths) {
+			String key = p.toString();
+			try {
+				BasicFileAttributes attributes = Files.readAttributes(p, BasicFileAttributes.class);
+				long size = attributes.size();
+				long lastModified = attributes.lastModifiedTime().toMillis();
+				Digest previous;
+				synchronized (fileDigests) {
+					previous = fileDigests.get(key);
+				}
+				if (previous != null && previous.size == size && previous.lastModified == lastModified) {
+					continue;
+				}
+				Digest digest = new Digest(size, lastModified, computeHash(p));
+				synchronized (fileDigests) {
+					fileDigests.put(key, digest);
+				}
+				modified = true;
+				if (previous == null || previous.size != digest.size || previous.hash != digest.hash) {
+					changed.add(p);
+				}
+			} catch (IOException e) {
+				if (modified) {
 					serializeFileDigests();
-					return true;
-				} else {
-					return false;
 				}
+				throw new CoreException(StatusFactory.newErrorStatus("Exception updating digest for " + p, e));
 			}
-		} catch (NoSuchAlgorithmException | IOException e) {
-			throw new CoreException(StatusFactory.newErrorStatus("Exception updating digest for " + p, e));
 		}
-
+		if (modified) {
+			serializeFileDigests();
+		}
+		return changed;
 	}
 
 	private void serializeFileDigests() {
-		try (ObjectOutputStream outStream = new ObjectOutputStream(new FileOutputStream(stateFile))) {
-			outStream.writeObject(fileDigests);
-		} catch (IOException e) {
-			JavaLanguageServerPlugin.logException("Exception occured while serialization of file digests", e);
+		Map<String, Digest> snapshot;
+		synchronized (fileDigests) {
+			snapshot = new HashMap<>(fileDigests);
+		}
+		synchronized (stateFile) {
+			File tempFile = new File(stateFile.getParentFile(), SERIALIZATION_FILE_NAME + ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				out.writeInt(FORMAT_VERSION);
+				out.writeInt(snapshot.size());
+				for (Map.Entry<String, Digest> entry : snapshot.entrySet()) {
+					Digest digest = entry.getValue();
+					out.writeUTF(entry.getKey());
+					out.writeLong(digest.size);
+					out.writeLong(digest.lastModified);
+					out.writeLong(digest.hash);
+				}
+			} catch (IOException e) {
+				JavaLanguageServerPlugin.logException("Exception occured while serialization of file digests", e);
+				return;
+			}
+			try {
+				try {
+					Files.move(tempFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(tempFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			} catch (IOException e) {
+				JavaLanguageServerPlugin.logException("Exception occured while serialization of file digests", e);
+			}
 		}
 	}
 
-	@SuppressWarnings("unchecked")
-	private Map<String, String> deserializeFileDigests() {
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(stateFile))) {
-			return (Map<String, String>) ois.readObject();
-		} catch (IOException | ClassNotFoundException e) {
+	private Map<String, Digest> deserializeFileDigests() {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)))) {
+			if (in.readInt() != FORMAT_VERSION) {
+				return new HashMap<>();
+			}
+			int count = in.readInt();
+			Map<String, Digest> digests = new HashMap<>(count * 2);
+			for (int i = 0; i < count; i++) {
+				String path = in.readUTF();
+				long size = in.readLong();
+				long lastModified = in.readLong();
+				long hash = in.readLong();
+				digests.put(path, new Digest(size, lastModified, hash));
+			}
+			return digests;
+		} catch (IOException e) {
 			JavaLanguageServerPlugin.logException("Exception occured while deserialization of file digests", e);
 			return new HashMap<>();
 		}
 	}
 
-	private String computeDigest(Path path) throws IOException, NoSuchAlgorithmException {
-		byte[] fileBytes = Files.readAllBytes(path);
-		byte[] digest = MessageDigest.getInstance("MD5").digest(fileBytes);
-		return Arrays.toString(digest);
+	private long computeHash(Path path) throws IOException {
+		CRC32 checksum = new CRC32();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		try (InputStream in = Files.newInputStream(path)) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				checksum.update(buffer, 0, read);
+			}
+		}
+		return checksum.getValue();
+	}
+
+	private static final class Digest {
+		private final long size;
+		private final long lastModified;
+		private final long hash;
+
+		Digest(long size, long lastModified, long hash) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.hash = hash;
+		}
 	}
 
 }
@@ -19,6 +19,7 @@ import java.net.URL;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
@@ -27,6 +28,8 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.formatter.CodeFormatter;
 import org.eclipse.jdt.internal.formatter.DefaultCodeFormatterOptions;
 import org.eclipse.jdt.ls.core.internal.IConstants;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
@@ -36,6 +39,9 @@ import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 
 /**
  * load/store profiles from/to profilesKey
@@ -51,6 +57,14 @@ public class FormatterManager {
 
 	private final static String FORMATTER_OPTION_PREFIX = JavaCore.PLUGIN_ID + ".formatter"; //$NON-NLS-1$
 
+	private final static int MAX_FORMATTERS = 8;
+
+	/**
+	 * The configured formatters, keyed by their options. Building a formatter
+	 * parses all the options, which is costly when formatting on type.
+	 */
+	private final static Cache<Map<String, String>, CodeFormatter> FORMATTERS = CacheBuilder.newBuilder().maximumSize(MAX_FORMATTERS).build();
+
 	/**
 	 * A SAX event handler to parse the xml format for profiles.
 	 */
@@ -161,7 +175,26 @@ public class FormatterManager {
 		return handler.getSettings();
 	}
 
+	/**
+	 * Returns a formatter configured with the given options, which must not be
+	 * modified afterwards. The formatters are shared, callers must synchronize
+	 * on them while formatting.
+	 */
+	public static CodeFormatter getCodeFormatter(Map<String, String> options) {
+		try {
+			return FORMATTERS.get(options, () -> ToolFactory.createCodeFormatter(options));
+		} catch (ExecutionException e) {
+			JavaLanguageServerPlugin.logException(e.getMessage(), e);
+			return ToolFactory.createCodeFormatter(options);
+		}
+	}
+
+	public static void clearCodeFormatters() {
+		FORMATTERS.invalidateAll();
+	}
+
 	public static void configureFormatter(PreferenceManager preferenceManager, ProjectsManager projectsManager) {
+		clearCodeFormatters();
 		String formatterUrl = preferenceManager.getPreferences().getFormatterUrl();
 		Map<String, String> options = null;
 		if (formatterUrl != null) {
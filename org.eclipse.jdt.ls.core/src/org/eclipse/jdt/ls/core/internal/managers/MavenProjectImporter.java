@@ -13,6 +13,7 @@ package org.eclipse.jdt.ls.core.internal.managers;
 import java.io.File;
 import java.nio.file.FileSystems;
 import java.nio.file.PathMatcher;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -127,13 +128,14 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
 		Collection<IProject> projects = new LinkedHashSet<>();
 		Collection<MavenProjectInfo> toImport = new LinkedHashSet<>();
+		Collection<java.nio.file.Path> digestsToUpdate = new ArrayList<>();
 		long lastWorkspaceStateSaved = getLastWorkspaceStateModified();
 		//Separate existing projects from new ones
 		for (MavenProjectInfo projectInfo : files) {
 			File pom = projectInfo.getPomFile();
 			IContainer container = root.getContainerForLocation(new Path(pom.getAbsolutePath()));
 			if (container == null) {
-				digestStore.updateDigest(pom.toPath());
+				digestsToUpdate.add(pom.toPath());
 				toImport.add(projectInfo);
 			} else {
 				IProject project = container.getProject();
@@ -141,13 +143,14 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 					projects.add(container.getProject());
 				} else if (project != null) {
 					//Project doesn't have the Maven nature, so we (re)import it
-					digestStore.updateDigest(pom.toPath());
+					digestsToUpdate.add(pom.toPath());
 					// need to delete project due to m2e failing to create if linked and not the same name
 					project.delete(IProject.FORCE | IProject.NEVER_DELETE_PROJECT_CONTENT, subMonitor.split(5));
 					toImport.add(projectInfo);
 				}
 			}
 		}
+		digestStore.updateDigests(digestsToUpdate);
 		if (!toImport.isEmpty()) {
 			ProjectImportConfiguration importConfig = new ProjectImportConfiguration();
 			configurationManager.importProjects(toImport, importConfig, subMonitor.split(75));
@@ -0,0 +1,643 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.ProjectUtils;
+import org.eclipse.lsp4j.SymbolKind;
+
+/**
+ * Index of the types, methods and fields declared in the source folders of the
+ * workspace projects, used to answer <code>workspace/symbol</code> requests.
+ * <p>
+ * The index is built by a background job, started by the first query. Until
+ * the workspace was indexed, queries get no answer from the index, and must be
+ * answered by the search engine. The index is then updated incrementally: Java
+ * element deltas only mark the affected compilation units as dirty, and the
+ * job parses them again. Queries don't wait for it, and use the symbols
+ * indexed so far. The symbols are persisted in the plugin state location with
+ * the time stamp of their file, so that only the files modified while the
+ * server was stopped are parsed again after a restart. The symbols of a unit
+ * open in a working copy may not be saved yet, they are persisted without time
+ * stamp so that they are parsed again.
+ * </p>
+ * <p>
+ * Symbols are bucketed by the lower case first character of their name, so a
+ * query only scans the symbols which can possibly match it. Within a bucket,
+ * they are grouped by compilation unit, so that only the symbols of the
+ * changed units are replaced when they are indexed again.
+ * </p>
+ */
+public class WorkspaceSymbolIndex implements IElementChangedListener {
+
+	private static final String SERIALIZATION_FILE_NAME = ".workspace-symbols";
+	private static final int FORMAT_VERSION = 1;
+
+	/**
+	 * The delimiters following a project, package fragment root or package
+	 * fragment in the handle identifier of their children.
+	 */
+	private static final String HANDLE_DELIMITERS = "/<{";
+
+	/**
+	 * Match ranks, the lower the better.
+	 */
+	private static final int EXACT_MATCH = 0;
+	private static final int EXACT_IGNORE_CASE_MATCH = 1;
+	private static final int PREFIX_MATCH = 2;
+	private static final int PREFIX_IGNORE_CASE_MATCH = 3;
+	private static final int CAMEL_CASE_MATCH = 4;
+	private static final int PATTERN_MATCH = 5;
+	private static final int NO_MATCH = -1;
+
+	/**
+	 * Delay before the dirty units are indexed, in milliseconds, so that the
+	 * deltas of a batch of changes are processed together.
+	 */
+	private static final long UPDATE_DELAY = 200;
+
+	private final File stateFile;
+	private final Map<String, UnitSymbols> units = new ConcurrentHashMap<>();
+	private final Set<String> dirtyUnits = ConcurrentHashMap.newKeySet();
+	private volatile boolean needsSynchronization = true;
+	private volatile boolean synchronizing;
+	private volatile boolean modified;
+	private volatile boolean stale;
+	private volatile boolean requested;
+	private volatile Map<Character, Map<String, List<Symbol>>> buckets;
+
+	private final Job updateJob = new Job("Update workspace symbols") {
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				update(monitor);
+			} catch (OperationCanceledException e) {
+				return Status.CANCEL_STATUS;
+			}
+			return Status.OK_STATUS;
+		}
+	};
+
+	public WorkspaceSymbolIndex(File stateLocation) {
+		this.stateFile = new File(stateLocation, SERIALIZATION_FILE_NAME);
+		if (stateFile.isFile()) {
+			load();
+		}
+		updateJob.setSystem(true);
+	}
+
+	/**
+	 * Returns the symbols matching the query, most relevant first.
+	 *
+	 * @param query
+	 *            a prefix, camel case or wildcard (<code>*</code> and
+	 *            <code>?</code>) pattern
+	 * @param maxResults
+	 *            the maximum number of symbols to return, <code>0</code> if there
+	 *            is no limit
+	 * @param monitor
+	 *            the progress monitor
+	 * @return the matching symbols, or <code>null</code> if the workspace
+	 *         isn't indexed yet
+	 */
+	public List<Symbol> search(String query, int maxResults, IProgressMonitor monitor) {
+		requested = true;
+		Map<Character, Map<String, List<Symbol>>> snapshot = buckets;
+		if (snapshot == null || stale || needsSynchronization || !dirtyUnits.isEmpty()) {
+			updateJob.schedule();
+		}
+		if (snapshot == null || needsSynchronization || synchronizing) {
+			return null;
+		}
+		if (query == null || query.isEmpty()) {
+			return Collections.emptyList();
+		}
+		char[] pattern = query.toCharArray();
+		boolean isWildcard = query.indexOf('*') >= 0 || query.indexOf('?') >= 0;
+		boolean isLowerCase = query.equals(query.toLowerCase());
+		Collection<Map<String, List<Symbol>>> candidates;
+		char first = pattern[0];
+		if (first == '*' || first == '?') {
+			candidates = snapshot.values();
+		} else {
+			Map<String, List<Symbol>> bucket = snapshot.get(Character.toLowerCase(first));
+			candidates = bucket == null ? Collections.emptyList() : Collections.singleton(bucket);
+		}
+		// the head of the queue is the worst of the best matches found so far
+		Comparator<RankedSymbol> comparator = Comparator.<RankedSymbol> naturalOrder().reversed();
+		PriorityQueue<RankedSymbol> matches = new PriorityQueue<>(comparator);
+		for (Map<String, List<Symbol>> bucket : candidates) {
+			for (List<Symbol> unitSymbols : bucket.values()) {
+				for (Symbol symbol : unitSymbols) {
+					int rank = match(pattern, symbol.name, isWildcard, isLowerCase);
+					if (rank != NO_MATCH) {
+						matches.add(new RankedSymbol(symbol, rank));
+						if (maxResults > 0 && matches.size() > maxResults) {
+							matches.poll();
+						}
+					}
+				}
+			}
+			if (monitor != null && monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+		}
+		List<RankedSymbol> ranked = new ArrayList<>(matches);
+		Collections.sort(ranked);
+		List<Symbol> result = new ArrayList<>(ranked.size());
+		for (RankedSymbol rankedSymbol : ranked) {
+			result.add(rankedSymbol.symbol);
+		}
+		return result;
+	}
+
+	private static int match(char[] pattern, char[] name, boolean isWildcard, boolean isLowerCase) {
+		if (isWildcard) {
+			return CharOperation.match(pattern, name, false) ? PATTERN_MATCH : NO_MATCH;
+		}
+		if (CharOperation.equals(pattern, name)) {
+			return EXACT_MATCH;
+		}
+		if (CharOperation.prefixEquals(pattern, name)) {
+			return PREFIX_MATCH;
+		}
+		// as in the search engine, lower case queries match regardless of the case
+		if (isLowerCase && CharOperation.equals(pattern, name, false)) {
+			return EXACT_IGNORE_CASE_MATCH;
+		}
+		if (isLowerCase && CharOperation.prefixEquals(pattern, name, false)) {
+			return PREFIX_IGNORE_CASE_MATCH;
+		}
+		if (CharOperation.camelCaseMatch(pattern, name)) {
+			return CAMEL_CASE_MATCH;
+		}
+		return NO_MATCH;
+	}
+
+	/**
+	 * Brings the index up to date with the workspace. This is done by a
+	 * background job, which the queries don't wait for.
+	 */
+	public synchronized void update(IProgressMonitor monitor) {
+		boolean rebuild = stale || buckets == null;
+		stale = false;
+		boolean synchronizedWorkspace = needsSynchronization;
+		if (synchronizedWorkspace) {
+			needsSynchronization = false;
+			synchronizing = true;
+		}
+		try {
+			if (synchronizedWorkspace) {
+				synchronize(monitor);
+				rebuild |= stale;
+				stale = false;
+			}
+			for (String handle : new ArrayList<>(dirtyUnits)) {
+				if (monitor != null && monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				dirtyUnits.remove(handle);
+				UnitSymbols oldSymbols = units.get(handle);
+				indexUnit(handle);
+				if (!rebuild) {
+					// the queries use the buckets meanwhile, the symbols of the unit are replaced in place
+					updateBuckets(buckets, handle, oldSymbols, units.get(handle));
+				}
+			}
+			if (rebuild) {
+				Map<Character, Map<String, List<Symbol>>> newBuckets = new ConcurrentHashMap<>();
+				for (Map.Entry<String, UnitSymbols> entry : units.entrySet()) {
+					updateBuckets(newBuckets, entry.getKey(), null, entry.getValue());
+				}
+				buckets = newBuckets;
+			}
+		} catch (OperationCanceledException e) {
+			// the buckets are rebuilt by the next update
+			stale = true;
+			throw e;
+		} finally {
+			synchronizing = false;
+		}
+		// a synchronization happens at startup or when projects are added, save the whole index then
+		if (synchronizedWorkspace && modified) {
+			save();
+		}
+	}
+
+	/**
+	 * Replaces the symbols of a unit in the buckets.
+	 *
+	 * @param oldSymbols
+	 *            the symbols of the unit in the buckets, or <code>null</code>
+	 * @param newSymbols
+	 *            the new symbols of the unit, or <code>null</code> if it was
+	 *            removed
+	 */
+	private static void updateBuckets(Map<Character, Map<String, List<Symbol>>> buckets, String handle, UnitSymbols oldSymbols, UnitSymbols newSymbols) {
+		Map<Character, List<Symbol>> newGroups = groupByBucket(newSymbols);
+		for (Map.Entry<Character, List<Symbol>> group : newGroups.entrySet()) {
+			buckets.computeIfAbsent(group.getKey(), c -> new ConcurrentHashMap<>()).put(handle, group.getValue());
+		}
+		for (Character key : groupByBucket(oldSymbols).keySet()) {
+			if (!newGroups.containsKey(key)) {
+				Map<String, List<Symbol>> bucket = buckets.get(key);
+				if (bucket != null) {
+					bucket.remove(handle);
+				}
+			}
+		}
+	}
+
+	private static Map<Character, List<Symbol>> groupByBucket(UnitSymbols unitSymbols) {
+		Map<Character, List<Symbol>> groups = new HashMap<>();
+		if (unitSymbols != null) {
+			for (Symbol symbol : unitSymbols.symbols) {
+				if (symbol.name.length > 0) {
+					groups.computeIfAbsent(Character.toLowerCase(symbol.name[0]), c -> new ArrayList<>()).add(symbol);
+				}
+			}
+		}
+		return groups;
+	}
+
+	/**
+	 * Stops updating the index.
+	 */
+	public void dispose() {
+		requested = false;
+		updateJob.cancel();
+	}
+
+	/**
+	 * Marks the units which were added or modified since they were indexed as
+	 * dirty, and forgets the units which don't exist anymore.
+	 */
+	private void synchronize(IProgressMonitor monitor) {
+		Set<String> existingUnits = new HashSet<>();
+		for (IJavaProject project : ProjectUtils.getJavaProjects()) {
+			try {
+				for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+					if (root.getKind() != IPackageFragmentRoot.K_SOURCE) {
+						continue;
+					}
+					for (IJavaElement child : root.getChildren()) {
+						if (monitor != null && monitor.isCanceled()) {
+							needsSynchronization = true;
+							throw new OperationCanceledException();
+						}
+						for (ICompilationUnit unit : ((IPackageFragment) child).getCompilationUnits()) {
+							String handle = unit.getHandleIdentifier();
+							existingUnits.add(handle);
+							UnitSymbols unitSymbols = units.get(handle);
+							if (unitSymbols == null || unitSymbols.timestamp != getTimestamp(unit)) {
+								dirtyUnits.add(handle);
+							}
+						}
+					}
+				}
+			} catch (JavaModelException e) {
+				JavaLanguageServerPlugin.logException("Failed to index the symbols of " + project.getElementName(), e);
+			}
+		}
+		if (units.keySet().retainAll(existingUnits)) {
+			modified = true;
+			stale = true;
+		}
+		dirtyUnits.retainAll(existingUnits);
+	}
+
+	private void indexUnit(String handle) {
+		IJavaElement element = JavaCore.create(handle);
+		if (!(element instanceof ICompilationUnit) || !element.exists()) {
+			if (units.remove(handle) != null) {
+				modified = true;
+			}
+			return;
+		}
+		ICompilationUnit unit = (ICompilationUnit) element;
+		try {
+			List<Symbol> symbols = new ArrayList<>();
+			for (IType type : unit.getAllTypes()) {
+				IType declaringType = type.getDeclaringType();
+				String typeContainer = declaringType == null ? type.getPackageFragment().getElementName() : declaringType.getFullyQualifiedName('.');
+				symbols.add(new Symbol(handle, type.getElementName(), getKind(type), typeContainer, getRelativeHandle(handle, type)));
+				String memberContainer = type.getFullyQualifiedName('.');
+				for (IField field : type.getFields()) {
+					symbols.add(new Symbol(handle, field.getElementName(), getKind(field), memberContainer, getRelativeHandle(handle, field)));
+				}
+				for (IMethod method : type.getMethods()) {
+					// constructors are found through their type
+					if (!method.isConstructor()) {
+						symbols.add(new Symbol(handle, method.getElementName(), SymbolKind.Method, memberContainer, getRelativeHandle(handle, method)));
+					}
+				}
+			}
+			// the working copy may not be saved, index the unit again on the next synchronization
+			long timestamp = unit.isWorkingCopy() ? IResource.NULL_STAMP : getTimestamp(unit);
+			units.put(handle, new UnitSymbols(timestamp, symbols));
+			modified = true;
+		} catch (JavaModelException e) {
+			JavaLanguageServerPlugin.logException("Failed to index the symbols of " + unit.getElementName(), e);
+		}
+	}
+
+	/**
+	 * Returns the handle identifier of the element, relative to the one of its
+	 * compilation unit.
+	 */
+	private static String getRelativeHandle(String unitHandle, IJavaElement element) {
+		return element.getHandleIdentifier().substring(unitHandle.length());
+	}
+
+	private static long getTimestamp(ICompilationUnit unit) {
+		IResource resource = unit.getResource();
+		return resource == null ? IResource.NULL_STAMP : resource.getLocalTimeStamp();
+	}
+
+	private static SymbolKind getKind(IType type) throws JavaModelException {
+		int flags = type.getFlags();
+		if (Flags.isAnnotation(flags)) {
+			return SymbolKind.Property;
+		}
+		if (Flags.isInterface(flags)) {
+			return SymbolKind.Interface;
+		}
+		if (Flags.isEnum(flags)) {
+			return SymbolKind.Enum;
+		}
+		return SymbolKind.Class;
+	}
+
+	private static SymbolKind getKind(IField field) throws JavaModelException {
+		if (field.isEnumConstant()) {
+			return SymbolKind.EnumMember;
+		}
+		int flags = field.getFlags();
+		if (Flags.isStatic(flags) && Flags.isFinal(flags)) {
+			return SymbolKind.Constant;
+		}
+		return SymbolKind.Field;
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		processDelta(event.getDelta());
+		if (requested && (stale || needsSynchronization || !dirtyUnits.isEmpty())) {
+			updateJob.schedule(UPDATE_DELAY);
+		}
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				break;
+			case IJavaElement.JAVA_PROJECT:
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			case IJavaElement.PACKAGE_FRAGMENT:
+				int flags = delta.getFlags();
+				if (delta.getKind() == IJavaElementDelta.REMOVED || (flags & (IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+					forget(element.getHandleIdentifier());
+					return;
+				}
+				if (delta.getKind() == IJavaElementDelta.ADDED || (flags & (IJavaElementDelta.F_OPENED | IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0) {
+					needsSynchronization = true;
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				ICompilationUnit unit = (ICompilationUnit) element;
+				if (unit.getOwner() == null) {
+					dirtyUnits.add(unit.getHandleIdentifier());
+				}
+				return;
+			default:
+				return;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			processDelta(child);
+		}
+	}
+
+	/**
+	 * Forgets the units contained in the element with the given handle.
+	 */
+	private void forget(String containerHandle) {
+		Set<String> removed = new HashSet<>();
+		for (String handle : units.keySet()) {
+			if (handle.startsWith(containerHandle) && (handle.length() == containerHandle.length() || HANDLE_DELIMITERS.indexOf(handle.charAt(containerHandle.length())) >= 0)) {
+				removed.add(handle);
+			}
+		}
+		if (!removed.isEmpty()) {
+			units.keySet().removeAll(removed);
+			dirtyUnits.removeAll(removed);
+			modified = true;
+			// the next update rebuilds the buckets
+			stale = true;
+		}
+	}
+
+	/**
+	 * Persists the index in the plugin state location.
+	 */
+	public synchronized void save() {
+		File tempFile = new File(stateFile.getParentFile(), SERIALIZATION_FILE_NAME + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+			out.writeInt(FORMAT_VERSION);
+			Map<String, UnitSymbols> snapshot = new HashMap<>(units);
+			out.writeInt(snapshot.size());
+			for (Map.Entry<String, UnitSymbols> entry : snapshot.entrySet()) {
+				UnitSymbols unitSymbols = entry.getValue();
+				out.writeUTF(entry.getKey());
+				out.writeLong(unitSymbols.timestamp);
+				out.writeInt(unitSymbols.symbols.size());
+				for (Symbol symbol : unitSymbols.symbols) {
+					out.writeUTF(new String(symbol.name));
+					out.writeByte(symbol.kind.getValue());
+					out.writeUTF(symbol.containerName);
+					out.writeUTF(symbol.handle);
+				}
+			}
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while saving the workspace symbols", e);
+			return;
+		}
+		try {
+			try {
+				Files.move(tempFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			modified = false;
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while saving the workspace symbols", e);
+		}
+	}
+
+	private void load() {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)))) {
+			if (in.readInt() != FORMAT_VERSION) {
+				return;
+			}
+			int unitCount = in.readInt();
+			for (int i = 0; i < unitCount; i++) {
+				String unitHandle = in.readUTF();
+				long timestamp = in.readLong();
+				int symbolCount = in.readInt();
+				List<Symbol> symbols = new ArrayList<>(symbolCount);
+				for (int j = 0; j < symbolCount; j++) {
+					String name = in.readUTF();
+					SymbolKind kind = SymbolKind.forValue(in.readByte());
+					String containerName = in.readUTF();
+					String handle = in.readUTF();
+					symbols.add(new Symbol(unitHandle, name, kind, containerName, handle));
+				}
+				units.put(unitHandle, new UnitSymbols(timestamp, symbols));
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while loading the workspace symbols", e);
+			units.clear();
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the index was modified since it was last
+	 *         saved
+	 */
+	public boolean isModified() {
+		return modified;
+	}
+
+	/**
+	 * A type, method or field declared in a workspace compilation unit.
+	 */
+	public static final class Symbol {
+		private final char[] name;
+		private final SymbolKind kind;
+		private final String containerName;
+		private final String unitHandle;
+		private final String handle;
+
+		Symbol(String unitHandle, String name, SymbolKind kind, String containerName, String handle) {
+			this.unitHandle = unitHandle;
+			this.name = name.toCharArray();
+			this.kind = kind;
+			this.containerName = containerName;
+			this.handle = handle;
+		}
+
+		public String getName() {
+			return new String(name);
+		}
+
+		public SymbolKind getKind() {
+			return kind;
+		}
+
+		public String getContainerName() {
+			return containerName;
+		}
+
+		/**
+		 * @return the Java element declaring the symbol, which may not exist
+		 *         anymore
+		 */
+		public IJavaElement getElement() {
+			return JavaCore.create(unitHandle + handle);
+		}
+	}
+
+	private static final class UnitSymbols {
+		private final long timestamp;
+		private final List<Symbol> symbols;
+
+		UnitSymbols(long timestamp, List<Symbol> symbols) {
+			this.timestamp = timestamp;
+			this.symbols = symbols;
+		}
+	}
+
+	private static final class RankedSymbol implements Comparable<RankedSymbol> {
+		private final Symbol symbol;
+		private final int rank;
+
+		RankedSymbol(Symbol symbol, int rank) {
+			this.symbol = symbol;
+			this.rank = rank;
+		}
+
+		@Override
+		public int compareTo(RankedSymbol other) {
+			int result = Integer.compare(rank, other.rank);
+			if (result == 0) {
+				result = Boolean.compare(!isType(symbol.kind), !isType(other.symbol.kind));
+			}
+			if (result == 0) {
+				result = Integer.compare(symbol.name.length, other.symbol.name.length);
+			}
+			if (result == 0) {
+				result = CharOperation.compareTo(symbol.name, other.symbol.name);
+			}
+			if (result == 0) {
+				result = symbol.containerName.compareTo(other.symbol.containerName);
+			}
+			return result;
+		}
+
+		private static boolean isType(SymbolKind kind) {
+			return kind == SymbolKind.Class || kind == SymbolKind.Interface || kind == SymbolKind.Enum || kind == SymbolKind.Property;
+		}
+	}
+}
@@ -291,6 +291,13 @@ public class PreferenceManager {
 		return getClientPreferences() != null && getClientPreferences().isClassFileContentSupported();
 	}
 
+	/**
+	 * Checks whether the client supports <code>workspace/applyEdit</code>
+	 */
+	public boolean isClientSupportsWorkspaceApplyEdit() {
+		return getClientPreferences() != null && getClientPreferences().isWorkspaceApplyEditSupported();
+	}
+
 	/**
 	 * Checks whether the client supports markdown in completion
 	 */
@@ -11,6 +11,7 @@
 package org.eclipse.jdt.ls.core.internal.preferences;
 
 import static org.eclipse.jdt.ls.core.internal.handlers.MapFlattener.getBoolean;
+import static org.eclipse.jdt.ls.core.internal.handlers.MapFlattener.getInt;
 import static org.eclipse.jdt.ls.core.internal.handlers.MapFlattener.getList;
 import static org.eclipse.jdt.ls.core.internal.handlers.MapFlattener.getString;
 
@@ -160,6 +161,33 @@ public class Preferences {
 	 */
 	public static final String JAVA_COMPLETION_GUESS_METHOD_ARGUMENTS_KEY = "java.completion.guessMethodArguments";
 
+	/**
+	 * Preference key for the maximum number of completion items returned to the
+	 * client. When more proposals are found, only the most relevant ones are
+	 * returned and the list is marked as incomplete. <code>0</code> disables the
+	 * limit.
+	 */
+	public static final String JAVA_COMPLETION_MAX_RESULTS_KEY = "java.completion.maxResults";
+	public static final int JAVA_COMPLETION_MAX_RESULTS_DEFAULT = 0;
+
+	/**
+	 * Preference key for the maximum number of symbols returned by
+	 * <code>workspace/symbol</code> requests. <code>0</code> disables the limit.
+	 */
+	public static final String JAVA_SYMBOLS_MAX_RESULTS_KEY = "java.symbols.maxResults";
+	public static final int JAVA_SYMBOLS_MAX_RESULTS_DEFAULT = 500;
+
+	/**
+	 * Preference key to compute the edits of code actions only when they are
+	 * applied. Code actions are then sent as commands executed by the server,
+	 * which applies the edit with <code>workspace/applyEdit</code>, rather than
+	 * as commands holding the edit.
+	 * <p>
+	 * Value is of type <code>Boolean</code>.
+	 * </p>
+	 */
+	public static final String JAVA_CODE_ACTION_LAZY_EDITS_KEY = "java.codeAction.lazyEdits.enabled";
+
 	/**
 	 * A named preference that defines how member elements are ordered by code
 	 * actions.
@@ -196,6 +224,21 @@ public class Preferences {
 	public static final String JAVA_IMPORT_ORDER_KEY = "java.completion.importOrder";
 	public static final List<String> JAVA_IMPORT_ORDER_DEFAULT;
 
+	/**
+	 * Preference key for the minimum delay, in milliseconds, between a document
+	 * change and its validation.
+	 */
+	public static final String JAVA_VALIDATION_DELAY_MIN_KEY = "java.validation.delay.min";
+	public static final int JAVA_VALIDATION_DELAY_MIN_DEFAULT = 150;
+
+	/**
+	 * Preference key for the maximum delay, in milliseconds, between a document
+	 * change and its validation. The actual delay is adapted to the measured
+	 * validation cost of the document, within these bounds.
+	 */
+	public static final String JAVA_VALIDATION_DELAY_MAX_KEY = "java.validation.delay.max";
+	public static final int JAVA_VALIDATION_DELAY_MAX_DEFAULT = 1500;
+
 	public static final String TEXT_DOCUMENT_FORMATTING = "textDocument/formatting";
 	public static final String TEXT_DOCUMENT_RANGE_FORMATTING = "textDocument/rangeFormatting";
 	public static final String TEXT_DOCUMENT_ON_TYPE_FORMATTING = "textDocument/onTypeFormatting";
@@ -253,6 +296,9 @@ public class Preferences {
 	private boolean completionEnabled;
 	private boolean completionOverwrite;
 	private boolean guessMethodArguments;
+	private int completionMaxResults;
+	private int symbolsMaxResults;
+	private boolean codeActionLazyEditsEnabled;
 	private boolean javaFormatComments;
 	private List<String> preferredContentProviderIds;
 
@@ -266,6 +312,8 @@ public class Preferences {
 	private String formatterUrl;
 	private String formatterProfileName;
 	private Collection<IPath> rootPaths;
+	private int validationDelayMin;
+	private int validationDelayMax;
 
 	static {
 		JAVA_IMPORT_EXCLUSIONS_DEFAULT = new ArrayList<>();
@@ -347,6 +395,9 @@ public class Preferences {
 		completionEnabled = true;
 		completionOverwrite = true;
 		guessMethodArguments = false;
+		completionMaxResults = JAVA_COMPLETION_MAX_RESULTS_DEFAULT;
+		symbolsMaxResults = JAVA_SYMBOLS_MAX_RESULTS_DEFAULT;
+		codeActionLazyEditsEnabled = false;
 		javaFormatComments = true;
 		preferredContentProviderIds = null;
 		javaImportExclusions = JAVA_IMPORT_EXCLUSIONS_DEFAULT;
@@ -355,6 +406,8 @@ public class Preferences {
 		formatterUrl = null;
 		formatterProfileName = null;
 		importOrder = JAVA_IMPORT_ORDER_DEFAULT;
+		validationDelayMin = JAVA_VALIDATION_DELAY_MIN_DEFAULT;
+		validationDelayMax = JAVA_VALIDATION_DELAY_MAX_DEFAULT;
 	}
 
 	/**
@@ -412,6 +465,15 @@ public class Preferences {
 		boolean guessMethodArguments = getBoolean(configuration, JAVA_COMPLETION_GUESS_METHOD_ARGUMENTS_KEY, false);
 		prefs.setGuessMethodArguments(guessMethodArguments);
 
+		int completionMaxResults = getInt(configuration, JAVA_COMPLETION_MAX_RESULTS_KEY, JAVA_COMPLETION_MAX_RESULTS_DEFAULT);
+		prefs.setCompletionMaxResults(completionMaxResults);
+
+		int symbolsMaxResults = getInt(configuration, JAVA_SYMBOLS_MAX_RESULTS_KEY, JAVA_SYMBOLS_MAX_RESULTS_DEFAULT);
+		prefs.setSymbolsMaxResults(symbolsMaxResults);
+
+		boolean codeActionLazyEditsEnabled = getBoolean(configuration, JAVA_CODE_ACTION_LAZY_EDITS_KEY, false);
+		prefs.setCodeActionLazyEditsEnabled(codeActionLazyEditsEnabled);
+
 		List<String> javaImportExclusions = getList(configuration, JAVA_IMPORT_EXCLUSIONS_KEY, JAVA_IMPORT_EXCLUSIONS_DEFAULT);
 		prefs.setJavaImportExclusions(javaImportExclusions);
 
@@ -441,6 +503,11 @@ public class Preferences {
 
 		List<String> javaImportOrder = getList(configuration, JAVA_IMPORT_ORDER_KEY, JAVA_IMPORT_ORDER_DEFAULT);
 		prefs.setImportOrder(javaImportOrder);
+
+		int validationDelayMin = getInt(configuration, JAVA_VALIDATION_DELAY_MIN_KEY, JAVA_VALIDATION_DELAY_MIN_DEFAULT);
+		prefs.setValidationDelayMin(validationDelayMin);
+		int validationDelayMax = getInt(configuration, JAVA_VALIDATION_DELAY_MAX_KEY, JAVA_VALIDATION_DELAY_MAX_DEFAULT);
+		prefs.setValidationDelayMax(validationDelayMax);
 		return prefs;
 	}
 
@@ -546,6 +613,21 @@ public class Preferences {
 		return this;
 	}
 
+	public Preferences setCompletionMaxResults(int completionMaxResults) {
+		this.completionMaxResults = Math.max(0, completionMaxResults);
+		return this;
+	}
+
+	public Preferences setSymbolsMaxResults(int symbolsMaxResults) {
+		this.symbolsMaxResults = Math.max(0, symbolsMaxResults);
+		return this;
+	}
+
+	public Preferences setCodeActionLazyEditsEnabled(boolean codeActionLazyEditsEnabled) {
+		this.codeActionLazyEditsEnabled = codeActionLazyEditsEnabled;
+		return this;
+	}
+
 	public Preferences setJavaFormatEnabled(boolean enabled) {
 		this.javaFormatEnabled = enabled;
 		return this;
@@ -661,6 +743,26 @@ public class Preferences {
 		return guessMethodArguments;
 	}
 
+	/**
+	 * @return the maximum number of completion items, <code>0</code> if there is
+	 *         no limit
+	 */
+	public int getCompletionMaxResults() {
+		return completionMaxResults;
+	}
+
+	/**
+	 * @return the maximum number of workspace symbols, <code>0</code> if there is
+	 *         no limit
+	 */
+	public int getSymbolsMaxResults() {
+		return symbolsMaxResults;
+	}
+
+	public boolean isCodeActionLazyEditsEnabled() {
+		return codeActionLazyEditsEnabled;
+	}
+
 	public Preferences setMavenUserSettings(String mavenUserSettings) {
 		this.mavenUserSettings = mavenUserSettings;
 		return this;
@@ -697,4 +799,26 @@ public class Preferences {
 	public void setJavaFormatOnTypeEnabled(boolean javaFormatOnTypeEnabled) {
 		this.javaFormatOnTypeEnabled = javaFormatOnTypeEnabled;
 	}
+
+	public Preferences setValidationDelayMin(int validationDelayMin) {
+		this.validationDelayMin = Math.max(0, validationDelayMin);
+		return this;
+	}
+
+	public int getValidationDelayMin() {
+		return validationDelayMin;
+	}
+
+	public Preferences setValidationDelayMax(int validationDelayMax) {
+		this.validationDelayMax = Math.max(0, validationDelayMax);
+		return this;
+	}
+
+	/**
+	 * @return the maximum validation delay, never lower than
+	 *         {@link #getValidationDelayMin()}
+	 */
+	public int getValidationDelayMax() {
+		return Math.max(validationDelayMin, validationDelayMax);
+	}
 }
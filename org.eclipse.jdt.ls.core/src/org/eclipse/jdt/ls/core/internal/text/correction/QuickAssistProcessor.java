@@ -23,10 +23,17 @@ package org.eclipse.jdt.ls.core.internal.text.correction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -40,6 +47,7 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Annotation;
 import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
 import org.eclipse.jdt.core.dom.ArrayCreation;
 import org.eclipse.jdt.core.dom.ArrayInitializer;
@@ -60,6 +68,7 @@ import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.IVariableBinding;
 import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.Javadoc;
 import org.eclipse.jdt.core.dom.LambdaExpression;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.MethodInvocation;
@@ -80,6 +89,7 @@ import org.eclipse.jdt.core.dom.TryStatement;
 import org.eclipse.jdt.core.dom.Type;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.dom.TypeMethodReference;
+import org.eclipse.jdt.core.dom.TypeParameter;
 import org.eclipse.jdt.core.dom.UnionType;
 import org.eclipse.jdt.core.dom.VariableDeclaration;
 import org.eclipse.jdt.core.dom.VariableDeclarationExpression;
@@ -100,6 +110,7 @@ import org.eclipse.jdt.internal.corext.fix.IProposableFix;
 import org.eclipse.jdt.internal.corext.fix.LinkedProposalModelCore;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 import org.eclipse.jdt.internal.ui.text.correction.IProblemLocationCore;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.corext.fix.LambdaExpressionsCleanUp;
 import org.eclipse.jdt.ls.core.internal.corext.fix.LambdaExpressionsFix;
 import org.eclipse.jdt.ls.core.internal.corext.refactoring.code.ExtractConstantRefactoring;
@@ -137,7 +148,136 @@ public class QuickAssistProcessor {
 	public static final String CONVERT_TO_MESSAGE_FORMAT_ID = "org.eclipse.jdt.ls.correction.convertToMessageFormat.assist"; //$NON-NLS-1$;
 	public static final String EXTRACT_METHOD_INPLACE_ID = "org.eclipse.jdt.ls.correction.extractMethodInplace.assist"; //$NON-NLS-1$;
 
+	/**
+	 * Assists taking longer than this are logged, with their accumulated
+	 * timings.
+	 */
+	private static final long SLOW_ASSIST_THRESHOLD_MS = 100;
+
+	/**
+	 * The assists computed by {@link #getAssists}, in order, with the types of
+	 * the nodes at the selection they can apply to. Most assists only look at
+	 * the covering node.
+	 */
+	private enum Assist {
+		// the covered expression, or the covering one when nothing is selected
+		EXTRACT_VARIABLE(true, Expression.class),
+		EXTRACT_METHOD(false, Expression.class, Statement.class),
+		// the covering node is searched upwards through names, types and the declarations of an anonymous class
+		CONVERT_ANONYMOUS_TO_LAMBDA(false, ClassInstanceCreation.class, AnonymousClassDeclaration.class, BodyDeclaration.class, Name.class, Type.class, Dimension.class, Block.class,
+				SingleVariableDeclaration.class, Modifier.class, Annotation.class, TypeParameter.class, Javadoc.class) {
+			@Override
+			boolean accepts(ASTNode node) {
+				// all these nodes are part of the anonymous class creation
+				return node instanceof ClassInstanceCreation || ASTNodes.getParent(node, ClassInstanceCreation.class) != null;
+			}
+		},
+		CONVERT_VAR_TO_RESOLVED_TYPE(false, SimpleName.class),
+		CONVERT_RESOLVED_TYPE_TO_VAR(false, SimpleName.class);
+
+		private final boolean usesCoveredNode;
+		private final Class<?>[] nodeTypes;
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+
+		private Assist(boolean usesCoveredNode, Class<?>... nodeTypes) {
+			this.usesCoveredNode = usesCoveredNode;
+			this.nodeTypes = nodeTypes;
+		}
+
+		private boolean appliesTo(Class<?> nodeType) {
+			for (Class<?> type : nodeTypes) {
+				if (type.isAssignableFrom(nodeType)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Checks the position of a node of one of the types of the assist.
+		 */
+		boolean accepts(ASTNode node) {
+			return true;
+		}
+
+		private void record(long elapsed) {
+			calls.increment();
+			nanos.add(elapsed);
+			long millis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+			if (millis > SLOW_ASSIST_THRESHOLD_MS) {
+				JavaLanguageServerPlugin.logInfo("Quick assist " + name() + " took " + millis + " ms (" + calls.sum() + " calls, " + TimeUnit.NANOSECONDS.toMillis(nanos.sum()) + " ms in total)");
+			}
+		}
+	}
+
+	/**
+	 * The assists which can apply, by type of node, built lazily from the
+	 * declarations of {@link Assist}.
+	 */
+	private static final Map<Class<?>, Set<Assist>> ASSISTS_BY_NODE_TYPE = new ConcurrentHashMap<>();
+
+	private final boolean filterAssists;
+
 	public QuickAssistProcessor() {
+		this(true);
+	}
+
+	/**
+	 * @param filterAssists
+	 *            whether only the assists which can apply to the types of the
+	 *            selected nodes are computed, rather than all of them
+	 */
+	public QuickAssistProcessor(boolean filterAssists) {
+		this.filterAssists = filterAssists;
+	}
+
+	/**
+	 * Returns the number of calls and the total time in milliseconds of each
+	 * assist since the server started, by assist name.
+	 */
+	public static Map<String, long[]> getAssistTimings() {
+		Map<String, long[]> timings = new LinkedHashMap<>();
+		for (Assist assist : Assist.values()) {
+			timings.put(assist.name(), new long[] { assist.calls.sum(), TimeUnit.NANOSECONDS.toMillis(assist.nanos.sum()) });
+		}
+		return timings;
+	}
+
+	private static Set<Assist> getCandidates(ASTNode node) {
+		if (node == null) {
+			return Collections.emptySet();
+		}
+		return ASSISTS_BY_NODE_TYPE.computeIfAbsent(node.getClass(), nodeType -> {
+			EnumSet<Assist> assists = EnumSet.noneOf(Assist.class);
+			for (Assist assist : Assist.values()) {
+				if (assist.appliesTo(nodeType)) {
+					assists.add(assist);
+				}
+			}
+			return Collections.unmodifiableSet(assists);
+		});
+	}
+
+	/**
+	 * Returns the assists to compute, in order.
+	 */
+	private Set<Assist> getCandidates(ASTNode coveringNode, ASTNode coveredNode) {
+		if (!filterAssists) {
+			return EnumSet.allOf(Assist.class);
+		}
+		EnumSet<Assist> candidates = EnumSet.noneOf(Assist.class);
+		for (Assist assist : getCandidates(coveringNode)) {
+			if (assist.accepts(coveringNode)) {
+				candidates.add(assist);
+			}
+		}
+		for (Assist assist : getCandidates(coveredNode)) {
+			if (assist.usesCoveredNode && assist.accepts(coveredNode)) {
+				candidates.add(assist);
+			}
+		}
+		return candidates;
 	}
 
 	public CUCorrectionProposal[] getAssists(IInvocationContext context, IProblemLocationCore[] locations) throws CoreException {
@@ -171,12 +311,17 @@ public class QuickAssistProcessor {
 				//				getInvertEqualsProposal(context, coveringNode, resultingCollections);
 				//				getArrayInitializerToArrayCreation(context, coveringNode, resultingCollections);
 				//				getCreateInSuperClassProposals(context, coveringNode, resultingCollections);
-				getExtractVariableProposal(context, problemsAtLocation, resultingCollections);
-				getExtractMethodProposal(context, coveringNode, problemsAtLocation, resultingCollections);
+				for (Assist assist : getCandidates(coveringNode, context.getCoveredNode())) {
+					long start = System.nanoTime();
+					try {
+						getAssist(assist, context, coveringNode, problemsAtLocation, resultingCollections);
+					} finally {
+						assist.record(System.nanoTime() - start);
+					}
+				}
 				//				getInlineLocalProposal(context, coveringNode, resultingCollections);
 				//				getConvertLocalToFieldProposal(context, coveringNode, resultingCollections);
 				//				getConvertAnonymousToNestedProposal(context, coveringNode, resultingCollections);
-				getConvertAnonymousClassCreationsToLambdaProposals(context, coveringNode, resultingCollections);
 				//				getConvertLambdaToAnonymousClassCreationsProposals(context, coveringNode, resultingCollections);
 				//				getChangeLambdaBodyToBlockProposal(context, coveringNode, resultingCollections);
 				//				getChangeLambdaBodyToExpressionProposal(context, coveringNode, resultingCollections);
@@ -192,14 +337,29 @@ public class QuickAssistProcessor {
 				//				getMakeVariableDeclarationFinalProposals(context, resultingCollections);
 				//				getConvertStringConcatenationProposals(context, resultingCollections);
 				//				getMissingCaseStatementProposals(context, coveringNode, resultingCollections);
-				getConvertVarTypeToResolvedTypeProposal(context, coveringNode, resultingCollections);
-				getConvertResolvedTypeToVarTypeProposal(context, coveringNode, resultingCollections);
 			}
 			return resultingCollections.toArray(new CUCorrectionProposal[resultingCollections.size()]);
 		}
 		return new CUCorrectionProposal[0];
 	}
 
+	private static boolean getAssist(Assist assist, IInvocationContext context, ASTNode coveringNode, boolean problemsAtLocation, Collection<CUCorrectionProposal> proposals) throws CoreException {
+		switch (assist) {
+			case EXTRACT_VARIABLE:
+				return getExtractVariableProposal(context, problemsAtLocation, proposals);
+			case EXTRACT_METHOD:
+				return getExtractMethodProposal(context, coveringNode, problemsAtLocation, proposals);
+			case CONVERT_ANONYMOUS_TO_LAMBDA:
+				return getConvertAnonymousClassCreationsToLambdaProposals(context, coveringNode, proposals);
+			case CONVERT_VAR_TO_RESOLVED_TYPE:
+				return getConvertVarTypeToResolvedTypeProposal(context, coveringNode, proposals);
+			case CONVERT_RESOLVED_TYPE_TO_VAR:
+				return getConvertResolvedTypeToVarTypeProposal(context, coveringNode, proposals);
+			default:
+				return false;
+		}
+	}
+
 	private static boolean getConvertVarTypeToResolvedTypeProposal(IInvocationContext context, ASTNode node, Collection<CUCorrectionProposal> proposals) {
 		CompilationUnit astRoot = context.getASTRoot();
 		IJavaElement root = astRoot.getJavaElement();
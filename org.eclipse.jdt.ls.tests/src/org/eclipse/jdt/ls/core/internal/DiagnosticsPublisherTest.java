@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.Range;
+import org.junit.After;
+import org.junit.Test;
+
+public class DiagnosticsPublisherTest {
+
+	private static final String URI = "file:///Foo.java";
+	private static final String OTHER_URI = "file:///Bar.java";
+
+	private List<PublishDiagnosticsParams> sent = new ArrayList<>();
+	private DiagnosticsPublisher publisher;
+
+	@After
+	public void tearDown() {
+		if (publisher != null) {
+			publisher.dispose();
+		}
+	}
+
+	@Test
+	public void testIdenticalDiagnosticsSuppressed() throws Exception {
+		publisher = new DiagnosticsPublisher(sent::add, 0);
+		publisher.publish(params(URI, "error"));
+		publisher.publish(params(URI, "error"));
+		publisher.publish(params(OTHER_URI, "error"));
+		assertEquals(2, sent.size());
+		assertEquals(2, publisher.getSentMessages());
+		assertEquals(1, publisher.getSuppressedMessages());
+		assertTrue(publisher.getSuppressedBytes() > 0);
+		assertEquals(publisher.getSentBytes(), 2 * publisher.getSuppressedBytes());
+
+		publisher.publish(params(URI));
+		publisher.publish(params(URI));
+		assertEquals(3, sent.size());
+		assertEquals(0, sent.get(2).getDiagnostics().size());
+	}
+
+	@Test
+	public void testBurstCoalesced() throws Exception {
+		publisher = new DiagnosticsPublisher(sent::add, 10_000);
+		publisher.publish(params(URI, "first"));
+		assertEquals(1, sent.size());
+
+		publisher.publish(params(URI, "second"));
+		PublishDiagnosticsParams last = params(URI, "third");
+		publisher.publish(last);
+		publisher.publish(params(OTHER_URI, "other"));
+		assertEquals(2, sent.size());
+		assertEquals(OTHER_URI, sent.get(1).getUri());
+
+		publisher.flush();
+		assertEquals(3, sent.size());
+		assertSame(last, sent.get(2));
+		assertEquals(3, publisher.getSentMessages());
+		assertEquals(1, publisher.getSuppressedMessages());
+	}
+
+	@Test
+	public void testRevertedBurstSuppressed() throws Exception {
+		publisher = new DiagnosticsPublisher(sent::add, 10_000);
+		publisher.publish(params(URI, "error"));
+		publisher.publish(params(URI));
+		publisher.publish(params(URI, "error"));
+		publisher.flush();
+		assertEquals(1, sent.size());
+		assertEquals(2, publisher.getSuppressedMessages());
+	}
+
+	private static PublishDiagnosticsParams params(String uri, String... messages) {
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		for (String message : messages) {
+			Range range = new Range(new Position(0, 0), new Position(0, 1));
+			diagnostics.add(new Diagnostic(range, message, DiagnosticSeverity.Error, JavaLanguageServerPlugin.SERVER_SOURCE_ID));
+		}
+		return new PublishDiagnosticsParams(uri, messages.length == 0 ? Collections.emptyList() : diagnostics);
+	}
+}
@@ -13,7 +13,9 @@ package org.eclipse.jdt.ls.core.internal;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
@@ -128,6 +130,29 @@ public class JDTUtilsTest extends AbstractWorkspaceTest {
 	}
 
 
+	@Test
+	public void testCachedCompilationUnit() throws Exception {
+		URI uri = Paths.get("projects", "eclipse", "hello", "src", "java", "Foo.java").toAbsolutePath().toUri();
+		// links the file to the default project, which drops the cache
+		JDTUtils.resolveCompilationUnit(uri);
+		ICompilationUnit cu = JDTUtils.resolveCompilationUnit(uri);
+		assertNotNull("Could not find compilation unit for " + uri, cu);
+		TypeRootCache.setRequest("test");
+		try {
+			assertSame(cu, JDTUtils.resolveCompilationUnit(uri));
+			assertSame(cu, JDTUtils.resolveTypeRoot(uri.toString()));
+		} finally {
+			TypeRootCache.setRequest(null);
+		}
+		assertEquals(2, JavaLanguageServerPlugin.getTypeRootCache().getStatistics().get("test").getHits());
+
+		// removing the link drops the cached compilation unit
+		cu.getResource().delete(true, null);
+		ICompilationUnit relinked = JDTUtils.resolveCompilationUnit(uri);
+		assertNotSame(cu, relinked);
+		assertEquals(cu, relinked);
+	}
+
 	@Test
 	public void testUnresolvableCompilationUnits() throws Exception {
 		assertNull(JDTUtils.resolveCompilationUnit((String)null));
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.correction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.manipulation.CoreASTProvider;
+import org.eclipse.jdt.internal.ui.text.correction.IProblemLocationCore;
+import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
+import org.eclipse.jdt.ls.core.internal.corrections.InnovationContext;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.CUCorrectionProposal;
+import org.eclipse.jdt.ls.core.internal.text.correction.QuickAssistProcessor;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QuickAssistProcessorTest extends AbstractQuickFixTest {
+
+	private IPackageFragmentRoot sourceFolder;
+
+	@Before
+	public void setup() throws Exception {
+		importProjects("eclipse/java10");
+		IProject project = WorkspaceHelper.getProject("java10");
+		IJavaProject javaProject = JavaCore.create(project);
+		sourceFolder = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src/main/java"));
+	}
+
+	@Test
+	public void testFilteredAssists() throws Exception {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("foo.bar", false, null);
+		StringBuilder buf = new StringBuilder();
+		buf.append("package foo.bar;\n");
+		buf.append("public class Test {\n");
+		buf.append("    public void test(int count) {\n");
+		buf.append("        var name = \"test\";\n");
+		buf.append("        String other = name + count;\n");
+		buf.append("        Runnable r = new Runnable() {\n");
+		buf.append("            @Override\n");
+		buf.append("            public void run() {\n");
+		buf.append("                System.out.println(other);\n");
+		buf.append("            }\n");
+		buf.append("        };\n");
+		buf.append("        r.run();\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		ICompilationUnit cu = pack1.createCompilationUnit("Test.java", buf.toString(), false, null);
+		CompilationUnit astRoot = CoreASTProvider.getInstance().getAST(cu, CoreASTProvider.WAIT_YES, null);
+
+		// select every node, and put the cursor at its start and end
+		List<int[]> selections = new ArrayList<>();
+		astRoot.accept(new ASTVisitor(true) {
+			@Override
+			public void preVisit(ASTNode node) {
+				selections.add(new int[] { node.getStartPosition(), node.getLength() });
+				selections.add(new int[] { node.getStartPosition(), 0 });
+				selections.add(new int[] { node.getStartPosition() + node.getLength(), 0 });
+			}
+		});
+
+		long extractVariableCalls = QuickAssistProcessor.getAssistTimings().get("EXTRACT_VARIABLE")[0];
+		QuickAssistProcessor filtered = new QuickAssistProcessor();
+		QuickAssistProcessor unfiltered = new QuickAssistProcessor(false);
+		int proposals = 0;
+		for (int[] selection : selections) {
+			InnovationContext context = new InnovationContext(cu, selection[0], selection[1]);
+			context.setASTRoot(astRoot);
+			List<String> expected = getNames(unfiltered.getAssists(context, new IProblemLocationCore[0]));
+			List<String> actual = getNames(filtered.getAssists(context, new IProblemLocationCore[0]));
+			assertEquals("Selection " + selection[0] + ", " + selection[1], expected, actual);
+			proposals += actual.size();
+		}
+		assertTrue("No assist was proposed", proposals > 0);
+		assertTrue("The assist calls were not counted", QuickAssistProcessor.getAssistTimings().get("EXTRACT_VARIABLE")[0] > extractVariableCalls);
+	}
+
+	private static List<String> getNames(CUCorrectionProposal[] proposals) {
+		return Arrays.stream(proposals).map(CUCorrectionProposal::getName).collect(Collectors.toList());
+	}
+}
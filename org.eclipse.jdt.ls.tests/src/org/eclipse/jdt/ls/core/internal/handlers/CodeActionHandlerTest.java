@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
+import static org.mockito.Mockito.when;
+
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collections;
@@ -83,6 +85,42 @@ public class CodeActionHandlerTest extends AbstractCompilationUnitBasedTest {
 		Assert.assertEquals(CodeActionHandler.COMMAND_ID_APPLY_EDIT, c.getCommand());
 	}
 
+	@Test
+	public void testCodeAction_lazyEdit() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"import java.sql.*; \n" +
+						"public class Foo {\n"+
+						"	void foo() {\n"+
+						"	}\n"+
+				"}\n");
+
+		CodeActionParams params = new CodeActionParams();
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(unit)));
+		final Range range = getRange(unit, "java.sql");
+		params.setRange(range);
+		params.setContext(new CodeActionContext(Arrays.asList(getDiagnostic(Integer.toString(IProblem.UnusedImport), range))));
+		when(preferenceManager.isClientSupportsWorkspaceApplyEdit()).thenReturn(true);
+		// the edits are computed eagerly unless the client opts in
+		List<Command> commands = new CodeActionHandler(preferenceManager).getCodeActionCommands(params, new NullProgressMonitor());
+		Assert.assertEquals(2, commands.size());
+		Assert.assertEquals(CodeActionHandler.COMMAND_ID_APPLY_EDIT, commands.get(0).getCommand());
+
+		preferences.setCodeActionLazyEditsEnabled(true);
+		commands = new CodeActionHandler(preferenceManager).getCodeActionCommands(params, new NullProgressMonitor());
+		Assert.assertEquals(2, commands.size());
+		Command c = commands.get(0);
+		Assert.assertEquals(CodeActionHandler.COMMAND_ID_APPLY_CODE_ACTION, c.getCommand());
+
+		WorkspaceEdit edit = CodeActionHandler.resolveCodeAction(c.getArguments());
+		Assert.assertNotNull(edit);
+		Assert.assertFalse(edit.getChanges().get(JDTUtils.toURI(unit)).isEmpty());
+
+		// the code action is outdated once the document changes
+		unit.getBuffer().append("\n");
+		Assert.assertNull(CodeActionHandler.resolveCodeAction(c.getArguments()));
+	}
+
 	@Test
 	public void testCodeAction_removeUnterminatedString() throws Exception{
 		ICompilationUnit unit = getWorkingCopy(
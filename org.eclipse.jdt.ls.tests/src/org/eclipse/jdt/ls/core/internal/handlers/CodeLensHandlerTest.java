@@ -26,7 +26,10 @@ import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.ClassFileUtil;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
@@ -334,6 +337,28 @@ public class CodeLensHandlerTest extends AbstractProjectsManagerBasedTest {
 		assertRange(5, 25, 28, loc.getRange());
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testResolveCodeLensesOfUnit() throws Exception {
+		CodeLens lens = getParams(createCodeLensRequest("src/java/Foo.java", 5, 13, 16));
+		CodeLens result = handler.resolve(lens, monitor);
+		assertEquals("1 reference", result.getCommand().getTitle());
+
+		// the references to the other elements of the unit were searched at once
+		IType type = JavaCore.create(project).findType("java.Foo");
+		ReferencesCache cache = JavaLanguageServerPlugin.getReferencesCache();
+		List<Location> locations = cache.get(type);
+		assertNotNull(locations);
+		assertEquals(1, locations.size());
+		assertNotNull(cache.get(type.getMethod("foo", new String[0])));
+		assertNotNull(cache.get(type.getMethod("main", new String[] { "[QString;" })));
+
+		// and are reused by the next resolutions
+		lens = getParams(createCodeLensRequest("src/java/Foo.java", 5, 13, 16));
+		result = handler.resolve(lens, monitor);
+		assertSame(locations, result.getCommand().getArguments().get(2));
+	}
+
 	@Test
 	public void testResolveCodeLenseBoundaries() {
 		CodeLens result = handler.resolve(null, monitor);
@@ -16,6 +16,7 @@ import static org.eclipse.jdt.ls.core.internal.Lsp4jAssertions.assertTextEdit;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -34,6 +35,7 @@ import java.util.stream.Collectors;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.CompletionProposal;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
@@ -248,6 +250,170 @@ public class CompletionHandlerTest extends AbstractCompilationUnitBasedTest {
 	}
 
 
+	@Test
+	public void testCompletion_responseMissAfterEdit() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+			"src/java/Foo.java",
+			"public class Foo {\n"+
+				"	void foo(String s) {\n"+
+				"		s.to\n"+
+				"	}\n"+
+				"}\n");
+		String uri = JDTUtils.toURI(unit);
+		int[] loc = findCompletionLocation(unit, "s.to");
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertFalse("No proposals were found", list.getItems().isEmpty());
+		@SuppressWarnings("unchecked")
+		Map<String, String> data = (Map<String, String>) list.getItems().get(0).getData();
+		long version = Long.parseLong(data.get(CompletionResolveHandler.DATA_FIELD_DOCUMENT_VERSION));
+		Long requestId = Long.valueOf(data.get(CompletionResolveHandler.DATA_FIELD_REQUEST_ID));
+		assertNotNull(CompletionResponses.get(uri, version, requestId));
+
+		unit.getBuffer().setContents(unit.getSource().replace("s.to", "s.ch"));
+		loc = findCompletionLocation(unit, "s.ch");
+		list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertFalse("No proposals were found", list.getItems().isEmpty());
+		@SuppressWarnings("unchecked")
+		Map<String, String> newData = (Map<String, String>) list.getItems().get(0).getData();
+		long newVersion = Long.parseLong(newData.get(CompletionResolveHandler.DATA_FIELD_DOCUMENT_VERSION));
+		assertFalse("The document version didn't change", version == newVersion);
+		// the response computed before the edit isn't found for the new version
+		assertNull(CompletionResponses.get(uri, newVersion, requestId));
+		assertNotNull(CompletionResponses.get(uri, newVersion, Long.valueOf(newData.get(CompletionResolveHandler.DATA_FIELD_REQUEST_ID))));
+	}
+
+	@Test
+	public void testCompletion_resolveEvictedResponse() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+			"src/java/Foo.java",
+			"public class Foo {\n"+
+				"	void foo() {\n"+
+				"		HashMap<String, String> map = new HashMap<>();\n"+
+				"		map.pu\n"+
+				"	}\n"+
+				"}\n");
+		String uri = JDTUtils.toURI(unit);
+		int[] loc = findCompletionLocation(unit, "map.pu");
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		CompletionItem item = list.getItems().stream()
+				.filter(i -> i.getLabel().matches("put\\(String \\w+, String \\w+\\) : String"))
+				.findFirst().orElse(null);
+		assertNotNull(item);
+		@SuppressWarnings("unchecked")
+		Map<String, String> data = (Map<String, String>) item.getData();
+		long version = Long.parseLong(data.get(CompletionResolveHandler.DATA_FIELD_DOCUMENT_VERSION));
+		Long requestId = Long.valueOf(data.get(CompletionResolveHandler.DATA_FIELD_REQUEST_ID));
+		String insertText = item.getInsertText();
+
+		long evictions = CompletionResponses.getStats().evictionCount();
+		for (int i = 0; i < CompletionResponses.MAX_SIZE; i++) {
+			server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join();
+		}
+		assertNull("The least recently used response wasn't evicted", CompletionResponses.get(uri, version, requestId));
+		assertTrue(CompletionResponses.getStats().evictionCount() > evictions);
+
+		// the proposals are computed again, and the item still gets its edits and imports
+		CompletionItem resolved = server.resolveCompletionItem(item).join();
+		assertEquals(insertText, resolved.getInsertText());
+		assertTextEdit(3, 6, 8, "put", resolved.getTextEdit());
+		assertNotNull(resolved.getAdditionalTextEdits());
+		assertEquals(3, resolved.getAdditionalTextEdits().size());
+	}
+
+	@Test
+	public void testCompletion_refinePrefix() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+			"src/java/Foo.java",
+			"public class Foo {\n"+
+				"	void foo(String s) {\n"+
+				"		s.to\n"+
+				"	}\n"+
+				"}\n");
+		int[] loc = findCompletionLocation(unit, "s.to");
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertFalse("No proposals were found", list.getItems().isEmpty());
+		CompletionResponse first = CompletionResponses.getLatest(JDTUtils.toURI(unit));
+		assertEquals("to", first.getPrefix());
+		CompletionItem firstItem = list.getItems().get(0);
+
+		unit.getBuffer().setContents(unit.getSource().replace("s.to", "s.toU"));
+		loc = findCompletionLocation(unit, "s.toU");
+		list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertFalse(list.isIncomplete());
+		assertFalse("No proposals were found", list.getItems().isEmpty());
+		for (CompletionItem item : list.getItems()) {
+			assertTrue(item.getLabel(), item.getLabel().startsWith("toUpperCase"));
+		}
+		CompletionResponse refined = CompletionResponses.getLatest(JDTUtils.toURI(unit));
+		assertEquals("toU", refined.getPrefix());
+		assertTrue("The previous proposals were not reused", first.getProposals().containsAll(refined.getProposals()));
+		assertEquals(first.getOffset(), refined.getProposalsOffset());
+		assertEquals(first.getOffset() + 1, refined.getContext().getOffset());
+
+		CompletionItem resolved = server.resolveCompletionItem(list.getItems().get(0)).join();
+		Range range = resolved.getTextEdit().getRange();
+		assertEquals(4, range.getStart().getCharacter());
+		assertEquals(7, range.getEnd().getCharacter());
+
+		// the shared proposals are left as they were computed
+		for (CompletionProposal proposal : refined.getProposals()) {
+			assertEquals(first.getOffset(), proposal.getReplaceEnd());
+		}
+		resolved = server.resolveCompletionItem(firstItem).join();
+		range = resolved.getTextEdit().getRange();
+		assertEquals(4, range.getStart().getCharacter());
+		assertEquals(6, range.getEnd().getCharacter());
+	}
+
+	@Test
+	public void testCompletion_refineAfterOtherChange() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+			"src/java/Foo.java",
+			"public class Foo {\n"+
+				"	void foo(String s) {\n"+
+				"		s.to\n"+
+				"	}\n"+
+				"}\n");
+		int[] loc = findCompletionLocation(unit, "s.to");
+		server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		CompletionResponse first = CompletionResponses.getLatest(JDTUtils.toURI(unit));
+		assertEquals("to", first.getPrefix());
+
+		unit.getBuffer().setContents(unit.getSource().replace("s.to", "s.toU").replace("void foo", "int i;\n\tvoid foo"));
+		loc = findCompletionLocation(unit, "s.toU");
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertFalse("No proposals were found", list.getItems().isEmpty());
+		CompletionResponse response = CompletionResponses.getLatest(JDTUtils.toURI(unit));
+		assertNotSame(first, response);
+		for (CompletionProposal proposal : response.getProposals()) {
+			assertFalse("Stale proposals were reused", first.getProposals().contains(proposal));
+		}
+	}
+
+	@Test
+	public void testCompletion_maxResults() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+			"src/java/Foo.java",
+			"public class Foo {\n"+
+				"	void foo(String s) {\n"+
+				"		s.to\n"+
+				"	}\n"+
+				"}\n");
+		int maxResults = JavaLanguageServerPlugin.getPreferencesManager().getPreferences().getCompletionMaxResults();
+		try {
+			JavaLanguageServerPlugin.getPreferencesManager().getPreferences().setCompletionMaxResults(2);
+			int[] loc = findCompletionLocation(unit, "s.to");
+			CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+			assertTrue(list.isIncomplete());
+			List<CompletionItem> methods = list.getItems().stream().filter(item -> item.getKind() == CompletionItemKind.Function).collect(Collectors.toList());
+			assertEquals(2, methods.size());
+			CompletionResponse response = CompletionResponses.getLatest(JDTUtils.toURI(unit));
+			assertTrue(response.getProposals().size() > 2);
+		} finally {
+			JavaLanguageServerPlugin.getPreferencesManager().getPreferences().setCompletionMaxResults(maxResults);
+		}
+	}
+
 	@Test
 	public void testCompletion_constructor() throws Exception{
 		ICompilationUnit unit = getWorkingCopy(
@@ -333,7 +333,8 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertEquals(false, cu1.hasUnsavedChanges());
 		assertEquals(true, cu2.isWorkingCopy());
 		assertEquals(false, cu2.hasUnsavedChanges());
-		assertNewProblemReported(new ExpectedProblemReport(cu2, 1), new ExpectedProblemReport(cu1, 0));
+		// the unchanged diagnostics of cu2 aren't sent again
+		assertNewProblemReported(new ExpectedProblemReport(cu1, 0));
 		assertEquals(1, getCacheSize());
 		assertNewASTsCreated(2);
 
@@ -349,7 +350,7 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertEquals(true, cu1.hasUnsavedChanges());
 		assertEquals(true, cu2.isWorkingCopy());
 		assertEquals(false, cu2.hasUnsavedChanges());
-		assertNewProblemReported(new ExpectedProblemReport(cu2, 0), new ExpectedProblemReport(cu1, 0));
+		assertNewProblemReported(new ExpectedProblemReport(cu2, 0));
 		assertEquals(1, getCacheSize());
 		assertNewASTsCreated(2);
 
@@ -384,6 +385,57 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertNewASTsCreated(0);
 	}
 
+	@Test
+	public void testValidateOnlyAffectedUnits() throws Exception {
+		IJavaProject javaProject = newEmptyProject();
+		IPackageFragmentRoot sourceFolder = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		IPackageFragment pack2 = sourceFolder.createPackageFragment("test2", false, null);
+
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F123 {\n");
+		buf.append("  public void foo() {}\n");
+		buf.append("}\n");
+		ICompilationUnit cu1 = pack1.createCompilationUnit("F123.java", buf.toString(), false, null);
+
+		buf = new StringBuilder();
+		buf.append("package test2;\n");
+		buf.append("public class F456 {\n");
+		buf.append("  { new test1.F123().foo(); }\n");
+		buf.append("}\n");
+		ICompilationUnit cu2 = pack2.createCompilationUnit("F456.java", buf.toString(), false, null);
+
+		openDocument(cu1, cu1.getSource(), 1);
+		openDocument(cu2, cu2.getSource(), 1);
+		clientRequests.clear();
+
+		// a change in a method body can't affect other units
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F123 {\n");
+		buf.append("  public void foo() { X x; }\n");
+		buf.append("}\n");
+		changeDocumentFull(cu1, buf.toString(), 2);
+		assertNewProblemReported(new ExpectedProblemReport(cu1, 1));
+
+		// a change of the public API revalidates all the working copies
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F123 {\n");
+		buf.append("  public void foo(int i) {}\n");
+		buf.append("}\n");
+		changeDocumentFull(cu1, buf.toString(), 3);
+		List<PublishDiagnosticsParams> diags = getClientRequests("publishDiagnostics");
+		assertEquals(2, diags.size());
+		for (PublishDiagnosticsParams diag : diags) {
+			int expectedProblems = JDTUtils.toURI(cu2).equals(diag.getUri()) ? 1 : 0;
+			assertEquals(expectedProblems, diag.getDiagnostics().size());
+		}
+		assertEquals(4, lifeCycleHandler.getCompletedValidationCount());
+		assertEquals(0, lifeCycleHandler.getAbortedValidationCount());
+	}
+
 	@Test
 	public void testDidOpenStandaloneFile() throws Exception {
 		IJavaProject javaProject = newDefaultProject();
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertNotNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.managers.FormatterManager;
+import org.eclipse.lsp4j.DocumentOnTypeFormattingParams;
+import org.eclipse.lsp4j.FormattingOptions;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextEdit;
+import org.junit.Test;
+
+/**
+ * Measures the cost of formatting on type, with a formatter built for each
+ * request and with the cached formatters of {@link FormatterHandler}.
+ * <p>
+ * Not part of the test suite, run it manually as a JUnit plug-in test.
+ * </p>
+ */
+public class FormatterHandlerBenchmark extends AbstractCompilationUnitBasedTest {
+
+	private static final int WARMUP = 50;
+	private static final int ITERATIONS = 500;
+
+	@Test
+	public void benchmarkFormattingOnType() throws Exception {
+		ICompilationUnit unit = getWorkingCopy("src/org/sample/Baz.java",
+		//@formatter:off
+			  "package org.sample;\n"
+			+ "\n"
+			+ "public class Baz {\n"
+			+ "    String          name       ;\n"//typed ; here
+			+ "}\n"
+		//@formatter:on
+		);
+		FormattingOptions options = new FormattingOptions(4, true);
+		DocumentOnTypeFormattingParams params = new DocumentOnTypeFormattingParams(new Position(3, 31), ";");
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(unit)));
+		params.setOptions(options);
+		preferenceManager.getPreferences().setJavaFormatOnTypeEnabled(true);
+		FormatterHandler handler = new FormatterHandler(preferenceManager);
+
+		long uncached = measure(() -> {
+			FormatterManager.clearCodeFormatters();
+			List<? extends TextEdit> edits = handler.onTypeFormatting(params, new NullProgressMonitor());
+			assertNotNull(edits);
+		});
+		long cached = measure(() -> {
+			List<? extends TextEdit> edits = handler.onTypeFormatting(params, new NullProgressMonitor());
+			assertNotNull(edits);
+		});
+		System.out.println(String.format("Formatting on type: %d µs per request with a new formatter, %d µs with the cached formatters", uncached, cached));
+	}
+
+	/**
+	 * @return the average time of the runnable, in microseconds
+	 */
+	private static long measure(Runnable runnable) {
+		for (int i = 0; i < WARMUP; i++) {
+			runnable.run();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			runnable.run();
+		}
+		return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / ITERATIONS;
+	}
+}
@@ -355,6 +355,47 @@ public class FormatterHandlerTest extends AbstractCompilationUnitBasedTest {
 		assertEquals(expectedText, newText);
 	}
 
+	@Test // typing ; in a method body should only format the statement, at its indentation
+	public void testFormattingOnTypeStatement() throws Exception {
+		ICompilationUnit unit = getWorkingCopy("src/org/sample/Baz.java",
+		//@formatter:off
+			  "package org.sample;\n"
+			+ "\n"
+			+ "public class Baz {\n"
+			+ "    void foo() {\n"
+			+ "  int    i =   0;\n"//typed ; here
+			+ "    }\n"
+			+ "}\n"
+		//@formatter:on
+		);
+
+		String uri = JDTUtils.toURI(unit);
+		TextDocumentIdentifier textDocument = new TextDocumentIdentifier(uri);
+		FormattingOptions options = new FormattingOptions(4, true);
+
+		DocumentOnTypeFormattingParams params = new DocumentOnTypeFormattingParams(new Position(4, 17), ";");
+		params.setTextDocument(textDocument);
+		params.setOptions(options);
+
+		preferenceManager.getPreferences().setJavaFormatOnTypeEnabled(true);
+		List<? extends TextEdit> edits = server.onTypeFormatting(params).get();
+		assertNotNull(edits);
+
+		//@formatter:off
+		String expectedText =
+			  "package org.sample;\n"
+			+ "\n"
+			+ "public class Baz {\n"
+			+ "    void foo() {\n"
+			+ "        int i = 0;\n"
+			+ "    }\n"
+			+ "}\n";
+		//@formatter:on
+
+		String newText = TextEditUtil.apply(unit, edits);
+		assertEquals(expectedText, newText);
+	}
+
 	@Test // typing new_line should format the current line if previous character doesn't close a block
 	public void testFormattingOnTypeNewLine() throws Exception {
 		ICompilationUnit unit = getWorkingCopy("src/org/sample/Baz.java",
@@ -323,6 +323,25 @@ public class HoverHandlerTest extends AbstractProjectsManagerBasedTest {
 		assertTrue("Unexpected hover ", hover.getContents().getLeft().isEmpty());
 	}
 
+	@Test
+	public void testHoverTypeDeclaredLater() throws Exception {
+		importProjects("eclipse/unresolvedtype");
+		project = WorkspaceHelper.getProject("unresolvedtype");
+		handler = new HoverHandler(preferenceManager);
+		//Hovers on the IFoo, before and after it is declared
+		String payload = createHoverRequest("src/pckg/Foo.java", 2, 31);
+		Hover hover = handler.hover(getParams(payload), monitor);
+		assertNotNull(hover);
+		assertTrue("Unexpected hover ", hover.getContents().getLeft().isEmpty());
+
+		IPackageFragment pack = (IPackageFragment) JavaCore.createCompilationUnitFrom(project.getFile("src/pckg/Foo.java")).getParent();
+		pack.createCompilationUnit("IFoo.java", "package pckg;\n\npublic interface IFoo {\n}\n", false, monitor);
+		hover = handler.hover(getParams(payload), monitor);
+		assertNotNull(hover);
+		MarkedString signature = hover.getContents().getLeft().get(0).getRight();
+		assertEquals("Unexpected hover " + signature, "pckg.IFoo", signature.getValue());
+	}
+
 	@Test
 	public void testHoverWithAttachedJavadoc() throws Exception {
 		File commonPrimitivesJdoc = DependencyUtil.getJavadoc("commons-primitives", "commons-primitives", "1.0");
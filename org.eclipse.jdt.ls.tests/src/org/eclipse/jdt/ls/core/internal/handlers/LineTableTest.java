@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4j.Range;
+import org.junit.Test;
+
+public class LineTableTest {
+
+	private static final String TEXT = "a\nbc\r\nd\re\n";
+
+	@Test
+	public void testLineDelimiters() throws Exception {
+		LineTable lines = LineTable.of(TEXT);
+		Document document = new Document(TEXT);
+		assertEquals(document.getNumberOfLines(), lines.getNumberOfLines());
+		for (int offset = 0; offset <= TEXT.length(); offset++) {
+			int line = document.getLineOfOffset(offset);
+			assertArrayEquals("offset " + offset, new int[] { line, offset - document.getLineOffset(line) }, lines.toLine(offset));
+			assertEquals(offset, lines.toOffset(line, offset - document.getLineOffset(line)));
+		}
+	}
+
+	@Test
+	public void testOutOfRange() throws Exception {
+		LineTable lines = LineTable.of(TEXT);
+		assertNull(lines.toLine(-1));
+		assertNull(lines.toLine(TEXT.length() + 1));
+		assertEquals(-1, lines.toOffset(-1, 0));
+		assertEquals(-1, lines.toOffset(lines.getNumberOfLines() + 1, 0));
+		assertArrayEquals(new int[] { 0, 0 }, LineTable.of("").toLine(0));
+	}
+
+	@Test
+	public void testToLines() throws Exception {
+		LineTable lines = LineTable.of(TEXT);
+		int[] offsets = { 0, 3, 6, 2, 100, 9 };
+		int[] expected = { 0, 0, 1, 1, 2, 0, 1, 0, -1, -1, 3, 1 };
+		assertArrayEquals(expected, lines.toLines(offsets));
+	}
+
+	@Test
+	public void testToRange() throws Exception {
+		LineTable lines = LineTable.of(TEXT);
+		Range range = lines.toRange(3, 4);
+		assertEquals(1, range.getStart().getLine());
+		assertEquals(1, range.getStart().getCharacter());
+		assertEquals(2, range.getEnd().getLine());
+		assertEquals(1, range.getEnd().getCharacter());
+
+		range = lines.toRange(8, 100);
+		assertEquals(3, range.getStart().getLine());
+		assertEquals(0, range.getStart().getCharacter());
+		assertEquals(0, range.getEnd().getLine());
+		assertEquals(0, range.getEnd().getCharacter());
+	}
+
+	@Test
+	public void testCachedDocumentTable() throws Exception {
+		Document document = new Document();
+		document.set(TEXT);
+		LineTable lines = LineTable.get(document);
+		assertSame(lines, LineTable.get(document));
+		document.replace(0, 0, "\n");
+		LineTable changed = LineTable.get(document);
+		assertNotSame(lines, changed);
+		assertEquals(lines.getNumberOfLines() + 1, changed.getNumberOfLines());
+	}
+}
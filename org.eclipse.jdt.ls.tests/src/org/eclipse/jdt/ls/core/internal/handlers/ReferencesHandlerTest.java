@@ -11,15 +11,27 @@
 package org.eclipse.jdt.ls.core.internal.handlers;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
@@ -79,4 +91,71 @@ public class ReferencesHandlerTest extends AbstractProjectsManagerBasedTest{
 		assertEquals(refereeUri, l.getUri());
 	}
 
+	@Test
+	public void testStreamedReferences() throws Exception {
+		IType type = JavaCore.create(project).findType("java.Foo2");
+		List<List<Location>> partitions = new ArrayList<>();
+		new ReferenceSearchEngine(false).search(type, partitions::add, monitor);
+		assertFalse(partitions.isEmpty());
+		List<Location> references = new ArrayList<>();
+		partitions.forEach(references::addAll);
+		assertEquals(1, references.size());
+		String refereeUri = ResourceUtils.fixURI(project.getFile("src/java/Foo3.java").getRawLocationURI());
+		assertEquals(refereeUri, references.get(0).getUri());
+		assertEquals(5, references.get(0).getRange().getStart().getLine());
+	}
+
+	@Test
+	public void testBatchedReferences() throws Exception {
+		IPackageFragment pack = JavaCore.create(project).getPackageFragmentRoot(project.getFolder("src")).getPackageFragment("java");
+		StringBuilder buf = new StringBuilder();
+		buf.append("package java;\n");
+		buf.append("public class Outer {\n");
+		buf.append("    public Outer() {}\n");
+		buf.append("    public Outer(int i) {}\n");
+		buf.append("    public void run() {}\n");
+		buf.append("    public void run(int i) {}\n");
+		buf.append("    public static class Inner {\n");
+		buf.append("        public void run() {}\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		ICompilationUnit outer = pack.createCompilationUnit("Outer.java", buf.toString(), true, null);
+		buf = new StringBuilder();
+		buf.append("package java;\n");
+		buf.append("public class OuterUser extends Outer {\n");
+		buf.append("    Outer.Inner inner = new Outer.Inner();\n");
+		buf.append("    void use() {\n");
+		buf.append("        new Outer(1).run(2);\n");
+		buf.append("        run();\n");
+		buf.append("        inner.run();\n");
+		buf.append("        java.Outer.Inner other = null;\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		pack.createCompilationUnit("OuterUser.java", buf.toString(), true, null);
+
+		IType type = outer.getType("Outer");
+		IType inner = type.getType("Inner");
+		List<IJavaElement> elements = new ArrayList<>(Arrays.asList(type, inner, inner.getMethod("run", new String[0])));
+		elements.addAll(Arrays.asList(type.getMethods()));
+		ReferenceSearchEngine engine = new ReferenceSearchEngine(false);
+		Map<IJavaElement, List<Location>> batched = engine.search(elements, monitor);
+		for (IJavaElement element : elements) {
+			List<Location> expected = engine.search(element, monitor);
+			assertEquals(element.toString(), new HashSet<>(expected), new HashSet<>(batched.get(element)));
+			assertEquals(element.toString(), expected.size(), batched.get(element).size());
+		}
+		// the qualified names reference both types
+		assertEquals(5, batched.get(type).size());
+		assertEquals(3, batched.get(inner).size());
+		assertEquals(1, batched.get(type.getMethod("run", new String[] { "I" })).size());
+	}
+
+	@Test(expected = OperationCanceledException.class)
+	public void testCanceledReferences() throws Exception {
+		IType type = JavaCore.create(project).findType("java.Foo2");
+		NullProgressMonitor canceled = new NullProgressMonitor();
+		canceled.setCanceled(true);
+		new ReferenceSearchEngine(false).search(type, canceled);
+	}
+
 }
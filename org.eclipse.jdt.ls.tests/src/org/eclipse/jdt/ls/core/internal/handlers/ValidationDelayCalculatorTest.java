@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.junit.Test;
+
+public class ValidationDelayCalculatorTest {
+
+	private static final long MIN = 100;
+	private static final long MAX = 1000;
+
+	@Test
+	public void testUnknownUnitUsesMinDelay() throws Exception {
+		ValidationDelayCalculator calculator = new ValidationDelayCalculator();
+		assertEquals(MIN, calculator.getDelay(mockUnit(1000), MIN, MAX));
+	}
+
+	@Test
+	public void testDelayFollowsValidationCost() throws Exception {
+		ValidationDelayCalculator calculator = new ValidationDelayCalculator();
+		ICompilationUnit small = mockUnit(100);
+		ICompilationUnit medium = mockUnit(10000);
+		ICompilationUnit huge = mockUnit(1000000);
+		calculator.record(small, 5, 100);
+		calculator.record(medium, 200, 10000);
+		calculator.record(huge, 3000, 1000000);
+
+		assertEquals(MIN, calculator.getDelay(small, MIN, MAX));
+		assertEquals(400, calculator.getDelay(medium, MIN, MAX));
+		assertEquals(MAX, calculator.getDelay(huge, MIN, MAX));
+	}
+
+	@Test
+	public void testUnknownUnitIsEstimatedFromItsSize() throws Exception {
+		ValidationDelayCalculator calculator = new ValidationDelayCalculator();
+		calculator.record(mockUnit(1000), 100, 1000);
+
+		assertEquals(600, calculator.getDelay(mockUnit(3000), MIN, MAX));
+	}
+
+	@Test
+	public void testForget() throws Exception {
+		ValidationDelayCalculator calculator = new ValidationDelayCalculator();
+		ICompilationUnit unit = mockUnit(0);
+		calculator.record(unit, 400, 0);
+		assertEquals(800, calculator.getDelay(unit, MIN, MAX));
+
+		calculator.forget(unit);
+		assertEquals(MIN, calculator.getDelay(unit, MIN, MAX));
+	}
+
+	private ICompilationUnit mockUnit(int length) throws Exception {
+		ICompilationUnit unit = mock(ICompilationUnit.class);
+		IBuffer buffer = mock(IBuffer.class);
+		when(buffer.getLength()).thenReturn(length);
+		when(unit.getBuffer()).thenReturn(buffer);
+		return unit;
+	}
+}
@@ -19,6 +19,7 @@ import static org.mockito.Mockito.when;
 import java.util.List;
 
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Range;
@@ -37,6 +38,8 @@ public class WorkspaceSymbolHandlerTest extends AbstractProjectsManagerBasedTest
 	@Before
 	public void setup() throws Exception {
 		importProjects("eclipse/hello");//We need at least 1 project
+		// the index is built in the background, and the search engine answers until then
+		JavaLanguageServerPlugin.getWorkspaceSymbolIndex().update(monitor);
 		handler = new WorkspaceSymbolHandler(preferenceManager);
 	}
 
@@ -118,6 +121,17 @@ public class WorkspaceSymbolHandlerTest extends AbstractProjectsManagerBasedTest
 		assertTrue("Unexpected uri "+ location.getUri(), location.getUri().endsWith("Foo.java"));
 	}
 
+	@Test
+	public void testSearchLimit() {
+		preferences.setSymbolsMaxResults(3);
+		List<SymbolInformation> results = handler.search("A", monitor);
+		assertEquals(3, results.size());
+
+		preferences.setSymbolsMaxResults(0);
+		results = handler.search("A", monitor);
+		assertTrue(results.size() > 3);
+	}
+
 	@Test
 	public void testCamelCaseSearch() {
 		List<SymbolInformation> results = handler.search("NPE", monitor);
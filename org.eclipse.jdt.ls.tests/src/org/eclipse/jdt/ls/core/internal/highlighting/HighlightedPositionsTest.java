@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.highlighting;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HighlightedPositionsTest {
+
+	@Test
+	public void testPacking() throws Exception {
+		HighlightedPositions positions = HighlightedPositions.of(Arrays.asList(position(2, 3, 0), position(10, 1, 1), position(20, 4, 2)));
+		assertEquals(3, positions.size());
+		assertEquals(10, positions.getOffset(1));
+		assertEquals(1, positions.getLength(1));
+		assertEquals(1, positions.getScope(1));
+		HighlightedPosition position = positions.get(2);
+		assertEquals(20, position.getOffset());
+		assertEquals(4, position.getLength());
+		assertEquals(SemanticHighlightingService.getScopes(2), position.getHighlightingScopes());
+	}
+
+	@Test
+	public void testIndexOfOffset() throws Exception {
+		HighlightedPositions positions = HighlightedPositions.of(Arrays.asList(position(2, 3, 0), position(10, 1, 1), position(20, 4, 2)));
+		assertEquals(0, positions.indexOfOffset(0));
+		assertEquals(0, positions.indexOfOffset(2));
+		assertEquals(1, positions.indexOfOffset(3));
+		assertEquals(2, positions.indexOfOffset(20));
+		assertEquals(3, positions.indexOfOffset(21));
+
+		List<HighlightedPosition> between = positions.between(5, 20);
+		assertEquals(1, between.size());
+		assertEquals(10, between.get(0).getOffset());
+		assertEquals(0, positions.between(11, 12).size());
+	}
+
+	@Test
+	public void testReplace() throws Exception {
+		HighlightedPositions positions = HighlightedPositions.of(Arrays.asList(position(2, 3, 0), position(10, 1, 1), position(20, 4, 2)));
+		HighlightedPositions replacement = HighlightedPositions.of(Arrays.asList(position(8, 2, 3), position(12, 2, 3)));
+		HighlightedPositions replaced = positions.replace(5, 15, replacement, 5);
+
+		assertEquals(4, replaced.size());
+		assertEquals(2, replaced.getOffset(0));
+		assertEquals(8, replaced.getOffset(1));
+		assertEquals(12, replaced.getOffset(2));
+		assertEquals(25, replaced.getOffset(3));
+		assertEquals(2, replaced.getScope(3));
+		// the original positions are unchanged
+		assertEquals(3, positions.size());
+		assertEquals(20, positions.getOffset(2));
+	}
+
+	private static HighlightedPosition position(int offset, int length, int scope) {
+		return new HighlightedPosition(offset, length, SemanticHighlightingService.getScopes(scope), new Object());
+	}
+}
@@ -759,6 +759,87 @@ public class SemanticHighlightingTest extends AbstractProjectsManagerBasedTest {
 		assertEquals(1, tokenCFieldA.length);
 	}
 
+	@Test
+	public void testDidChange_multipleChanges() throws Exception {
+		//@formatter:off
+		String content = "package _package;\n" +
+				"\n" +
+				"public class A { }\n";
+		//@formatter:on
+
+		int version = 1;
+		IJavaProject project = newEmptyProject();
+		IPackageFragmentRoot src = project.getPackageFragmentRoot(project.getProject().getFolder("src"));
+		IPackageFragment _package = src.createPackageFragment("_package", false, null);
+		ICompilationUnit unit = _package.createCompilationUnit("A.java", content, false, null);
+		openDocument(unit, unit.getSource(), version);
+		assertEquals(1, javaClient.params.size());
+
+		// the highlighting is updated once for all the changes of a notification
+		javaClient.params.clear();
+		//@formatter:off
+		changeDocument(unit, version++,
+				new TextDocumentContentChangeEvent(new Range(new Position(3, 0), new Position(3, 0)), 0, "class B { }\n"),
+				new TextDocumentContentChangeEvent(new Range(new Position(4, 0), new Position(4, 0)), 0, "class C { }\n")
+		);
+		//@formatter:on
+		assertEquals(1, javaClient.params.size());
+		List<SemanticHighlightingInformation> lines = javaClient.params.get(0).getLines();
+		assertEquals(2, lines.size());
+		assertEquals(3, lines.get(0).getLine());
+		assertEquals(6, decode(lines.get(0).getTokens()).get(0).character);
+		assertEquals(4, lines.get(1).getLine());
+		assertEquals(6, decode(lines.get(1).getTokens()).get(0).character);
+	}
+
+	@Test
+	public void testDidChange_methodBody() throws Exception {
+		//@formatter:off
+		String content = "package _package;\n" +
+				"\n" +
+				"public class A {\n" +
+				"  void foo() {\n" +
+				"    int a = 1;\n" +
+				"  }\n" +
+				"  void bar() {\n" +
+				"    String s = \"\";\n" +
+				"  }\n" +
+				"}";
+		//@formatter:on
+
+		int version = 1;
+		IJavaProject project = newEmptyProject();
+		IPackageFragmentRoot src = project.getPackageFragmentRoot(project.getProject().getFolder("src"));
+		IPackageFragment _package = src.createPackageFragment("_package", false, null);
+		ICompilationUnit unit = _package.createCompilationUnit("A.java", content, false, null);
+		openDocument(unit, unit.getSource(), version);
+		assertEquals(1, javaClient.params.size());
+
+		javaClient.params.clear();
+		changeDocument(unit, version++, new TextDocumentContentChangeEvent(new Range(new Position(5, 0), new Position(5, 0)), 0, "    int b = a;\n"));
+		assertEquals(1, javaClient.params.size());
+		List<SemanticHighlightingInformation> lines = javaClient.params.get(0).getLines();
+		assertEquals(1, lines.size());
+		assertEquals(5, lines.get(0).getLine());
+		List<Token> tokens = decode(lines.get(0).getTokens());
+		assertEquals(2, tokens.size());
+		assertEquals(8, tokens.get(0).character);
+		assertEquals(12, tokens.get(1).character);
+
+		// the positions of the other method were shifted by the previous change
+		javaClient.params.clear();
+		changeDocument(unit, version++, new TextDocumentContentChangeEvent(new Range(new Position(8, 4), new Position(8, 4)), 0, "final "));
+		assertEquals(1, javaClient.params.size());
+		lines = javaClient.params.get(0).getLines();
+		assertEquals(1, lines.size());
+		assertEquals(8, lines.get(0).getLine());
+		tokens = decode(lines.get(0).getTokens());
+		assertEquals(2, tokens.size());
+		assertEquals(10, tokens.get(0).character);
+		assertEquals(6, tokens.get(0).length);
+		assertEquals(17, tokens.get(1).character);
+	}
+
 	protected void openDocument(ICompilationUnit unit, String content, int version) {
 		DidOpenTextDocumentParams openParms = new DidOpenTextDocumentParams();
 		TextDocumentItem textDocument = new TextDocumentItem();
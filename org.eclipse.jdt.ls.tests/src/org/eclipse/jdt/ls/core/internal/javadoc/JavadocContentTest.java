@@ -13,6 +13,11 @@ package org.eclipse.jdt.ls.core.internal.javadoc;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMethod;
@@ -81,4 +86,33 @@ public class JavadocContentTest extends AbstractProjectsManagerBasedTest {
 		MarkedString javadoc = HoverInfoProvider.computeJavadoc(method);
 		assertEquals("Foo method", javadoc.getValue());
 	}
+
+	@Test
+	public void testCachedJavadoc() throws Exception {
+		IType type = project.findType("org.sample.TestJavadoc");
+		assertNotNull(type);
+		JavadocCache cache = new JavadocCache();
+		AtomicInteger computed = new AtomicInteger();
+		JavadocCache.JavadocProvider provider = () -> {
+			computed.incrementAndGet();
+			return HoverInfoProvider.computeJavadoc(type).getValue();
+		};
+		assertEquals("Test javadoc class", cache.get(type, provider));
+		assertEquals("Test javadoc class", cache.get(type, provider));
+		assertEquals(1, computed.get());
+		assertEquals(1, cache.getStatistics().hitCount());
+
+		ICompilationUnit unit = type.getCompilationUnit();
+		JavaCore.addElementChangedListener(cache, ElementChangedEvent.POST_RECONCILE);
+		try {
+			unit.becomeWorkingCopy(new NullProgressMonitor());
+			unit.getBuffer().append("\n");
+			unit.reconcile(ICompilationUnit.NO_AST, false, null, new NullProgressMonitor());
+			assertEquals("Test javadoc class", cache.get(type, provider));
+			assertEquals(2, computed.get());
+		} finally {
+			JavaCore.removeElementChangedListener(cache);
+			unit.discardWorkingCopy();
+		}
+	}
 }
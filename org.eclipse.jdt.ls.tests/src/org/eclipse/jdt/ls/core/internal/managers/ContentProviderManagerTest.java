@@ -11,15 +11,19 @@
 package org.eclipse.jdt.ls.core.internal.managers;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.net.URI;
+import java.nio.file.Files;
 import java.util.Arrays;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.ls.core.internal.ClassFileUtil;
@@ -243,6 +247,36 @@ public class ContentProviderManagerTest extends AbstractProjectsManagerBasedTest
 		assertEquals(FakeContentProvider.returnValue, provider.getContent(sourcelessURI, monitor));
 	}
 
+	@Test
+	public void testCacheDisassembledContent() throws Exception {
+		when(preferences.getPreferredContentProviderIds()).thenReturn(Arrays.asList("disassemblerContentProvider"));
+		File stateLocation = Files.createTempDirectory("contents").toFile();
+		try {
+			String result = new ContentProviderManager(preferenceManager, stateLocation).getSource(sourcelessClassFile, monitor);
+			assertTrue("disassembler header is missing from " + result, result.startsWith(DisassemblerContentProvider.DISASSEMBLED_HEADER));
+			assertEquals(1, FileUtils.listFiles(stateLocation, null, true).size());
+
+			// the content is read from the disk, by a new manager
+			assertEquals(result, new ContentProviderManager(preferenceManager, stateLocation).getContent(sourcelessURI, monitor));
+			assertEquals(1, FileUtils.listFiles(stateLocation, null, true).size());
+		} finally {
+			FileUtils.deleteQuietly(stateLocation);
+		}
+	}
+
+	@Test
+	public void testCleanInterruptedWrites() throws Exception {
+		File stateLocation = Files.createTempDirectory("contents").toFile();
+		try {
+			File interrupted = new File(stateLocation, ".class-file-contents/ab/abcdef.tmp");
+			FileUtils.write(interrupted, "interrupted", "UTF-8");
+			new ContentProviderManager(preferenceManager, stateLocation);
+			assertFalse(interrupted.exists());
+		} finally {
+			FileUtils.deleteQuietly(stateLocation);
+		}
+	}
+
 	private void expectLoggedError(String expected) {
 		assertTrue("expected error " + expected, logListener.getErrors().stream().filter(e -> e.contains(expected)).findAny().isPresent());
 	}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DigestStoreTest {
+
+	private File stateLocation;
+	private Path pom;
+	private Path buildFile;
+
+	@Before
+	public void setup() throws Exception {
+		stateLocation = Files.createTempDirectory("digests").toFile();
+		pom = stateLocation.toPath().resolve("pom.xml");
+		buildFile = stateLocation.toPath().resolve("build.gradle");
+		Files.write(pom, "<project/>".getBytes());
+		Files.write(buildFile, "apply plugin: 'java'".getBytes());
+	}
+
+	@After
+	public void cleanUp() throws Exception {
+		FileUtils.deleteQuietly(stateLocation);
+	}
+
+	@Test
+	public void testUpdateDigest() throws Exception {
+		DigestStore store = new DigestStore(stateLocation);
+		assertTrue(store.updateDigest(pom));
+		assertFalse(store.updateDigest(pom));
+
+		Files.write(pom, "<project></project>".getBytes());
+		assertTrue(store.updateDigest(pom));
+	}
+
+	@Test
+	public void testTouchedFileIsUnchanged() throws Exception {
+		DigestStore store = new DigestStore(stateLocation);
+		assertTrue(store.updateDigest(pom));
+		Files.setLastModifiedTime(pom, FileTime.fromMillis(Files.getLastModifiedTime(pom).toMillis() + 10000));
+		assertFalse(store.updateDigest(pom));
+	}
+
+	@Test
+	public void testUpdateDigests() throws Exception {
+		DigestStore store = new DigestStore(stateLocation);
+		Set<Path> changed = store.updateDigests(Arrays.asList(pom, buildFile));
+		assertEquals(2, changed.size());
+
+		Files.write(buildFile, "apply plugin: 'groovy'".getBytes());
+		changed = store.updateDigests(Arrays.asList(pom, buildFile));
+		assertEquals(Collections.singleton(buildFile), changed);
+	}
+
+	@Test
+	public void testPersistence() throws Exception {
+		DigestStore store = new DigestStore(stateLocation);
+		store.updateDigests(Arrays.asList(pom, buildFile));
+
+		DigestStore loaded = new DigestStore(stateLocation);
+		assertTrue(loaded.updateDigests(Arrays.asList(pom, buildFile)).isEmpty());
+	}
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
+import org.eclipse.jdt.ls.core.internal.managers.WorkspaceSymbolIndex.Symbol;
+import org.eclipse.lsp4j.SymbolKind;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorkspaceSymbolIndexTest extends AbstractProjectsManagerBasedTest {
+
+	private File stateLocation;
+
+	@Before
+	public void setup() throws Exception {
+		importProjects("eclipse/hello");
+		stateLocation = Files.createTempDirectory("symbols").toFile();
+	}
+
+	@After
+	public void cleanUp() throws Exception {
+		FileUtils.deleteQuietly(stateLocation);
+	}
+
+	@Test
+	public void testSearchMembers() throws Exception {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex(stateLocation);
+		index.update(monitor);
+		List<Symbol> symbols = index.search("somethingFromLombok", 0, monitor);
+		assertEquals(1, symbols.size());
+		Symbol symbol = symbols.get(0);
+		assertEquals(SymbolKind.Method, symbol.getKind());
+		assertEquals("java.Bar", symbol.getContainerName());
+		assertTrue(symbol.getElement().exists());
+
+		symbols = index.search("sFJPA", 0, monitor);
+		assertEquals(1, symbols.size());
+		assertEquals("somethingFromJPAModelGen", symbols.get(0).getName());
+	}
+
+	@Test
+	public void testNotReadyBeforeUpdate() throws Exception {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex(stateLocation);
+		try {
+			assertNull("Answered before the workspace was indexed", index.search("Foo", 0, monitor));
+			index.update(monitor);
+			assertNotNull(index.search("Foo", 0, monitor));
+		} finally {
+			index.dispose();
+		}
+	}
+
+	@Test
+	public void testRanking() throws Exception {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex(stateLocation);
+		index.update(monitor);
+		List<Symbol> symbols = index.search("foo", 0, monitor);
+		assertEquals("foo", symbols.get(0).getName());
+		assertEquals(SymbolKind.Method, symbols.get(0).getKind());
+		assertTrue(symbols.stream().anyMatch(symbol -> symbol.getName().equals("Foo2")));
+
+		List<Symbol> limited = index.search("foo", 2, monitor);
+		assertEquals(2, limited.size());
+		assertEquals(symbols.get(0).getName(), limited.get(0).getName());
+		assertEquals(symbols.get(1).getName(), limited.get(1).getName());
+	}
+
+	@Test
+	public void testPersistence() throws Exception {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex(stateLocation);
+		index.update(monitor);
+		int count = index.search("Foo", 0, monitor).size();
+		assertTrue(count > 0);
+		assertFalse("The index was not saved", index.isModified());
+
+		WorkspaceSymbolIndex loaded = new WorkspaceSymbolIndex(stateLocation);
+		loaded.update(monitor);
+		assertEquals(count, loaded.search("Foo", 0, monitor).size());
+		assertFalse("Unchanged files were indexed again", loaded.isModified());
+	}
+
+	@Test
+	public void testIncrementalUpdate() throws Exception {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex(stateLocation);
+		index.update(monitor);
+		JavaCore.addElementChangedListener(index, ElementChangedEvent.POST_CHANGE);
+		try {
+			assertEquals(0, index.search("quxMethod", 0, monitor).size());
+			IFile file = WorkspaceHelper.getProject("hello").getFile("src/java/Qux.java");
+			String source = "package java;\npublic class Qux {\n	public void quxMethod() {}\n}\n";
+			file.create(new ByteArrayInputStream(source.getBytes()), true, monitor);
+			waitForBackgroundJobs();
+			index.update(monitor);
+			List<Symbol> symbols = index.search("quxMethod", 0, monitor);
+			assertEquals(1, symbols.size());
+			assertEquals("java.Qux", symbols.get(0).getContainerName());
+
+			file.delete(true, monitor);
+			waitForBackgroundJobs();
+			index.update(monitor);
+			assertEquals(0, index.search("quxMethod", 0, monitor).size());
+		} finally {
+			JavaCore.removeElementChangedListener(index);
+			index.dispose();
+		}
+	}
+}